@@ -0,0 +1,44 @@
+package com.weixigu.boardgame.domain;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//TicTacToe.getWinner() on a fresh entity (i.e. including deriving its bit board), for a small and a large board.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicTacToeBenchmark {
+
+    @Param({"3", "15"})
+    private int boardLength;
+
+    private String[][] board;
+    private int winLength;
+
+    @Setup
+    public void setUp(){
+        this.winLength = Math.min(this.boardLength, 5);
+        BitBoard bitBoard = BitBoard.empty(this.boardLength, this.winLength);
+
+        //A position without a winner: X and O alternate along the rows, shifted by one every other row.
+        for(int row = 0; row < this.boardLength; row++){
+            for(int col = 0; col < this.boardLength; col++){
+                if((row * this.boardLength + col) % 3 != 2){
+                    bitBoard = bitBoard.play(row, col, ((col + row / 2) % 2) == 0);
+                }
+            }
+        }
+
+        this.board = bitBoard.toCells();
+    }
+
+    @Benchmark
+    public String getWinner(){
+        return TicTacToe.tictactoeBuilder().board(this.board).boardLength(this.boardLength)
+                .winLength(this.winLength).build().getWinner();
+    }
+}
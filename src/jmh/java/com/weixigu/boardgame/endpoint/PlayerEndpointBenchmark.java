@@ -0,0 +1,39 @@
+package com.weixigu.boardgame.endpoint;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+//PlayerEndpoint.validateArgsOfGetPlayerRepo on valid arguments and on each kind of malformed argument.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerEndpointBenchmark {
+
+    @Benchmark
+    public void validateArgsOfGetPlayerRepo_valid(){
+        PlayerEndpoint.validateArgsOfGetPlayerRepo("12", "20", "score");
+    }
+
+    @Benchmark
+    public void validateArgsOfGetPlayerRepo_pageTooLarge(Blackhole blackhole){
+        try{
+            PlayerEndpoint.validateArgsOfGetPlayerRepo("99999999999999999999", "20", "score");
+        }catch (RuntimeException exception){
+            blackhole.consume(exception);
+        }
+    }
+
+    @Benchmark
+    public void validateArgsOfGetPlayerRepo_invalidSortBy(Blackhole blackhole){
+        try{
+            PlayerEndpoint.validateArgsOfGetPlayerRepo("12", "20", "password");
+        }catch (RuntimeException exception){
+            blackhole.consume(exception);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.weixigu.boardgame.service;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.domain.Player;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PlayerService.getPlayerRepo and saveRecord against a player table of 'numOfPlayers' rows, in the application
+ * context (and in-memory H2 database) the service runs in. Application logging is turned down to WARN so that the
+ * console doesn't dominate the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class PlayerServiceBenchmark {
+
+    private static final long FIRST_ID = 10_000_000L; //above the ids the sequence hands out during the run
+    private static final int PAGE_SIZE = 20;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int numOfPlayers;
+
+    private ConfigurableApplicationContext context;
+    private PlayerService playerService;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.context = new SpringApplicationBuilder(BoardGameApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.com.weixigu.boardgame=WARN", "spring.jpa.show-sql=false")
+                .run();
+        this.playerService = this.context.getBean(PlayerService.class);
+
+        JdbcTemplate jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH_SIZE);
+
+        for(int i = 0; i < this.numOfPlayers; i++){
+            rows.add(new Object[]{FIRST_ID + i, "First" + i, "Last" + i, i % 7, i % 11, i % 13});
+
+            if(rows.size() == INSERT_BATCH_SIZE || i == this.numOfPlayers - 1){
+                jdbcTemplate.batchUpdate("insert into player (id, first_name, last_name, nick_name, " +
+                        "num_tic_tac_toe_draw, num_tic_tac_toe_loss, num_tic_tac_toe_win, is_deleted) " +
+                        "values (?, ?, ?, '', ?, ?, ?, false)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        this.context.close();
+    }
+
+    @Benchmark
+    public Page<Player> getPlayerRepo(){
+        int pageNumber = ThreadLocalRandom.current().nextInt(this.numOfPlayers / PAGE_SIZE);
+        return this.playerService.getPlayerRepo(pageNumber, PAGE_SIZE, "score");
+    }
+
+    @Benchmark
+    public String saveRecord(){
+        int i = ThreadLocalRandom.current().nextInt(this.numOfPlayers);
+        return this.playerService.saveRecord(Player.playerBuilder().firstName("First" + i).lastName("Last" + i)
+                .numTicTacToeWin(1).build());
+    }
+}
@@ -0,0 +1,46 @@
+package com.weixigu.boardgame.validation;
+
+import com.weixigu.boardgame.domain.Player;
+import com.weixigu.boardgame.domain.TicTacToe;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import java.util.concurrent.TimeUnit;
+
+//TicTacToeValidator.validate and PlayerValidator.validate on valid targets, as the endpoints call them.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    private final TicTacToeValidator ticTacToeValidator = new TicTacToeValidator();
+    private final PlayerValidator playerValidator = new PlayerValidator();
+    private TicTacToe ticTacToe;
+    private Player player;
+
+    @Setup
+    public void setUp(){
+        this.ticTacToe = TicTacToe.tictactoeBuilder().board(new String[][]{{"X", null, "O"}, {null, "X", null},
+                {"O", null, null}}).build();
+        this.player = Player.playerBuilder().firstName("Silly").lastName("Goose").numTicTacToeWin(3)
+                .numTicTacToeLoss(1).build();
+    }
+
+    @Benchmark
+    public Errors validateTicTacToe(){
+        Errors errors = new BeanPropertyBindingResult(this.ticTacToe, "ticTacToe");
+        this.ticTacToeValidator.validate(this.ticTacToe, errors);
+        return errors;
+    }
+
+    @Benchmark
+    public Errors validatePlayer(){
+        Errors errors = new BeanPropertyBindingResult(this.player, "player");
+        this.playerValidator.validate(this.player, errors);
+        return errors;
+    }
+}
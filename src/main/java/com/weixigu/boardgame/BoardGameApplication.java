@@ -1,12 +1,14 @@
 package com.weixigu.boardgame;
 
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 //Application class of the React And Spring Data REST Application.
 @SpringBootApplication
+@EnableScheduling
 public class BoardGameApplication {
 	private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
 
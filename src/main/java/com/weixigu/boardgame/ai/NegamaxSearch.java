@@ -0,0 +1,190 @@
+package com.weixigu.boardgame.ai;
+
+import com.weixigu.boardgame.domain.BitBoard;
+import com.weixigu.boardgame.domain.TicTacToe;
+
+/**
+ * One negamax search with alpha-beta pruning over a shared TranspositionTable.
+ * A search object is used by a single thread; only the transposition table is shared.
+ *
+ * Scores are from the point of view of the player to move. A won game scores WIN_SCORE plus the number of empty cells
+ * left, so quicker wins score higher; since this only depends on the position, it is safe to reuse across searches.
+ * Positions at the depth horizon score 0.
+ */
+public final class NegamaxSearch {
+    public static final int WIN_SCORE = 1_000_000;
+    private static final int INFINITY = Integer.MAX_VALUE - 1;
+
+    private final TranspositionTable table;
+    private final int fullSearchCells;
+    private final int maxDepth;
+
+    private long nodes = 0;
+    private int rootBestCell = -1;
+
+    /**
+     * @param fullSearchCells positions with at most this many empty cells are searched to the end of the game
+     *                        over every empty cell; larger positions are searched maxDepth plies deep over the cells
+     *                        next to existing marks.
+     */
+    public NegamaxSearch(TranspositionTable table, int fullSearchCells, int maxDepth){
+        this.table = table;
+        this.fullSearchCells = fullSearchCells;
+        this.maxDepth = maxDepth;
+    }
+
+    public long getNodes(){
+        return this.nodes;
+    }
+
+    private static int numOfEmptyCells(BitBoard bitBoard){
+        return bitBoard.getBoardLength() * bitBoard.getBoardLength() - bitBoard.getNumOfMarks();
+    }
+
+    //Return the best cell (row * boardLength + col) for the player to move; throws a RuntimeException if game is over.
+    public int findBestCell(BitBoard bitBoard, boolean xToMove) throws RuntimeException{
+        if(bitBoard.getWinner() != null || bitBoard.isFull()){
+            throw new RuntimeException("The game is over; there is no move to make.");
+        }
+
+        int n = bitBoard.getBoardLength();
+
+        if(bitBoard.getNumOfMarks() == 0){
+            return (n / 2) * n + n / 2;
+        }
+
+        int emptyCells = numOfEmptyCells(bitBoard);
+        boolean isFullSearch = emptyCells <= this.fullSearchCells;
+        int depth = isFullSearch ? emptyCells : Math.min(this.maxDepth, emptyCells);
+
+        this.rootBestCell = -1;
+        this.negamax(bitBoard, ZobristHash.hash(bitBoard, xToMove), xToMove, depth, -INFINITY, INFINITY,
+                isFullSearch, true);
+
+        return this.rootBestCell;
+    }
+
+    private int negamax(BitBoard bitBoard, long hash, boolean xToMove, int depth, int alpha, int beta,
+                        boolean isFullSearch, boolean isRoot){
+        this.nodes++;
+
+        if(bitBoard.getWinner() != null){
+            //The previous player has just won.
+            return -(WIN_SCORE + numOfEmptyCells(bitBoard));
+        }
+
+        if(bitBoard.isFull() || depth == 0){
+            return 0;
+        }
+
+        int originalAlpha = alpha;
+        int tableCell = -1;
+        long data = this.table.probe(hash);
+
+        if(data != 0){
+            tableCell = TranspositionTable.bestCellOf(data);
+
+            //The root is always searched, since its best move has to be known for sure.
+            if(!isRoot && TranspositionTable.depthOf(data) >= depth){
+                int score = TranspositionTable.scoreOf(data);
+                int bound = TranspositionTable.boundOf(data);
+
+                if(bound == TranspositionTable.EXACT){
+                    return score;
+                }else if(bound == TranspositionTable.LOWER_BOUND){
+                    alpha = Math.max(alpha, score);
+                }else{
+                    beta = Math.min(beta, score);
+                }
+
+                if(alpha >= beta){
+                    return score;
+                }
+            }
+        }
+
+        int n = bitBoard.getBoardLength();
+        int[] centerOrder = CenterOrder.of(n);
+        int bestScore = -INFINITY;
+        int bestCell = -1;
+
+        //Try the move remembered by the table first, then the candidates from the center outwards.
+        for(int i = -1; i < n * n && alpha < beta; i++){
+            int cell = i < 0 ? tableCell : centerOrder[i];
+
+            if(cell < 0 || cell >= n * n || (i >= 0 && cell == tableCell) || !bitBoard.isEmpty(cell / n, cell % n)){
+                continue;
+            }
+
+            if(!isFullSearch && !hasNeighbor(bitBoard, cell / n, cell % n)){
+                continue;
+            }
+
+            BitBoard child = bitBoard.play(cell / n, cell % n, xToMove);
+            int score = -this.negamax(child, ZobristHash.play(hash, cell, xToMove), !xToMove, depth - 1,
+                    -beta, -alpha, isFullSearch, false);
+
+            if(score > bestScore){
+                bestScore = score;
+                bestCell = cell;
+            }
+
+            alpha = Math.max(alpha, score);
+        }
+
+        int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : bestScore >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+        this.table.store(hash, depth, bound, bestScore, bestCell);
+
+        if(isRoot){
+            this.rootBestCell = bestCell;
+        }
+
+        return bestScore;
+    }
+
+    private static boolean hasNeighbor(BitBoard bitBoard, int row, int col){
+        int n = bitBoard.getBoardLength();
+
+        for(int r = Math.max(0, row - 1); r <= Math.min(n - 1, row + 1); r++){
+            for(int c = Math.max(0, col - 1); c <= Math.min(n - 1, col + 1); c++){
+                if(!bitBoard.isEmpty(r, c)){
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    //Cells of each board length sorted by (Chebyshev) distance to the center, computed once per length.
+    private static final class CenterOrder {
+        private static final int[][] ORDERS = new int[TicTacToe.MAX_BOARD_LENGTH + 1][];
+
+        static {
+            for(int n = 1; n < ORDERS.length; n++){
+                int[] order = new int[n * n];
+                int index = 0;
+                int maxRing = n / 2;
+
+                for(int ring = 0; ring <= maxRing; ring++){
+                    for(int cell = 0; cell < n * n; cell++){
+                        int row = cell / n;
+                        int col = cell % n;
+                        int distance = Math.max(Math.abs(2 * row - (n - 1)), Math.abs(2 * col - (n - 1))) / 2;
+
+                        if(distance == ring){
+                            order[index++] = cell;
+                        }
+                    }
+                }
+
+                ORDERS[n] = order;
+            }
+        }
+
+        static int[] of(int boardLength){
+            return ORDERS[boardLength];
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.weixigu.boardgame.ai;
+
+import com.weixigu.boardgame.domain.BitBoard;
+import com.weixigu.boardgame.domain.TicTacToe;
+import org.springframework.stereotype.Component;
+
+/**
+ * Game-theoretic value and best moves of every legal position of standard (3x3, 3 in a row) Tic-Tac-Toe,
+ * indexed by the base-3 code of the position (digit of cell row * 3 + col: 0 = empty, 1 = X, 2 = O).
+ *
+ * Only one position per class of the 8 board symmetries is solved; the other positions of the class copy its value
+ * and map its best moves back through the symmetry. Once loaded, a lookup is a single read of a short[].
+ *
+ * Entry layout: bits 0-8 best-move cells, bits 9-10 outcome for the player to move, bits 11-14 plies until the game
+ * ends with perfect play. Entry 0 means the code is not a legal position.
+ */
+@Component
+public class PerfectPlayTable {
+    public static final int LOSS = 1;
+    public static final int DRAW = 2;
+    public static final int WIN = 3;
+
+    private static final int N = TicTacToe.DEFAULT_BOARD_LENGTH;
+    private static final int NUM_OF_CELLS = N * N;
+    private static final int[] POW3 = new int[NUM_OF_CELLS + 1];
+
+    //SYMMETRIES[t][cell] is the cell that 'cell' is mapped to by rotation/reflection t (t = 0 is the identity).
+    private static final int[][] SYMMETRIES = new int[8][NUM_OF_CELLS];
+    private static final int[][] LINES = {{0, 1, 2}, {3, 4, 5}, {6, 7, 8}, {0, 3, 6}, {1, 4, 7}, {2, 5, 8},
+            {0, 4, 8}, {2, 4, 6}};
+
+    static {
+        POW3[0] = 1;
+        for(int i = 1; i <= NUM_OF_CELLS; i++){
+            POW3[i] = 3 * POW3[i - 1];
+        }
+
+        for(int cell = 0; cell < NUM_OF_CELLS; cell++){
+            int row = cell / N;
+            int col = cell % N;
+            int[][] images = {{row, col}, {col, N - 1 - row}, {N - 1 - row, N - 1 - col}, {N - 1 - col, row},
+                    {row, N - 1 - col}, {N - 1 - row, col}, {col, row}, {N - 1 - col, N - 1 - row}};
+
+            for(int t = 0; t < SYMMETRIES.length; t++){
+                SYMMETRIES[t][cell] = images[t][0] * N + images[t][1];
+            }
+        }
+    }
+
+    private volatile short[] entries;
+    private int numOfPositions;
+    private int numOfCanonicalPositions;
+
+    //Return true if the table applies to boards of the given size.
+    public static boolean supports(int boardLength, int winLength){
+        return boardLength == N && winLength == N;
+    }
+
+    public static int codeOf(BitBoard bitBoard){
+        int code = 0;
+
+        for(int cell = NUM_OF_CELLS - 1; cell >= 0; cell--){
+            String mark = bitBoard.getMark(cell / N, cell % N);
+            code = 3 * code + (mark == null ? 0 : BitBoard.PLAYER_X.equals(mark) ? 1 : 2);
+        }
+
+        return code;
+    }
+
+    private static int digitOf(int code, int cell){
+        return (code / POW3[cell]) % 3;
+    }
+
+    private static int transform(int code, int[] symmetry){
+        int image = 0;
+
+        for(int cell = 0; cell < NUM_OF_CELLS; cell++){
+            image += digitOf(code, cell) * POW3[symmetry[cell]];
+        }
+
+        return image;
+    }
+
+    private static boolean hasWinner(int code){
+        for(int[] line : LINES){
+            int digit = digitOf(code, line[0]);
+
+            if(digit != 0 && digit == digitOf(code, line[1]) && digit == digitOf(code, line[2])){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int numOfMarks(int code){
+        int marks = 0;
+
+        for(int cell = 0; cell < NUM_OF_CELLS; cell++){
+            if(digitOf(code, cell) != 0){
+                marks++;
+            }
+        }
+
+        return marks;
+    }
+
+    private static int encode(int outcome, int plies, int bestMoves){
+        return (plies << 11) | (outcome << 9) | bestMoves;
+    }
+
+    public static int outcomeOf(int entry){
+        return (entry >>> 9) & 0x3;
+    }
+
+    public static int pliesOf(int entry){
+        return (entry >>> 11) & 0xF;
+    }
+
+    public static int bestMovesOf(int entry){
+        return entry & 0x1FF;
+    }
+
+    //Preference of an outcome for the player to move: quick wins first, slow losses last.
+    private static int rank(int outcome, int plies){
+        return outcome == WIN ? 100 - plies : outcome == LOSS ? -100 + plies : 0;
+    }
+
+    //Enumerate and solve all legal positions; safe to call again, the table is replaced atomically.
+    public void load(){
+        short[] canonicalEntries = new short[POW3[NUM_OF_CELLS]];
+        short[] table = new short[POW3[NUM_OF_CELLS]];
+        boolean[] isVisited = new boolean[POW3[NUM_OF_CELLS]];
+        boolean[] isCanonicalCounted = new boolean[POW3[NUM_OF_CELLS]];
+        int[] stack = new int[POW3[NUM_OF_CELLS]];
+        int top = 0;
+        int positions = 0;
+        int canonicalPositions = 0;
+
+        stack[top++] = 0;
+        isVisited[0] = true;
+
+        while(top > 0){
+            int code = stack[--top];
+            positions++;
+
+            //Find the symmetry mapping the position to its canonical (smallest) code.
+            int canonical = code;
+            int[] toCanonical = SYMMETRIES[0];
+
+            for(int[] symmetry : SYMMETRIES){
+                int image = transform(code, symmetry);
+
+                if(image < canonical){
+                    canonical = image;
+                    toCanonical = symmetry;
+                }
+            }
+
+            if(canonicalEntries[canonical] == 0){
+                canonicalEntries[canonical] = (short) solve(canonical, canonicalEntries);
+            }
+
+            if(!isCanonicalCounted[canonical]){
+                isCanonicalCounted[canonical] = true;
+                canonicalPositions++;
+            }
+
+            int entry = canonicalEntries[canonical];
+            int bestMoves = 0;
+
+            for(int cell = 0; cell < NUM_OF_CELLS; cell++){
+                if((bestMovesOf(entry) & (1 << toCanonical[cell])) != 0){
+                    bestMoves |= 1 << cell;
+                }
+            }
+
+            table[code] = (short) encode(outcomeOf(entry), pliesOf(entry), bestMoves);
+
+            if(hasWinner(code)){
+                continue;
+            }
+
+            int digit = numOfMarks(code) % 2 == 0 ? 1 : 2;
+
+            for(int cell = 0; cell < NUM_OF_CELLS; cell++){
+                int child = code + digit * POW3[cell];
+
+                if(digitOf(code, cell) == 0 && !isVisited[child]){
+                    isVisited[child] = true;
+                    stack[top++] = child;
+                }
+            }
+        }
+
+        this.numOfPositions = positions;
+        this.numOfCanonicalPositions = canonicalPositions;
+        this.entries = table;
+    }
+
+    //Negamax over canonical positions, memoized in canonicalEntries.
+    private static int solve(int canonical, short[] canonicalEntries){
+        if(hasWinner(canonical)){
+            return encode(LOSS, 0, 0); //the previous player has just won.
+        }
+
+        int marks = numOfMarks(canonical);
+
+        if(marks == NUM_OF_CELLS){
+            return encode(DRAW, 0, 0);
+        }
+
+        int digit = marks % 2 == 0 ? 1 : 2;
+        int bestRank = Integer.MIN_VALUE;
+        int bestOutcome = 0;
+        int bestPlies = 0;
+        int bestMoves = 0;
+
+        for(int cell = 0; cell < NUM_OF_CELLS; cell++){
+
+            if(digitOf(canonical, cell) != 0){
+                continue;
+            }
+
+            int child = canonical + digit * POW3[cell];
+            int childCanonical = child;
+
+            for(int[] symmetry : SYMMETRIES){
+                childCanonical = Math.min(childCanonical, transform(child, symmetry));
+            }
+
+            if(canonicalEntries[childCanonical] == 0){
+                canonicalEntries[childCanonical] = (short) solve(childCanonical, canonicalEntries);
+            }
+
+            int childEntry = canonicalEntries[childCanonical];
+            int outcome = WIN + LOSS - outcomeOf(childEntry);
+            int plies = pliesOf(childEntry) + 1;
+            int rank = rank(outcome, plies);
+
+            if(rank > bestRank){
+                bestRank = rank;
+                bestOutcome = outcome;
+                bestPlies = plies;
+                bestMoves = 0;
+            }
+
+            if(rank == bestRank){
+                bestMoves |= 1 << cell;
+            }
+        }
+
+        return encode(bestOutcome, bestPlies, bestMoves);
+    }
+
+    public boolean isLoaded(){
+        return this.entries != null;
+    }
+
+    //Return the entry of the position, or 0 if the table is not loaded or the position is not legal.
+    public int lookup(int code){
+        short[] table = this.entries;
+        return table == null ? 0 : table[code];
+    }
+
+    public int getNumOfPositions(){
+        return this.numOfPositions;
+    }
+
+    public int getNumOfCanonicalPositions(){
+        return this.numOfCanonicalPositions;
+    }
+}
@@ -0,0 +1,103 @@
+package com.weixigu.boardgame.ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size transposition table shared by all searches (i.e. by all request threads).
+ * Each slot holds two longs: (key XOR data) and data, written without locks. A reader accepts a slot only if
+ * (stored key XOR data) gives back its own key, so an entry torn by two concurrent writers is seen as a miss
+ * instead of as a wrong result.
+ *
+ * Data layout: bits 0-15 best cell + 1 (0 = none), bits 16-23 depth, bits 24-25 bound, bits 32-63 score.
+ */
+public final class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+
+    //The deepest search an entry can record (depth has 8 bits).
+    public static final int MAX_DEPTH = 0xFF;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    //The number of entries is rounded up to a power of two.
+    public TranspositionTable(int numOfEntries){
+        int capacity = Integer.highestOneBit(Math.max(1, numOfEntries - 1)) << 1;
+        this.slots = new AtomicLongArray(2 * capacity);
+        this.mask = capacity - 1;
+    }
+
+    private int indexOf(long key){
+        return (int) (key ^ (key >>> 32)) & this.mask;
+    }
+
+    //Return the data stored for the key, or 0 if absent (a valid entry never has data 0 since depth >= 1).
+    public long probe(long key){
+        this.probes.increment();
+        int index = this.indexOf(key);
+        long data = this.slots.get(2 * index + 1);
+
+        if(data != 0 && (this.slots.get(2 * index) ^ data) == key){
+            this.hits.increment();
+            return data;
+        }
+
+        return 0;
+    }
+
+    //Store an entry; a deeper entry of another position in the same slot is kept.
+    public void store(long key, int depth, int bound, int score, int bestCell){
+        int index = this.indexOf(key);
+        long existing = this.slots.get(2 * index + 1);
+
+        if(existing != 0 && (this.slots.get(2 * index) ^ existing) != key && depthOf(existing) > depth){
+            return;
+        }
+
+        long data = ((long) score << 32) | ((long) (bound & 0x3) << 24) | ((long) (depth & MAX_DEPTH) << 16)
+                | ((bestCell + 1) & 0xFFFF);
+
+        this.slots.set(2 * index + 1, data);
+        this.slots.set(2 * index, key ^ data);
+        this.stores.increment();
+    }
+
+    public static int scoreOf(long data){
+        return (int) (data >> 32);
+    }
+
+    public static int boundOf(long data){
+        return (int) (data >>> 24) & 0x3;
+    }
+
+    public static int depthOf(long data){
+        return (int) (data >>> 16) & MAX_DEPTH;
+    }
+
+    //Return the best cell of the entry, or -1 if none.
+    public static int bestCellOf(long data){
+        return (int) (data & 0xFFFF) - 1;
+    }
+
+    public int getCapacity(){
+        return this.mask + 1;
+    }
+
+    public long getProbes(){
+        return this.probes.sum();
+    }
+
+    public long getHits(){
+        return this.hits.sum();
+    }
+
+    public long getStores(){
+        return this.stores.sum();
+    }
+}
@@ -0,0 +1,68 @@
+package com.weixigu.boardgame.ai;
+
+import com.weixigu.boardgame.domain.BitBoard;
+import com.weixigu.boardgame.domain.TicTacToe;
+
+import java.util.Random;
+
+/**
+ * Zobrist hashing of Tic-Tac-Toe positions: a position's hash is the XOR of one random key per mark on the board,
+ * one key for its board/win length, and one key if X is to move. Playing a mark updates the hash with two XORs.
+ * Keys come from a fixed seed so hashes are stable across restarts.
+ */
+public final class ZobristHash {
+    private static final long SEED = 0x5DEECE66DL;
+    private static final int MAX_CELLS = TicTacToe.MAX_BOARD_LENGTH * TicTacToe.MAX_BOARD_LENGTH;
+
+    private static final long[] X_KEYS = new long[MAX_CELLS];
+    private static final long[] O_KEYS = new long[MAX_CELLS];
+    private static final long[][] SIZE_KEYS = new long[TicTacToe.MAX_BOARD_LENGTH + 1][TicTacToe.MAX_BOARD_LENGTH + 1];
+    private static final long X_TO_MOVE_KEY;
+
+    static {
+        Random random = new Random(SEED);
+
+        for(int cell = 0; cell < MAX_CELLS; cell++){
+            X_KEYS[cell] = random.nextLong();
+            O_KEYS[cell] = random.nextLong();
+        }
+
+        for(long[] keysOfBoardLength : SIZE_KEYS){
+            for(int winLength = 0; winLength < keysOfBoardLength.length; winLength++){
+                keysOfBoardLength[winLength] = random.nextLong();
+            }
+        }
+
+        X_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private ZobristHash(){
+    }
+
+    //Hash the whole position; O(boardLength^2), so it's only used once per search at the root.
+    public static long hash(BitBoard bitBoard, boolean xToMove){
+        int n = bitBoard.getBoardLength();
+        long hash = SIZE_KEYS[n][bitBoard.getWinLength()];
+
+        for(int row = 0; row < n; row++){
+            for(int col = 0; col < n; col++){
+
+                String mark = bitBoard.getMark(row, col);
+
+                if(BitBoard.PLAYER_X.equals(mark)){
+                    hash ^= X_KEYS[row * n + col];
+
+                }else if(BitBoard.PLAYER_O.equals(mark)){
+                    hash ^= O_KEYS[row * n + col];
+                }
+            }
+        }
+
+        return xToMove ? hash ^ X_TO_MOVE_KEY : hash;
+    }
+
+    //Hash of the position reached when the player to move marks the given cell.
+    public static long play(long hash, int cell, boolean isPlayerX){
+        return hash ^ (isPlayerX ? X_KEYS[cell] : O_KEYS[cell]) ^ X_TO_MOVE_KEY;
+    }
+}
@@ -0,0 +1,166 @@
+package com.weixigu.boardgame.archive;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.domain.ArchivedPlayer;
+import com.weixigu.boardgame.domain.ArchivedTicTacToe;
+import com.weixigu.boardgame.domain.Player;
+import com.weixigu.boardgame.domain.TicTacToe;
+import com.weixigu.boardgame.repo.IPlayerRepository;
+import com.weixigu.boardgame.repo.ITicTacToeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Moves dead rows (deleted players and moves removed from their games) that have been dead for longer than the
+ * retention period into the ArchivedPlayer and ArchivedTicTacToe tables.
+ *
+ * Rows are moved in batches of 'batch-size', each batch in its own transaction, with a pause between batches and
+ * at most 'max-batches-per-run' batches per table per run, so a run never holds locks or the database for long.
+ */
+@Component
+public class DeadRowCompactor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+
+    private final IPlayerRepository playerRepository;
+    private final ITicTacToeRepository ticTacToeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long retentionMillis;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long pauseMillis;
+
+    private final LongAdder numOfRuns = new LongAdder();
+    private final LongAdder numOfArchivedPlayers = new LongAdder();
+    private final LongAdder numOfArchivedMoves = new LongAdder();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public DeadRowCompactor(IPlayerRepository playerRepository, ITicTacToeRepository ticTacToeRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${archive.retention-hours:168}") long retentionHours,
+                            @Value("${archive.compaction.batch-size:500}") int batchSize,
+                            @Value("${archive.compaction.max-batches-per-run:20}") int maxBatchesPerRun,
+                            @Value("${archive.compaction.pause-ms:50}") long pauseMillis){
+
+        if(retentionHours < 0 || batchSize < 1 || maxBatchesPerRun < 1 || pauseMillis < 0){
+
+            throw new RuntimeException("Invalid archive settings: retention, pause >= 0 and batch size, " +
+                    "batches per run >= 1 expected.");
+        }
+
+        this.playerRepository = playerRepository;
+        this.ticTacToeRepository = ticTacToeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionMillis = TimeUnit.HOURS.toMillis(retentionHours);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Scheduled(initialDelayString = "${archive.compaction.interval-ms:600000}",
+            fixedDelayString = "${archive.compaction.interval-ms:600000}")
+    public void compact(){
+        this.compact(System.currentTimeMillis() - this.retentionMillis);
+    }
+
+    //Archive the rows that died before the given time (epoch milliseconds); return the number of archived rows.
+    public long compact(long deadBefore){
+
+        long start = System.currentTimeMillis();
+
+        long players = this.compactTable(
+                before -> this.playerRepository.findDeletedPlayers(before, PageRequest.of(0, this.batchSize)),
+                player -> ArchivedPlayer.of(player, start), this.playerRepository::deleteInBatch, deadBefore);
+
+        long moves = this.compactTable(
+                before -> this.ticTacToeRepository.findRemovedMoves(before, PageRequest.of(0, this.batchSize)),
+                move -> ArchivedTicTacToe.of(move, start), this.ticTacToeRepository::deleteInBatch, deadBefore);
+
+        this.numOfRuns.increment();
+        this.numOfArchivedPlayers.add(players);
+        this.numOfArchivedMoves.add(moves);
+        this.lastRunMillis.set(System.currentTimeMillis() - start);
+
+        if(players + moves > 0){
+            LOGGER.info("Archived {} deleted players and {} removed Tic-Tac-Toe moves in {} ms.",
+                    players, moves, this.lastRunMillis.get());
+        }
+
+        return players + moves;
+    }
+
+    private <T> long compactTable(LongFunction<List<T>> findBatch, Function<T, ?> toArchive,
+                                  Consumer<Iterable<T>> deleteBatch, long deadBefore){
+
+        long numOfRows = 0;
+
+        for(int batch = 0; batch < this.maxBatchesPerRun; batch++){
+
+            Integer numOfRowsOfBatch = this.transactionTemplate.execute(status -> {
+
+                List<T> rows = findBatch.apply(deadBefore);
+
+                for(T row : rows){
+                    this.entityManager.persist(toArchive.apply(row));
+                }
+
+                deleteBatch.accept(rows);
+                return rows.size();
+            });
+
+            numOfRows += numOfRowsOfBatch == null ? 0 : numOfRowsOfBatch;
+
+            if(numOfRowsOfBatch == null || numOfRowsOfBatch < this.batchSize){
+                break;
+            }
+
+            this.pause();
+        }
+
+        return numOfRows;
+    }
+
+    private void pause(){
+        try{
+            Thread.sleep(this.pauseMillis);
+
+        }catch (InterruptedException exception){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Map<String, Number> getStatistics(){
+        Map<String, Number> statistics = new LinkedHashMap<>();
+
+        statistics.put("runs", this.numOfRuns.sum());
+        statistics.put("archivedPlayers", this.numOfArchivedPlayers.sum());
+        statistics.put("archivedMoves", this.numOfArchivedMoves.sum());
+        statistics.put("lastRunMillis", this.lastRunMillis.get());
+        statistics.put("retentionHours", TimeUnit.MILLISECONDS.toHours(this.retentionMillis));
+
+        return statistics;
+    }
+}
@@ -0,0 +1,132 @@
+package com.weixigu.boardgame.cache;
+
+import com.weixigu.boardgame.domain.Player;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Least-recently-used cache of the non-deleted copies of players, keyed by their lower-cased first and last names
+ * (an empty list records that a name has no non-deleted copy).
+ *
+ * PlayerService writes through it on every change of a player; anything it puts during a transaction that is
+ * rolled back is evicted again. The cache keeps snapshots (see Player.snapshot()) of the players it is given and
+ * hands out snapshots of them, so that changing a player (e.g. marking it as deleted) never changes a cached one.
+ */
+@Component
+public class PlayerCache {
+
+    private final int maxEntries;
+    private final Map<String, List<Player>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public PlayerCache(@Value("${player.cache.max-entries:1024}") int maxEntries){
+
+        if(maxEntries < 1){
+            throw new RuntimeException("The player cache should hold at least one entry.");
+        }
+
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, List<Player>>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<Player>> eldest){
+                boolean isFull = this.size() > PlayerCache.this.maxEntries;
+
+                if(isFull){
+                    PlayerCache.this.evictions.increment();
+                }
+                return isFull;
+            }
+        };
+    }
+
+    public static String keyOf(String firstName, String lastName){
+        return firstName.toLowerCase(Locale.ROOT) + '\u0000' + lastName.toLowerCase(Locale.ROOT);
+    }
+
+    //Return snapshots of the cached non-deleted copies of the player of the given name, or null if it isn't cached.
+    public List<Player> get(String firstName, String lastName){
+        List<Player> players;
+
+        synchronized(this.entries){
+            players = this.entries.get(keyOf(firstName, lastName));
+        }
+
+        (players == null ? this.misses : this.hits).increment();
+        return players == null ? null : snapshotsOf(players);
+    }
+
+    private static List<Player> snapshotsOf(List<Player> players){
+        if(players.isEmpty()){
+            return Collections.emptyList();
+        }
+
+        List<Player> snapshots = new ArrayList<>(players.size());
+
+        for(Player player : players){
+            snapshots.add(player.snapshot());
+        }
+        return Collections.unmodifiableList(snapshots);
+    }
+
+    public void put(String firstName, String lastName, List<Player> nonDeletedCopies){
+        String key = keyOf(firstName, lastName);
+        List<Player> snapshots = snapshotsOf(nonDeletedCopies);
+
+        synchronized(this.entries){
+            this.entries.put(key, snapshots);
+        }
+
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter(){
+                @Override
+                public void afterCompletion(int status){
+                    if(status != STATUS_COMMITTED){
+                        PlayerCache.this.evict(key);
+                    }
+                }
+            });
+        }
+    }
+
+    public void evict(String firstName, String lastName){
+        this.evict(keyOf(firstName, lastName));
+    }
+
+    private void evict(String key){
+        synchronized(this.entries){
+            this.entries.remove(key);
+        }
+    }
+
+    public Map<String, Number> getStatistics(){
+        Map<String, Number> statistics = new LinkedHashMap<>();
+        long numOfHits = this.hits.sum();
+        long numOfLookups = numOfHits + this.misses.sum();
+
+        synchronized(this.entries){
+            statistics.put("size", this.entries.size());
+        }
+
+        statistics.put("maxEntries", this.maxEntries);
+        statistics.put("hits", numOfHits);
+        statistics.put("misses", numOfLookups - numOfHits);
+        statistics.put("evictions", this.evictions.sum());
+        statistics.put("hitRate", numOfLookups == 0 ? 0.0 : (double) numOfHits / numOfLookups);
+
+        return statistics;
+    }
+}
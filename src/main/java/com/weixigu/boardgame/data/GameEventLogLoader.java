@@ -0,0 +1,53 @@
+package com.weixigu.boardgame.data;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.domain.BitBoard;
+import com.weixigu.boardgame.eventlog.GameEventLog;
+import com.weixigu.boardgame.service.TicTacToeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+//Rebuild the current moves of every game from the game event log (if it is enabled) once at startup.
+@Component
+public class GameEventLogLoader implements CommandLineRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+    private final GameEventLog eventLog;
+    private final TicTacToeService ticTacToeService;
+
+    @Autowired
+    public GameEventLogLoader(GameEventLog eventLog, TicTacToeService ticTacToeService){
+        this.eventLog = eventLog;
+        this.ticTacToeService = ticTacToeService;
+    }
+
+    @Override
+    public void run(String... strings) throws Exception{
+        if(!this.eventLog.isEnabled()){
+            return;
+        }
+
+        LOGGER.info("Restoring Tic-Tac-Toe games from the game event log.");
+
+        int numOfGames = 0;
+        long numOfMoves = 0;
+
+        for(Map.Entry<String, List<BitBoard>> game : this.eventLog.replayGames().entrySet()){
+            try{
+                int numOfRestoredMoves = this.ticTacToeService.restoreGame(game.getKey(), game.getValue());
+                numOfGames += numOfRestoredMoves > 0 ? 1 : 0;
+                numOfMoves += numOfRestoredMoves;
+
+            }catch (RuntimeException exception){
+                LOGGER.info("Unable to restore Tic-Tac-Toe game {}: {}", game.getKey(), exception.getMessage());
+            }
+        }
+
+        LOGGER.info("Finish restoring Tic-Tac-Toe games: {} games with {} moves.", numOfGames, numOfMoves);
+    }
+}
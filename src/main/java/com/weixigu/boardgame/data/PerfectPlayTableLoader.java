@@ -0,0 +1,31 @@
+package com.weixigu.boardgame.data;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.ai.PerfectPlayTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+//Solve standard 3x3 Tic-Tac-Toe once at startup, so the AI opponent answers it with table lookups.
+@Component
+public class PerfectPlayTableLoader implements CommandLineRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+    private final PerfectPlayTable perfectPlayTable;
+
+    @Autowired
+    public PerfectPlayTableLoader(PerfectPlayTable perfectPlayTable){
+        this.perfectPlayTable = perfectPlayTable;
+    }
+
+    @Override
+    public void run(String... strings) throws Exception{
+        LOGGER.info("Pre-loading perfect-play table of Tic-Tac-Toe.");
+
+        this.perfectPlayTable.load();
+
+        LOGGER.info("Finish pre-loading perfect-play table: {} legal positions, {} up to symmetry.",
+                this.perfectPlayTable.getNumOfPositions(), this.perfectPlayTable.getNumOfCanonicalPositions());
+    }
+}
@@ -7,10 +7,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 //Pre-load some Player data in order to show how PlayerList looks like.
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class PlayerDataLoader implements CommandLineRunner {
     private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
     private final IPlayerRepository repository;
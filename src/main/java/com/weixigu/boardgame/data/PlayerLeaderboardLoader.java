@@ -0,0 +1,36 @@
+package com.weixigu.boardgame.data;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.ranking.PlayerLeaderboard;
+import com.weixigu.boardgame.repo.IPlayerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+//Rank the non-deleted players once at startup (after PlayerDataLoader); PlayerService keeps the leaderboard updated.
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class PlayerLeaderboardLoader implements CommandLineRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+    private final IPlayerRepository repository;
+    private final PlayerLeaderboard playerLeaderboard;
+
+    @Autowired
+    public PlayerLeaderboardLoader(IPlayerRepository repository, PlayerLeaderboard playerLeaderboard){
+        this.repository = repository;
+        this.playerLeaderboard = playerLeaderboard;
+    }
+
+    @Override
+    public void run(String... strings) throws Exception{
+        LOGGER.info("Pre-loading player leaderboard.");
+
+        this.playerLeaderboard.load(this.repository.findByIsDeleted(false));
+
+        LOGGER.info("Finish pre-loading player leaderboard: {} players.", this.playerLeaderboard.size());
+    }
+}
@@ -0,0 +1,43 @@
+package com.weixigu.boardgame.domain;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.io.Serializable;
+
+//A deleted Player moved out of the Player table by the compactor; keeps the record under the original id.
+@Entity
+@Builder(builderMethodName = "archivedPlayerBuilder")
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class ArchivedPlayer implements Serializable {
+
+    @Id
+    private Long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String nickName;
+
+    private Integer numTicTacToeDraw;
+
+    private Integer numTicTacToeLoss;
+
+    private Integer numTicTacToeWin;
+
+    private Long deletedAt;
+
+    private long archivedAt;
+
+    public static ArchivedPlayer of(Player player, long archivedAt){
+        return ArchivedPlayer.archivedPlayerBuilder().id(player.getId()).firstName(player.getFirstName())
+                .lastName(player.getLastName()).nickName(player.getNickName())
+                .numTicTacToeDraw(player.getNumTicTacToeDraw()).numTicTacToeLoss(player.getNumTicTacToeLoss())
+                .numTicTacToeWin(player.getNumTicTacToeWin()).deletedAt(player.getDeletedAt())
+                .archivedAt(archivedAt).build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.weixigu.boardgame.domain;
+
+import lombok.*;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.io.Serializable;
+
+/**
+ * A move removed from its game (by a reset or a revert) and moved out of the TicTacToe table by the compactor.
+ * Only the delta and checkpoint columns are kept, under the original id.
+ */
+@Entity
+@Builder(builderMethodName = "archivedTictactoeBuilder")
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class ArchivedTicTacToe implements Serializable {
+
+    @Id
+    private Long id;
+
+    private String gameId;
+
+    private int moveNumber;
+
+    private int boardLength;
+
+    private int winLength;
+
+    private int cell;
+
+    @Column(length = 1)
+    private String cellMark;
+
+    @Column(length = TicTacToe.MAX_BOARD_LENGTH * TicTacToe.MAX_BOARD_LENGTH)
+    private String checkpoint;
+
+    private Long removedAt;
+
+    private long archivedAt;
+
+    public static ArchivedTicTacToe of(TicTacToe move, long archivedAt){
+        return ArchivedTicTacToe.archivedTictactoeBuilder().id(move.getId()).gameId(move.getGameId())
+                .moveNumber(move.getMoveNumber()).boardLength(move.getBoardLength()).winLength(move.getWinLength())
+                .cell(move.getCell()).cellMark(move.getCellMark()).checkpoint(move.getCheckpoint())
+                .removedAt(move.getRemovedAt()).archivedAt(archivedAt).build();
+    }
+}
@@ -0,0 +1,396 @@
+package com.weixigu.boardgame.domain;
+
+/**
+ * Packed-bit representation of an m,n,k-game board (boardLength x boardLength, winLength marks in a row to win).
+ * Each player owns a bit set where bit (row * boardLength + col) is set if the player has a mark on that cell,
+ * so draw and legal-move checks are a few AND/compare operations that allocate nothing.
+ * The winner is tracked incrementally: play() only checks the lines through the newly placed mark, i.e. O(winLength)
+ * per move; a board unpacked from cells is scanned once.
+ * Instances are immutable, hence safe to cache on a TicTacToe entity and to share between threads.
+ */
+public final class BitBoard {
+    public static final String PLAYER_X = "X";
+    public static final String PLAYER_O = "O";
+
+    //(row, col) steps of the four line directions: horizontal, vertical, diagonal and anti-diagonal.
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final int boardLength;
+    private final int winLength;
+
+    private final long[] xMask;
+    private final long[] oMask;
+    private final int numOfMarks;
+    private final String winner;
+
+    private BitBoard(int boardLength, int winLength, long[] xMask, long[] oMask, int numOfMarks, String winner){
+        this.boardLength = boardLength;
+        this.winLength = winLength;
+        this.xMask = xMask;
+        this.oMask = oMask;
+        this.numOfMarks = numOfMarks;
+        this.winner = winner;
+    }
+
+    //Return true if boardLength and winLength describe a board supported by the game.
+    public static boolean isSupportedSize(int boardLength, int winLength){
+        return boardLength >= TicTacToe.MIN_BOARD_LENGTH && boardLength <= TicTacToe.MAX_BOARD_LENGTH &&
+                winLength >= TicTacToe.MIN_WIN_LENGTH && winLength <= boardLength;
+    }
+
+    private static void validateSize(int boardLength, int winLength) throws RuntimeException{
+        if(!isSupportedSize(boardLength, winLength)){
+            throw new RuntimeException(String.format("Unsupported board: length = %d, win length = %d.",
+                    boardLength, winLength));
+        }
+    }
+
+    private static int numOfWords(int boardLength){
+        return (boardLength * boardLength + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    public static BitBoard empty(){
+        return BitBoard.empty(TicTacToe.DEFAULT_BOARD_LENGTH, TicTacToe.DEFAULT_WIN_LENGTH);
+    }
+
+    public static BitBoard empty(int boardLength, int winLength) throws RuntimeException{
+        validateSize(boardLength, winLength);
+        int words = numOfWords(boardLength);
+
+        return new BitBoard(boardLength, winLength, new long[words], new long[words], 0, null);
+    }
+
+    //Pack a board of "X"/"O"/null cells; cells outside the board or holding any other value are left empty.
+    public static BitBoard fromCells(String[][] cells, int boardLength, int winLength) throws RuntimeException{
+        validateSize(boardLength, winLength);
+        int words = numOfWords(boardLength);
+        long[] xMask = new long[words];
+        long[] oMask = new long[words];
+        int numOfMarks = 0;
+
+        if(cells != null){
+
+            for(int row = 0; row < Math.min(cells.length, boardLength); row++){
+
+                if(cells[row] == null){
+                    continue;
+                }
+
+                for(int col = 0; col < Math.min(cells[row].length, boardLength); col++){
+
+                    int cell = row * boardLength + col;
+
+                    if(PLAYER_X.equals(cells[row][col])){
+                        xMask[cell >>> 6] |= 1L << cell;
+                        numOfMarks++;
+
+                    }else if(PLAYER_O.equals(cells[row][col])){
+                        oMask[cell >>> 6] |= 1L << cell;
+                        numOfMarks++;
+                    }
+                }
+            }
+        }
+
+        return new BitBoard(boardLength, winLength, xMask, oMask, numOfMarks,
+                scanForWinner(xMask, oMask, boardLength, winLength));
+    }
+
+    /**
+     * Unpack a board written by toCompactString(): one character per cell in row-major order,
+     * 'X' or 'O' for a mark and any other character (e.g. '-') for an empty cell.
+     */
+    public static BitBoard fromCompactString(String compact, int boardLength, int winLength) throws RuntimeException{
+        validateSize(boardLength, winLength);
+
+        if(compact == null || compact.length() != boardLength * boardLength){
+            throw new RuntimeException(String.format("A compact board of length %d should have %d characters.",
+                    boardLength, boardLength * boardLength));
+        }
+
+        int words = numOfWords(boardLength);
+        long[] xMask = new long[words];
+        long[] oMask = new long[words];
+        int numOfMarks = 0;
+
+        for(int cell = 0; cell < compact.length(); cell++){
+            char mark = compact.charAt(cell);
+
+            if(mark == 'X'){
+                xMask[cell >>> 6] |= 1L << cell;
+                numOfMarks++;
+
+            }else if(mark == 'O'){
+                oMask[cell >>> 6] |= 1L << cell;
+                numOfMarks++;
+            }
+        }
+
+        return new BitBoard(boardLength, winLength, xMask, oMask, numOfMarks,
+                scanForWinner(xMask, oMask, boardLength, winLength));
+    }
+
+    //Number of bytes of a board packed by toPackedBytes(): 2 bits per cell.
+    public static int numOfPackedBytes(int boardLength){
+        return (boardLength * boardLength + 3) / 4;
+    }
+
+    /**
+     * Unpack a board written by toPackedBytes(), starting at the given offset: 2 bits per cell in row-major order
+     * (the low bits of a byte first), 1 for 'X', 2 for 'O' and 0 for an empty cell.
+     */
+    public static BitBoard fromPackedBytes(byte[] packed, int offset, int boardLength, int winLength)
+            throws RuntimeException{
+        validateSize(boardLength, winLength);
+
+        if(packed == null || packed.length - offset < numOfPackedBytes(boardLength)){
+            throw new RuntimeException(String.format("A packed board of length %d should have %d bytes.",
+                    boardLength, numOfPackedBytes(boardLength)));
+        }
+
+        int words = numOfWords(boardLength);
+        long[] xMask = new long[words];
+        long[] oMask = new long[words];
+        int numOfMarks = 0;
+
+        for(int cell = 0; cell < boardLength * boardLength; cell++){
+            int mark = packed[offset + cell / 4] >> 2 * (cell % 4) & 0x3;
+
+            if(mark == 1){
+                xMask[cell >>> 6] |= 1L << cell;
+                numOfMarks++;
+
+            }else if(mark == 2){
+                oMask[cell >>> 6] |= 1L << cell;
+                numOfMarks++;
+            }
+        }
+
+        return new BitBoard(boardLength, winLength, xMask, oMask, numOfMarks,
+                scanForWinner(xMask, oMask, boardLength, winLength));
+    }
+
+    private static boolean isSet(long[] mask, int cell){
+        return (mask[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public int getBoardLength(){
+        return this.boardLength;
+    }
+
+    public int getWinLength(){
+        return this.winLength;
+    }
+
+    public int getNumOfMarks(){
+        return this.numOfMarks;
+    }
+
+    //X always plays first, so it is X's turn whenever both players have the same number of marks.
+    public boolean isXNext(){
+        return this.numOfMarks % 2 == 0;
+    }
+
+    public boolean isEmpty(int row, int col){
+        int cell = row * this.boardLength + col;
+        return !isSet(this.xMask, cell) && !isSet(this.oMask, cell);
+    }
+
+    //Return "X" or "O" if the cell holds that player's mark; null if the cell is empty.
+    public String getMark(int row, int col){
+        int cell = row * this.boardLength + col;
+
+        if(isSet(this.xMask, cell)){
+            return PLAYER_X;
+        }
+        if(isSet(this.oMask, cell)){
+            return PLAYER_O;
+        }
+        return null;
+    }
+
+    public boolean isFull(){
+        return this.numOfMarks == this.boardLength * this.boardLength;
+    }
+
+    //Return "X" or "O" if the player has winLength marks in a row, column or diagonal; null otherwise.
+    public String getWinner(){
+        return this.winner;
+    }
+
+    public boolean isDraw(){
+        return this.isFull() && this.winner == null;
+    }
+
+    //A move is legal if it targets an empty cell on the board of a game that has not been won yet.
+    public boolean isLegalMove(int row, int col){
+        return isInBounds(this.boardLength, row, col) && this.isEmpty(row, col) && this.winner == null;
+    }
+
+    //Return the board after the given player marks the cell; throws a RuntimeException if the move is illegal.
+    public BitBoard play(int row, int col, boolean isPlayerX) throws RuntimeException{
+        if(!this.isLegalMove(row, col)){
+            throw new RuntimeException(String.format("Illegal move at (%d, %d).", row, col));
+        }
+
+        int cell = row * this.boardLength + col;
+        long[] xMask = this.xMask;
+        long[] oMask = this.oMask;
+
+        if(isPlayerX){
+            xMask = this.xMask.clone();
+            xMask[cell >>> 6] |= 1L << cell;
+        }else{
+            oMask = this.oMask.clone();
+            oMask[cell >>> 6] |= 1L << cell;
+        }
+
+        String winner = null;
+
+        if(hasLineThrough(isPlayerX ? xMask : oMask, this.boardLength, this.winLength, row, col)){
+            winner = isPlayerX ? PLAYER_X : PLAYER_O;
+        }
+
+        return new BitBoard(this.boardLength, this.winLength, xMask, oMask, this.numOfMarks + 1, winner);
+    }
+
+    /**
+     * Return the cell (row * boardLength + col) if the board of "X"/"O"/null cells is this board plus exactly one mark
+     * that was a legal move; -1 otherwise. Unlike fromCells(), nothing is packed and the board isn't scanned for a winner.
+     */
+    public int findAddedCell(String[][] cells){
+        if(cells == null || cells.length != this.boardLength || this.winner != null){
+            return -1;
+        }
+
+        int addedCell = -1;
+
+        for(int row = 0; row < this.boardLength; row++){
+
+            if(cells[row] == null || cells[row].length != this.boardLength){
+                return -1;
+            }
+
+            for(int col = 0; col < this.boardLength; col++){
+
+                String mark = this.getMark(row, col);
+                String nextMark = PLAYER_X.equals(cells[row][col]) || PLAYER_O.equals(cells[row][col]) ?
+                        cells[row][col] : null;
+
+                if(mark != null && !mark.equals(nextMark)){
+                    return -1;
+                }
+
+                if(mark == null && nextMark != null){
+
+                    if(addedCell >= 0){
+                        return -1;
+                    }
+                    addedCell = row * this.boardLength + col;
+                }
+            }
+        }
+
+        return addedCell;
+    }
+
+    private static boolean isInBounds(int boardLength, int row, int col){
+        return row >= 0 && row < boardLength && col >= 0 && col < boardLength;
+    }
+
+    //Count consecutive marks of 'mask' starting next to (row, col) in direction (dRow, dCol), up to winLength - 1.
+    private static int countRun(long[] mask, int boardLength, int winLength, int row, int col, int dRow, int dCol){
+        int count = 0;
+        int r = row + dRow;
+        int c = col + dCol;
+
+        while(count < winLength - 1 && isInBounds(boardLength, r, c) && isSet(mask, r * boardLength + c)){
+            count++;
+            r += dRow;
+            c += dCol;
+        }
+
+        return count;
+    }
+
+    //Return true if the mark of 'mask' at (row, col) is part of winLength marks in a row; O(winLength).
+    private static boolean hasLineThrough(long[] mask, int boardLength, int winLength, int row, int col){
+        for(int[] direction : DIRECTIONS){
+            int dRow = direction[0];
+            int dCol = direction[1];
+
+            if(1 + countRun(mask, boardLength, winLength, row, col, dRow, dCol)
+                    + countRun(mask, boardLength, winLength, row, col, -dRow, -dCol) >= winLength){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Full scan used when the last move is unknown (e.g. a board unpacked from cells).
+     * Every run is measured once from its first cell, so the scan is O(boardLength^2) per direction.
+     */
+    private static String scanForWinner(long[] xMask, long[] oMask, int boardLength, int winLength){
+        for(int row = 0; row < boardLength; row++){
+            for(int col = 0; col < boardLength; col++){
+
+                int cell = row * boardLength + col;
+                long[] mask = isSet(xMask, cell) ? xMask : isSet(oMask, cell) ? oMask : null;
+
+                if(mask == null){
+                    continue;
+                }
+
+                for(int[] direction : DIRECTIONS){
+                    int prevRow = row - direction[0];
+                    int prevCol = col - direction[1];
+                    boolean isRunStart = !isInBounds(boardLength, prevRow, prevCol) ||
+                            !isSet(mask, prevRow * boardLength + prevCol);
+
+                    if(isRunStart && 1 + countRun(mask, boardLength, winLength, row, col, direction[0], direction[1])
+                            >= winLength){
+                        return mask == xMask ? PLAYER_X : PLAYER_O;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    //Unpack to the board of "X"/"O"/null cells used by JSON and JPA.
+    public String[][] toCells(){
+        String[][] cells = new String[this.boardLength][this.boardLength];
+
+        for(int row = 0; row < this.boardLength; row++){
+            for(int col = 0; col < this.boardLength; col++){
+                cells[row][col] = this.getMark(row, col);
+            }
+        }
+
+        return cells;
+    }
+
+    //Pack to one character per cell in row-major order: 'X', 'O', or '-' for an empty cell.
+    public String toCompactString(){
+        char[] compact = new char[this.boardLength * this.boardLength];
+
+        for(int cell = 0; cell < compact.length; cell++){
+            compact[cell] = isSet(this.xMask, cell) ? 'X' : isSet(this.oMask, cell) ? 'O' : '-';
+        }
+
+        return new String(compact);
+    }
+
+    //Pack to 2 bits per cell (see fromPackedBytes), i.e. 3 bytes for a 3x3 board.
+    public byte[] toPackedBytes(){
+        byte[] packed = new byte[numOfPackedBytes(this.boardLength)];
+
+        for(int cell = 0; cell < this.boardLength * this.boardLength; cell++){
+            int mark = isSet(this.xMask, cell) ? 1 : isSet(this.oMask, cell) ? 2 : 0;
+            packed[cell / 4] |= mark << 2 * (cell % 4);
+        }
+
+        return packed;
+    }
+}
@@ -1,7 +1,9 @@
 package com.weixigu.boardgame.domain;
 
 import lombok.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.Formula;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -50,6 +52,15 @@ public class Player implements Serializable {
     @JsonProperty("deleted")
     private boolean isDeleted = false;
 
+    //When (epoch milliseconds) the player was marked as deleted; the compactor archives it after a retention period.
+    @JsonIgnore
+    private Long deletedAt;
+
+    //Read-only column computed by the database so that players can be sorted (and paged) by score there.
+    @Formula("num_tic_tac_toe_win - num_tic_tac_toe_loss")
+    @Getter(AccessLevel.NONE)
+    private Integer score;
+
     public static boolean haveSameFirstNameAndLastNameAllIgnoreCase(Player player1, Player player2){
         return Objects.equals(player1.getFirstName().toLowerCase(), player2.getFirstName().toLowerCase()) &&
                 Objects.equals(player1.getLastName().toLowerCase(), player2.getLastName().toLowerCase());
@@ -69,8 +80,14 @@ public class Player implements Serializable {
         return this.lastName+", "+this.firstName;
     }
 
+    //Return a detached copy (e.g. to be kept in memory), which later changes of this player or of the copy don't reach.
+    public Player snapshot(){
+        return this.toBuilder().build();
+    }
+
     public void setAsDeleted(){
         this.isDeleted = true;
+        this.deletedAt = System.currentTimeMillis();
     }
 
     public Integer getScore(){
@@ -1,21 +1,41 @@
 package com.weixigu.boardgame.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Transient;
 import java.io.Serializable;
 
-//A TicTacToe object presents a move made in the Tic-Tac-Toe game.
+/**
+ * A TicTacToe object presents a move made in a Tic-Tac-Toe game.
+ * In the repository a move is stored as a delta (the cell and mark it added) and, every few moves, as a checkpoint
+ * of the whole board; 'board' is only part of the JSON and is rebuilt by TicTacToeService from those rows.
+ */
 @Entity
+@Table(indexes = {@Index(name = "idx_tictactoe_game_move", columnList = "gameId, isCurrentGame, moveNumber")})
 @Builder(toBuilder = true, builderMethodName = "tictactoeBuilder")
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Getter
 public class TicTacToe implements Serializable {
-    public static final int BOARD_LENGTH = 3;
+    public static final int DEFAULT_BOARD_LENGTH = 3;
+    public static final int DEFAULT_WIN_LENGTH = 3;
+    public static final int MIN_BOARD_LENGTH = 3;
+    public static final int MAX_BOARD_LENGTH = 19;
+    public static final int MIN_WIN_LENGTH = 3;
+
+    //Moves sent without a game identifier (e.g. by the single-game client) belong to this game.
+    public static final String DEFAULT_GAME_ID = "default";
+
+    //A game identifier has 1 to MAX_GAME_ID_LENGTH ASCII letters, digits, '-' or '_' (e.g. a UUID).
+    public static final int MAX_GAME_ID_LENGTH = 36;
 
     @Id
     @GeneratedValue
@@ -31,61 +51,120 @@ public class TicTacToe implements Serializable {
     @JsonProperty("xNext")
     private final boolean xNext = true; //xNext = true if Player X's turn, false if O's turn. X always plays first.
 
+    @Transient
     @Builder.Default
     @JsonProperty("board")
-    private final String[][] board = new String[TicTacToe.BOARD_LENGTH][TicTacToe.BOARD_LENGTH];
+    private final String[][] board = new String[TicTacToe.DEFAULT_BOARD_LENGTH][TicTacToe.DEFAULT_BOARD_LENGTH];
+
+    //The board has boardLength x boardLength cells; a player wins with winLength marks in a row.
+    @Builder.Default
+    @JsonProperty("boardLength")
+    private final int boardLength = TicTacToe.DEFAULT_BOARD_LENGTH;
+
+    @Builder.Default
+    @JsonProperty("winLength")
+    private final int winLength = TicTacToe.DEFAULT_WIN_LENGTH;
 
     @Builder.Default
     @JsonProperty("currentGame")
     private boolean isCurrentGame = true;
 
+    @Builder.Default
+    @JsonProperty("gameId")
+    private final String gameId = TicTacToe.DEFAULT_GAME_ID;
+
+    //Index of the move among the current moves of its game: 0 for the empty board, then 1, 2, ...
+    @Builder.Default
+    @JsonProperty("moveNumber")
+    private final int moveNumber = 0;
+
+    //Cell (row * boardLength + col) marked by this move and its mark ("X" or "O"); -1 and null if unknown.
+    @Builder.Default
+    @JsonIgnore
+    private final int cell = -1;
+
+    @Builder.Default
+    @JsonIgnore
+    @Column(length = 1)
+    private final String cellMark = null;
+
+    //Whole board (see BitBoard.toCompactString()) if the move is a checkpoint; null otherwise.
+    @Builder.Default
+    @JsonIgnore
+    @Column(length = TicTacToe.MAX_BOARD_LENGTH * TicTacToe.MAX_BOARD_LENGTH)
+    private final String checkpoint = null;
+
+    //When (epoch milliseconds) the move was removed from its game; the compactor archives it after a retention period.
+    @JsonIgnore
+    private Long removedAt;
+
+    /**
+     * Packed view of 'board' that backs winner, draw and legal-move checks.
+     * The bit board is derived from 'board' on first use (i.e. after Jackson populated the entity)
+     * and is neither persisted nor serialized.
+     */
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    private transient BitBoard bitBoard;
+
+    public static boolean isValidGameId(String gameId){
+        if(gameId == null || gameId.isEmpty() || gameId.length() > MAX_GAME_ID_LENGTH){
+            return false;
+        }
+
+        for(int i = 0; i < gameId.length(); i++){
+            char c = gameId.charAt(i);
+
+            if(!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9') && c != '-' && c != '_'){
+                return false;
+            }
+        }
+        return true;
+    }
+
     public void removeFromCurrentGame(){
         this.isCurrentGame = false;
+        this.removedAt = System.currentTimeMillis();
+    }
+
+    public boolean hasCheckpoint(){
+        return this.checkpoint != null;
+    }
+
+    //Not named isXNext() so that Jackson doesn't add an 'xnext' property next to 'xNext'.
+    public boolean xNext(){
+        return this.xNext;
+    }
+
+    public BitBoard bitBoard(){
+        if(this.bitBoard == null){
+            this.bitBoard = BitBoard.fromCells(this.board, this.boardLength, this.winLength);
+        }
+        return this.bitBoard;
     }
 
     /**
      * @return Tic-Tac-Toe winner ("X" or "O"), i.e. a player who has
-     * 3 of their marks in a row (horizontally, vertically, or diagonally)
+     * winLength of their marks in a row (horizontally, vertically, or diagonally)
      * if a winner has come out; null otherwise.
      */
     public String getWinner(){
-        int n = BOARD_LENGTH;
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                if (this.board[i][j] != null) {
-                    if (i < n - 2 && this.board[i][j].equals(this.board[i + 1][j]) &&
-                            this.board[i][j].equals(this.board[i + 2][j])) {
-                        return this.board[i][j];
-
-                    } else if (j < n - 2 && this.board[i][j].equals(this.board[i][j + 1]) &&
-                            this.board[i][j].equals(this.board[i][j + 2])) {
-                        return this.board[i][j];
-
-                    } else if (i < n - 2 && j < n - 2 && this.board[i][j].equals(this.board[i + 1][j + 1]) &&
-                            this.board[i][j].equals(this.board[i + 2][j + 2])) {
-                        return this.board[i][j];
-
-                    } else if (i >= 2 && j < n - 2 && this.board[i][j].equals(this.board[i - 1][j + 1]) &&
-                            this.board[i][j].equals(this.board[i - 2][j + 2])) {
-                        return this.board[i][j];
-                    }
-                }
-            }
-        }
-        return null;
+        return this.bitBoard().getWinner();
     }
 
     public TicTacToe copy(){
-        return TicTacToe.tictactoeBuilder().xNext(this.xNext).board(this.board).build();
+        return TicTacToe.tictactoeBuilder().xNext(this.xNext).board(this.board)
+                .boardLength(this.boardLength).winLength(this.winLength).build();
     }
 
     public String printBoard(){
         StringBuilder myBoard = new StringBuilder("board=[");
 
-        for(int i = 0; i < TicTacToe.BOARD_LENGTH; i++){
+        for(int i = 0; i < this.board.length; i++){
             myBoard.append("[");
 
-            for(int j = 0; j < TicTacToe.BOARD_LENGTH; j++){
+            for(int j = 0; j < this.board[i].length; j++){
                 myBoard.append(this.board[i][j]).append(", ");
             }
 
@@ -99,7 +178,8 @@ public class TicTacToe implements Serializable {
 
     @Override
     public String toString(){
-        return "TicTacToe{id"+this.id+", xNext="+this.xNext
-                + ", winner="+this.getWinner()+", "+this.printBoard()+"}";
+        return "TicTacToe{id"+this.id+", gameId="+this.gameId+", moveNumber="+this.moveNumber
+                +", xNext="+this.xNext+", boardLength="+this.boardLength
+                + ", winLength="+this.winLength + ", winner="+this.getWinner()+", "+this.printBoard()+"}";
     }
 }
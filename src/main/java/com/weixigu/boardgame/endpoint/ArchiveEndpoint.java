@@ -0,0 +1,30 @@
+package com.weixigu.boardgame.endpoint;
+
+import com.weixigu.boardgame.archive.DeadRowCompactor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/archive")
+public class ArchiveEndpoint {
+
+    private final DeadRowCompactor deadRowCompactor;
+
+    @Autowired
+    public ArchiveEndpoint(DeadRowCompactor deadRowCompactor){
+        this.deadRowCompactor = deadRowCompactor;
+    }
+
+    //Return the number of runs of the compactor and the dead rows it has archived so far.
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Number>> archiveStatistics(){
+
+        return ResponseEntity.status(HttpStatus.OK).body(this.deadRowCompactor.getStatistics());
+    }
+}
@@ -1,22 +1,39 @@
 package com.weixigu.boardgame.endpoint;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.weixigu.boardgame.BoardGameApplication;
 import com.weixigu.boardgame.validation.PlayerValidator;
+import com.weixigu.boardgame.validation.RequestParams;
+import com.weixigu.boardgame.validation.ValidationException;
 import com.weixigu.boardgame.domain.Player;
 import com.weixigu.boardgame.service.PlayerService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.BindingResult;
-import org.springframework.validation.DataBinder;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.constraints.NotNull;
-import java.math.BigInteger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 @RestController
@@ -28,33 +45,49 @@ public class PlayerEndpoint {
     private static final String DEFAULT_PAGE_NUMBER = "0";
     private static final String DEFAULT_PAGE_SIZE = "2147483647"; //Integer.MAX_VALUE
     private static final String DEFAULT_SORT_BY = "id";
+    private static final String DEFAULT_LEADERBOARD_TOP = "10";
 
     private static final Set<String> SORT_PARAMS = new HashSet<>(Arrays.asList("id", "firstName", "lastName",
             "nickName", "numTicTacToeDraw", "numTicTacToeLoss", "numTicTacToeWin", "score"));
     private static final String PLAYER_STATUS_OLD = "old";
     private static final String PLAYER_STATUS_NEW = "new";
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final PlayerValidator PLAYER_VALIDATOR = new PlayerValidator();
 
     private final PlayerService playerService;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader playerReader;
+    private final ObjectWriter playerWriter;
+    private final int recordBatchSize;
 
+    //The reader and writer of NDJSON players come from the application's ObjectMapper, so they share its settings.
     @Autowired
-    public PlayerEndpoint(PlayerService playerService){
+    public PlayerEndpoint(PlayerService playerService, ObjectMapper objectMapper,
+                          @Value("${player.save-records.batch-size:1000}") int recordBatchSize){
+
+        if(recordBatchSize < 1){
+
+            throw new RuntimeException("The batch size of streamed records should be positive.");
+        }
+
         this.playerService = playerService;
+        this.objectMapper = objectMapper;
+        this.playerReader = objectMapper.readerFor(Player.class);
+        this.playerWriter = objectMapper.writerFor(Player.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.recordBatchSize = recordBatchSize;
     }
 
-    //Throw a RuntimeException if the Player object is malformed.
+    //Throw a ValidationException if the Player object is malformed; a valid player is checked without allocating.
     public void validatePlayer(Player player) throws RuntimeException{
 
-        DataBinder binder = new DataBinder(player);
-        binder.setValidator(new PlayerValidator());
-        binder.validate();
-
-        BindingResult bindingResult = binder.getBindingResult();
+        if(PLAYER_VALIDATOR.isValid(player)){
+            return;
+        }
 
-        if(bindingResult.hasErrors()){
+        BindingResult bindingResult = new BeanPropertyBindingResult(player, "player");
+        PLAYER_VALIDATOR.validate(player, bindingResult);
 
-            String errorMessage = this.printFieldErrors(bindingResult);
-            throw new RuntimeException(errorMessage);
-        }
+        throw new ValidationException(this.printFieldErrors(bindingResult));
     }
 
     //Return field errors from the binding result (of binding Spring Validator to Web Data) in String format.
@@ -75,56 +108,76 @@ public class PlayerEndpoint {
         return errorMessage.toString();
     }
 
-    //throws a RuntimeException if the input arguments are illegal (malformed) arguments
-    private void validateArgsOfGetPlayerRepo(String pageNumber, String pageSize, String sortBy) throws RuntimeException{
+    //throws a ValidationException if the input arguments are illegal (malformed) arguments; package-private for benchmarks.
+    static void validateArgsOfGetPlayerRepo(String pageNumber, String pageSize, String sortBy) throws RuntimeException{
 
-        String regexDigitsOnly = "\\d+"; //(non-negative) digit(s) only.
-
-        if(!pageNumber.matches(regexDigitsOnly)){
-
-            throw new RuntimeException(String.format("Request param 'page' should be digits only: %s", pageNumber));
-        }
-
-        BigInteger pageNumberBigInt = new BigInteger(pageNumber);
-        BigInteger maxOfPageAndSize = BigInteger.valueOf(Integer.MAX_VALUE);
-
-        if(pageNumberBigInt.compareTo(maxOfPageAndSize) > 0){
-
-            throw new RuntimeException(String.format("Request param 'page' is too large (> %d): %s.",
-                    Integer.MAX_VALUE, pageNumber));
-        }
+        RequestParams.parseNonNegativeInt(pageNumber, "page");
 
-        if(!pageSize.matches(regexDigitsOnly)){
+        if(RequestParams.parseNonNegativeInt(pageSize, "size") == 0){
 
-            throw new RuntimeException(String.format("Request param 'size' should be digits only: %s", pageSize));
+            throw new ValidationException(String.format("Request param 'size' should be positive: %s", pageSize));
         }
 
-        BigInteger pageSizeBigInt = new BigInteger(pageSize);
-
-        if(pageSizeBigInt.compareTo(maxOfPageAndSize) > 0){
+        if(!SORT_PARAMS.contains(sortBy)){
 
-            throw new RuntimeException(String.format("Request param 'size' is too large (> %d): %s.",
-                    Integer.MAX_VALUE, pageSize));
+            throw new ValidationException(String.format("Request param 'sortBy' is invalid: %s", sortBy));
         }
+    }
 
-        if(!SORT_PARAMS.contains(sortBy)){
+    //ETag of a page of the player list; it changes whenever the player table does (see PlayerService.getVersionTag()).
+    static String eTagOf(String version, String pageNumber, String pageSize, String sortBy){
 
-            throw new RuntimeException(String.format("Request param 'sortBy' is invalid: %s", sortBy));
-        }
+        return "\"" + version + '-' + pageNumber + '-' + pageSize + '-' + sortBy + '"';
     }
 
-    //Return a Page of Player entities meeting the paging restriction.
+    /**
+     * Return a Page of Player entities meeting the paging restriction, with an ETag of the player table version.
+     * A request whose If-None-Match has the current ETag gets 304 without querying the repo or serializing the page.
+     */
     @GetMapping(value="/repository")
     public ResponseEntity<?> getPlayerRepo(
             @RequestParam(defaultValue= DEFAULT_PAGE_NUMBER, name="page") String pageNumber,
             @RequestParam(defaultValue= DEFAULT_PAGE_SIZE, name="size") String pageSize,
-            @RequestParam(defaultValue= DEFAULT_SORT_BY, name ="sortBy") String sortBy){
+            @RequestParam(defaultValue= DEFAULT_SORT_BY, name ="sortBy") String sortBy,
+            @RequestHeader(value=HttpHeaders.IF_NONE_MATCH, required=false) String ifNoneMatch){
 
         try{
             validateArgsOfGetPlayerRepo(pageNumber, pageSize, sortBy);
+
+            //Read the version before the page, so that the page is never older than its ETag.
+            String eTag = eTagOf(this.playerService.getVersionTag(), pageNumber, pageSize, sortBy);
+
+            if(RequestParams.matchesETag(ifNoneMatch, eTag)){
+
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache())
+                        .build();
+            }
+
             Page<Player> page = this.playerService.getPlayerRepo(Integer.parseInt(pageNumber),
                     Integer.parseInt(pageSize), sortBy);
-            return ResponseEntity.status(HttpStatus.OK).body(page);
+            return ResponseEntity.status(HttpStatus.OK).eTag(eTag).cacheControl(CacheControl.noCache()).body(page);
+
+        }catch (RuntimeException exception){
+
+            String errorMessage = exception.getMessage();
+            LOGGER.info(errorMessage);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorMessage);
+        }
+    }
+
+    //Return the top players by score; served from the in-memory leaderboard.
+    @GetMapping(value="/leaderboard")
+    public ResponseEntity<?> getLeaderboard(@RequestParam(defaultValue=DEFAULT_LEADERBOARD_TOP, name="top") String top){
+
+        try{
+
+            if(!RequestParams.isDigits(top, 9)){
+
+                throw new ValidationException(String.format("Request param 'top' should be 1 to 9 digits: %s", top));
+            }
+
+            List<Player> players = this.playerService.getLeaderboard(Integer.parseInt(top));
+            return ResponseEntity.status(HttpStatus.OK).body(players);
 
         }catch (RuntimeException exception){
 
@@ -134,6 +187,71 @@ public class PlayerEndpoint {
         }
     }
 
+    //Return the rank and score of a non-deleted player; served from the in-memory leaderboard.
+    @GetMapping(value="/{id}/rank")
+    public ResponseEntity<?> getRank(@PathVariable("id") Long id){
+
+        try{
+
+            Map<String, Number> ranking = this.playerService.getRank(id);
+            return ResponseEntity.status(HttpStatus.OK).body(ranking);
+
+        }catch (RuntimeException exception){
+
+            String errorMessage = exception.getMessage();
+            LOGGER.info(errorMessage);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorMessage);
+        }
+    }
+
+    //Return hit, miss, and eviction counters of the cache of player lookups by name.
+    @GetMapping(value="/cache-stats")
+    public ResponseEntity<Map<String, Number>> getCacheStatistics(){
+
+        return ResponseEntity.status(HttpStatus.OK).body(this.playerService.getCacheStatistics());
+    }
+
+    //Return buffered, flushed, and dropped record counters of the write-behind buffer of player records.
+    @GetMapping(value="/write-behind-stats")
+    public ResponseEntity<Map<String, Number>> getWriteBehindStatistics(){
+
+        return ResponseEntity.status(HttpStatus.OK).body(this.playerService.getWriteBehindStatistics());
+    }
+
+    //Return the number of stripes and the (contended) acquisitions of the per-player locks.
+    @GetMapping(value="/lock-stats")
+    public ResponseEntity<Map<String, Number>> getLockStatistics(){
+
+        return ResponseEntity.status(HttpStatus.OK).body(this.playerService.getLockStatistics());
+    }
+
+    //Stream all the non-deleted players as newline-delimited JSON, one player per line, in order of id.
+    //The players are serialized by one JsonGenerator straight into the (buffered) response stream.
+    @GetMapping(value="/export", produces=APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPlayers(){
+
+        StreamingResponseBody body = outputStream -> {
+            try(JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)){
+
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+
+                this.playerService.exportPlayers(player -> {
+                    try{
+                        this.playerWriter.writeValue(generator, player);
+                        generator.writeRaw('\n');
+
+                    }catch (IOException exception){
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
     //Create the given player in repo without overwriting any existing copy.
     @PostMapping("/create-player")
     public ResponseEntity<?> createPlayer(@NotNull @RequestBody Player player){
@@ -218,4 +336,112 @@ public class PlayerEndpoint {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorMessage);
         }
     }
+
+    //Save a batch (JSON array) of single-game records; return how many were saved and the errors of the others.
+    @PostMapping(value="/save-records", consumes=MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> saveRecords(@NotNull @RequestBody List<Player> players){
+
+        try{
+
+            Map<String, Object> report = this.playerService.saveRecords(players);
+            return ResponseEntity.status(HttpStatus.OK).body(report);
+
+        }catch (RuntimeException exception){
+
+            String errorMessage = exception.getMessage();
+            LOGGER.info(errorMessage);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorMessage);
+        }
+    }
+
+    /**
+     * Same as above for a stream of newline-delimited JSON records, read one by one and saved every 'batch-size'
+     * records; the report sums up the reports of the batches (a player in several batches counts once per batch).
+     * A record that can't be mapped to a Player is reported as an error. A line that isn't JSON ends the stream: the
+     * records before it are saved and it is reported as the last record.
+     */
+    @PostMapping(value="/save-records", consumes=APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> saveRecordsFromNdjson(@NotNull InputStream records){
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("numOfRecords", 0);
+        report.put("numOfSavedRecords", 0);
+        report.put("numOfPlayers", 0);
+        report.put("errors", new ArrayList<Map<String, Object>>());
+
+        List<Player> batch = new ArrayList<>();
+        int numOfRecords = 0;
+
+        try(MappingIterator<Player> iterator = this.playerReader.readValues(records)){
+
+            while(true){
+
+                try{
+                    if(!iterator.hasNextValue()){
+                        break;
+                    }
+                    batch.add(iterator.nextValue());
+
+                }catch (JsonMappingException exception){
+                    batch.add(null);
+
+                }catch (JsonParseException exception){
+
+                    this.saveRecordBatch(batch, numOfRecords, report);
+                    numOfRecords += batch.size();
+                    batch = new ArrayList<>();
+
+                    addRecordError(report, numOfRecords, "The record is not JSON; no record after it was read.");
+                    report.merge("numOfRecords", 1, (a, b) -> (Integer) a + (Integer) b);
+                    break;
+                }
+
+                if(batch.size() == this.recordBatchSize){
+
+                    this.saveRecordBatch(batch, numOfRecords, report);
+                    numOfRecords += batch.size();
+                    batch = new ArrayList<>();
+                }
+            }
+
+            this.saveRecordBatch(batch, numOfRecords, report);
+            return ResponseEntity.status(HttpStatus.OK).body(report);
+
+        }catch (IOException | RuntimeException exception){
+
+            String errorMessage = exception.getMessage();
+            LOGGER.info(errorMessage);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorMessage);
+        }
+    }
+
+    //Save a batch of streamed records (the first of which is record 'offset') and add its report to the total.
+    @SuppressWarnings("unchecked")
+    private void saveRecordBatch(List<Player> batch, int offset, Map<String, Object> report){
+
+        if(batch.isEmpty()){
+            return;
+        }
+
+        Map<String, Object> batchReport = this.playerService.saveRecords(batch);
+
+        for(String count : Arrays.asList("numOfRecords", "numOfSavedRecords", "numOfPlayers")){
+            report.merge(count, batchReport.getOrDefault(count, 0), (a, b) -> (Integer) a + (Integer) b);
+        }
+
+        for(Map<String, Object> error : (List<Map<String, Object>>) batchReport.getOrDefault("errors",
+                Collections.emptyList())){
+
+            addRecordError(report, offset + (Integer) error.get("index"), (String) error.get("message"));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addRecordError(Map<String, Object> report, int index, String message){
+
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("index", index);
+        error.put("message", message);
+        ((List<Map<String, Object>>) report.get("errors")).add(error);
+    }
 }
@@ -1,37 +1,57 @@
 package com.weixigu.boardgame.endpoint;
 
+import com.weixigu.boardgame.validation.RequestParams;
 import com.weixigu.boardgame.validation.TicTacToeValidator;
+import com.weixigu.boardgame.validation.ValidationException;
 import com.weixigu.boardgame.domain.TicTacToe;
+import com.weixigu.boardgame.push.GameUpdatePublisher;
+import com.weixigu.boardgame.service.GameNotFoundException;
+import com.weixigu.boardgame.service.TicTacToeAiService;
 import com.weixigu.boardgame.service.TicTacToeService;
+import com.weixigu.boardgame.wire.Move;
+import com.weixigu.boardgame.wire.TicTacToeMediaTypes;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.constraints.NotNull;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/tictactoes")
 public class TicTacToeEndpoint {
 
+    private static final String DEFAULT_BOARD_LENGTH = "3"; //TicTacToe.DEFAULT_BOARD_LENGTH
+    private static final String DEFAULT_WIN_LENGTH = "3"; //TicTacToe.DEFAULT_WIN_LENGTH
+    private static final TicTacToeValidator TICTACTOE_VALIDATOR = new TicTacToeValidator();
+
     private final TicTacToeService ticTacToeService;
+    private final TicTacToeAiService ticTacToeAiService;
+    private final GameUpdatePublisher updatePublisher;
 
     @Autowired
-    public TicTacToeEndpoint(TicTacToeService ticTacToeService){
+    public TicTacToeEndpoint(TicTacToeService ticTacToeService, TicTacToeAiService ticTacToeAiService,
+                             GameUpdatePublisher updatePublisher){
 
         this.ticTacToeService = ticTacToeService;
+        this.ticTacToeAiService = ticTacToeAiService;
+        this.updatePublisher = updatePublisher;
     }
 
     //Bind request parameters to Spring Validator to detect malformed data.
     @InitBinder("ticTacToe")
     protected void initBinder(@NotNull WebDataBinder binder) {
 
-        binder.addValidators(new TicTacToeValidator());
+        binder.addValidators(TICTACTOE_VALIDATOR);
     }
 
     //Return field errors from the binding result (of binding Spring Validator to Web Data) in String format.
@@ -74,6 +94,34 @@ public class TicTacToeEndpoint {
             TicTacToe savedMove = this.ticTacToeService.saveMove(ticTacToe);
             return ResponseEntity.status(HttpStatus.OK).body(savedMove);
 
+        }catch (ValidationException exception){
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+
+        }catch (GameNotFoundException exception){
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(exception.getMessage());
+
+        }catch (RuntimeException exception){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
+    }
+
+    //Return the saved move if the single move (see TicTacToeMediaTypes) was legal; otherwise, return an error message.
+    @PostMapping(value = "/save-move",
+            consumes = {TicTacToeMediaTypes.MOVE_JSON_VALUE, TicTacToeMediaTypes.MOVE_BINARY_VALUE})
+    public ResponseEntity<?> playMove(@NotNull @RequestBody Move move){
+
+        try{
+
+            TicTacToe savedMove = this.ticTacToeService.playMove(move.getRow(), move.getCol());
+            return ResponseEntity.status(HttpStatus.OK).body(savedMove);
+
+        }catch (GameNotFoundException exception){
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(exception.getMessage());
+
         }catch (RuntimeException exception){
 
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
@@ -109,4 +157,238 @@ public class TicTacToeEndpoint {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
         }
     }
+
+    //Create a new game with an empty board; return its first move (which carries the game id) if succeeded.
+    @PostMapping("/games")
+    public ResponseEntity<?> createGame(
+            @RequestParam(defaultValue = DEFAULT_BOARD_LENGTH, name = "boardLength") String boardLength,
+            @RequestParam(defaultValue = DEFAULT_WIN_LENGTH, name = "winLength") String winLength){
+
+        try{
+
+            TicTacToe firstMove = this.ticTacToeService.createGame(Integer.parseInt(boardLength),
+                    Integer.parseInt(winLength));
+            return ResponseEntity.status(HttpStatus.OK).body(firstMove);
+
+        }catch (RuntimeException exception){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
+    }
+
+    //Return the latest move of the given game; otherwise, return an error message.
+    @GetMapping("/games/{gameId}")
+    public ResponseEntity<?> viewGame(@PathVariable("gameId") String gameId){
+
+        try{
+
+            RequestParams.validateGameId(gameId);
+            TicTacToe lastMove = this.ticTacToeService.viewLastMove(gameId);
+            return ResponseEntity.status(HttpStatus.OK).body(lastMove);
+
+        }catch (ValidationException exception){
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+
+        }catch (GameNotFoundException exception){
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(exception.getMessage());
+
+        }catch (RuntimeException exception){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
+    }
+
+    //Set 'isCurrentGame' = false for all the moves of the given game.
+    @PostMapping("/games/{gameId}/reset-game")
+    public ResponseEntity<String> resetGame(@PathVariable("gameId") String gameId){
+
+        try{
+
+            RequestParams.validateGameId(gameId);
+            String message = this.ticTacToeService.resetGame(gameId);
+            return ResponseEntity.status(HttpStatus.OK).body(message);
+
+        }catch (ValidationException exception){
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+
+        }catch (RuntimeException exception){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
+    }
+
+    //Return ticTacToe if successfully saved it as the next move of the given game; otherwise, return an error message.
+    @PostMapping("/games/{gameId}/save-move")
+    public ResponseEntity<?> saveMove(@PathVariable("gameId") String gameId,
+                                      @NotNull @Validated @RequestBody TicTacToe ticTacToe,
+                                      BindingResult bindingResult){
+
+        if(bindingResult.hasErrors()){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(this.printFieldErrors(bindingResult));
+        }
+
+        try{
+
+            RequestParams.validateGameId(gameId);
+            TicTacToe savedMove = this.ticTacToeService.saveMove(gameId, ticTacToe);
+            return ResponseEntity.status(HttpStatus.OK).body(savedMove);
+
+        }catch (ValidationException exception){
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+
+        }catch (GameNotFoundException exception){
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(exception.getMessage());
+
+        }catch (RuntimeException exception){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
+    }
+
+    //Return the saved move if the single move was legal in the given game; otherwise, return an error message.
+    @PostMapping(value = "/games/{gameId}/save-move",
+            consumes = {TicTacToeMediaTypes.MOVE_JSON_VALUE, TicTacToeMediaTypes.MOVE_BINARY_VALUE})
+    public ResponseEntity<?> playMove(@PathVariable("gameId") String gameId, @NotNull @RequestBody Move move){
+
+        try{
+
+            RequestParams.validateGameId(gameId);
+            TicTacToe savedMove = this.ticTacToeService.playMove(gameId, move.getRow(), move.getCol());
+            return ResponseEntity.status(HttpStatus.OK).body(savedMove);
+
+        }catch (ValidationException exception){
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+
+        }catch (GameNotFoundException exception){
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(exception.getMessage());
+
+        }catch (RuntimeException exception){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
+    }
+
+    //Return a move of the given game if successfully retrieved it; otherwise, return an error message.
+    @PostMapping("/games/{gameId}/view-prev-move")
+    public ResponseEntity<?> viewPrevMove(@PathVariable("gameId") String gameId,
+                                          @RequestParam(name="move") String indexOfMove){
+
+        try {
+
+            RequestParams.validateGameId(gameId);
+            TicTacToe prevMove = this.ticTacToeService.viewPrevMove(gameId, Integer.parseInt(indexOfMove));
+            return ResponseEntity.status(HttpStatus.OK).body(prevMove);
+
+        }catch (ValidationException exception){
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+
+        }catch (RuntimeException exception){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
+    }
+
+    //Return a move of the given game if successfully reverted the game to it; otherwise, return an error message.
+    @PostMapping("/games/{gameId}/revert-to-prev-move")
+    public ResponseEntity<?> revertToPrevMove(@PathVariable("gameId") String gameId,
+                                              @RequestParam(name="move") String indexOfMove){
+
+        try {
+
+            RequestParams.validateGameId(gameId);
+            TicTacToe prevMove = this.ticTacToeService.revertToPrevMove(gameId, Integer.parseInt(indexOfMove));
+            return ResponseEntity.status(HttpStatus.OK).body(prevMove);
+
+        }catch (ValidationException exception){
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+
+        }catch (RuntimeException exception){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
+    }
+
+    //Return the game after the best reply of the player to move; otherwise, return an error message.
+    @PostMapping("/ai-move")
+    public ResponseEntity<?> aiMove(@NotNull @Validated @RequestBody TicTacToe ticTacToe, BindingResult bindingResult){
+
+        if(bindingResult.hasErrors()){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(this.printFieldErrors(bindingResult));
+        }
+
+        try{
+
+            TicTacToe reply = this.ticTacToeAiService.findBestReply(ticTacToe);
+            return ResponseEntity.status(HttpStatus.OK).body(reply);
+
+        }catch (RuntimeException exception){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
+    }
+
+    //Return the outcome with perfect play and the best moves of a 3x3 position; otherwise, return an error message.
+    @PostMapping("/ai-evaluation")
+    public ResponseEntity<?> aiEvaluation(@NotNull @Validated @RequestBody TicTacToe ticTacToe,
+                                          BindingResult bindingResult){
+
+        if(bindingResult.hasErrors()){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(this.printFieldErrors(bindingResult));
+        }
+
+        try{
+
+            Map<String, Object> evaluation = this.ticTacToeAiService.evaluate(ticTacToe);
+            return ResponseEntity.status(HttpStatus.OK).body(evaluation);
+
+        }catch (RuntimeException exception){
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
+    }
+
+    //Stream the updates ('move', 'revert' and 'reset' events) of the default game as Server-Sent Events.
+    @GetMapping(value = "/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(){
+
+        return this.updatePublisher.subscribe(TicTacToe.DEFAULT_GAME_ID);
+    }
+
+    //Stream the updates ('move', 'revert' and 'reset' events) of the given game as Server-Sent Events.
+    @GetMapping(value = "/games/{gameId}/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable("gameId") String gameId){
+
+        if(!TicTacToe.isValidGameId(gameId)){
+
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid game id: " + gameId);
+        }
+
+        return this.updatePublisher.subscribe(gameId);
+    }
+
+    //Return the numbers of subscribers and of pushed updates.
+    @GetMapping("/push-stats")
+    public ResponseEntity<Map<String, Number>> pushStatistics(){
+
+        return ResponseEntity.status(HttpStatus.OK).body(this.updatePublisher.getStatistics());
+    }
+
+    //Return node counts and transposition table hit rates of the AI opponent.
+    @GetMapping("/ai-stats")
+    public ResponseEntity<Map<String, Number>> aiStatistics(){
+
+        return ResponseEntity.status(HttpStatus.OK).body(this.ticTacToeAiService.getStatistics());
+    }
 }
@@ -0,0 +1,74 @@
+package com.weixigu.boardgame.eventlog;
+
+import com.weixigu.boardgame.domain.BitBoard;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * A change of a Tic-Tac-Toe game as stored in the GameEventLog:
+ * MOVE adds one mark ('cell', 'mark') to the board of move moveNumber - 1; BOARD sets the whole board of move
+ * moveNumber (e.g. the empty board of a new game); RESET removes all the moves of the game; REVERT removes the moves
+ * after move moveNumber.
+ */
+@Builder(toBuilder = true, builderMethodName = "gameEventBuilder")
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public final class GameEvent {
+
+    public enum Type { MOVE, BOARD, RESET, REVERT }
+
+    //Position of the event in the log; assigned when the event is appended or read.
+    @Builder.Default
+    private final long sequence = -1;
+
+    private final Type type;
+
+    private final String gameId;
+
+    private final int moveNumber;
+
+    private final int boardLength;
+
+    private final int winLength;
+
+    @Builder.Default
+    private final int cell = -1;
+
+    private final String mark;
+
+    //Only for BOARD events.
+    private final BitBoard board;
+
+    private final long timestamp;
+
+    public static GameEvent move(String gameId, int moveNumber, BitBoard next, int cell){
+        return GameEvent.gameEventBuilder().type(Type.MOVE).gameId(gameId).moveNumber(moveNumber)
+                .boardLength(next.getBoardLength()).winLength(next.getWinLength()).cell(cell)
+                .mark(next.getMark(cell / next.getBoardLength(), cell % next.getBoardLength()))
+                .timestamp(System.currentTimeMillis()).build();
+    }
+
+    public static GameEvent board(String gameId, int moveNumber, BitBoard board){
+        return GameEvent.gameEventBuilder().type(Type.BOARD).gameId(gameId).moveNumber(moveNumber)
+                .boardLength(board.getBoardLength()).winLength(board.getWinLength()).board(board)
+                .timestamp(System.currentTimeMillis()).build();
+    }
+
+    public static GameEvent reset(String gameId){
+        return GameEvent.gameEventBuilder().type(Type.RESET).gameId(gameId).timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    public static GameEvent revert(String gameId, int moveNumber){
+        return GameEvent.gameEventBuilder().type(Type.REVERT).gameId(gameId).moveNumber(moveNumber)
+                .timestamp(System.currentTimeMillis()).build();
+    }
+
+    @Override
+    public String toString(){
+        return "GameEvent{sequence=" + this.sequence + ", type=" + this.type + ", gameId=" + this.gameId
+                + ", moveNumber=" + this.moveNumber + ", cell=" + this.cell + ", mark=" + this.mark + "}";
+    }
+}
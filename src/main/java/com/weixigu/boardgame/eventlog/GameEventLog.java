@@ -0,0 +1,469 @@
+package com.weixigu.boardgame.eventlog;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.domain.BitBoard;
+import com.weixigu.boardgame.domain.TicTacToe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of GameEvents in memory-mapped segment files of fixed-size (RECORD_SIZE bytes) records.
+ *
+ * A segment is named by the sequence number of its first record and holds 'segment-bytes' / RECORD_SIZE records;
+ * when it is full the next one is created. Each record ends with a CRC32 of the rest, so on start-up the log resumes
+ * after the last intact record of the last segment. Records reach the disk according to the fsync policy:
+ * 'always' (after every append), 'periodic' (at most 'fsync-interval-ms' after an append) or 'never' (left to the OS).
+ *
+ * Replay reads the segments sequentially through read-only mappings, i.e. at about disk bandwidth. On start-up the
+ * games are rebuilt from the log (see GameEventLogLoader), so the moves outlive the in-memory database.
+ */
+@Component
+public class GameEventLog {
+
+    public enum FsyncPolicy { ALWAYS, PERIODIC, NEVER }
+
+    public static final int RECORD_SIZE = 160;
+    public static final int MAX_GAME_ID_LENGTH = TicTacToe.MAX_GAME_ID_LENGTH;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+    private static final String SEGMENT_SUFFIX = ".events";
+    private static final int MAX_NUM_OF_CELLS = TicTacToe.MAX_BOARD_LENGTH * TicTacToe.MAX_BOARD_LENGTH;
+
+    //Record layout (offsets in bytes).
+    private static final int TYPE = 0;
+    private static final int BOARD_LENGTH = 1;
+    private static final int WIN_LENGTH = 2;
+    private static final int MARK = 3;
+    private static final int MOVE_NUMBER = 4;
+    private static final int CELL = 8;
+    private static final int TIMESTAMP = 12;
+    private static final int GAME_ID_LENGTH = 20;
+    private static final int GAME_ID = 21;
+    private static final int BOARD = GAME_ID + MAX_GAME_ID_LENGTH; //2 bits per cell: 0 = empty, 1 = X, 2 = O.
+    private static final int CHECKSUM = RECORD_SIZE - 4;
+
+    static {
+        if(BOARD + (MAX_NUM_OF_CELLS + 3) / 4 > CHECKSUM){
+            throw new IllegalStateException("A board doesn't fit in a record of the game event log.");
+        }
+    }
+
+    private final boolean isEnabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long baseSequence;
+    private int capacity;
+    private int numOfRecords;
+    private long lastFsyncMillis;
+    private boolean isDirty;
+
+    @Autowired
+    public GameEventLog(@Value("${tictactoe.event-log.enabled:false}") boolean isEnabled,
+                        @Value("${tictactoe.event-log.directory:event-log}") String directory,
+                        @Value("${tictactoe.event-log.segment-bytes:67108864}") int segmentBytes,
+                        @Value("${tictactoe.event-log.fsync:periodic}") String fsyncPolicy,
+                        @Value("${tictactoe.event-log.fsync-interval-ms:1000}") long fsyncIntervalMillis){
+
+        if(segmentBytes < RECORD_SIZE){
+
+            throw new RuntimeException(String.format("A segment of the game event log should have at least %d bytes.",
+                    RECORD_SIZE));
+        }
+
+        this.isEnabled = isEnabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_SIZE;
+        this.fsyncPolicy = FsyncPolicy.valueOf(fsyncPolicy.trim().toUpperCase(Locale.ROOT));
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+
+        if(isEnabled){
+            this.open();
+        }
+    }
+
+    public boolean isEnabled(){
+        return this.isEnabled;
+    }
+
+    private static Path segmentPath(Path directory, long baseSequence){
+        return directory.resolve(String.format("%020d%s", baseSequence, SEGMENT_SUFFIX));
+    }
+
+    private static long baseSequenceOf(Path segment){
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private List<Path> listSegments() throws IOException{
+        List<Path> segments = new ArrayList<>();
+
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + SEGMENT_SUFFIX)){
+            for(Path segment : stream){
+                segments.add(segment);
+            }
+        }
+
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private synchronized void open() throws RuntimeException{
+        try{
+            Files.createDirectories(this.directory);
+            List<Path> segments = this.listSegments();
+
+            if(segments.isEmpty()){
+                this.openSegment(0);
+                return;
+            }
+
+            Path last = segments.get(segments.size() - 1);
+            this.openSegment(baseSequenceOf(last));
+
+            //Resume after the last intact record.
+            while(this.numOfRecords < this.capacity &&
+                    decode(this.buffer, this.numOfRecords * RECORD_SIZE, 0) != null){
+                this.numOfRecords++;
+            }
+
+            LOGGER.info("Opened game event log {} at sequence {}.", this.directory.toAbsolutePath(),
+                    this.baseSequence + this.numOfRecords);
+
+        }catch (IOException exception){
+
+            throw new RuntimeException(String.format("Unable to open the game event log %s: %s", this.directory,
+                    exception.getMessage()), exception);
+        }
+    }
+
+    private void openSegment(long baseSequence) throws IOException{
+        Path path = segmentPath(this.directory, baseSequence);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), this.segmentBytes);
+
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.baseSequence = baseSequence;
+        this.capacity = (int) (size / RECORD_SIZE);
+        this.numOfRecords = 0;
+    }
+
+    private void roll() throws IOException{
+        this.buffer.force();
+        this.channel.close();
+        this.openSegment(this.baseSequence + this.capacity);
+        this.isDirty = false;
+    }
+
+    //Append the event and return its sequence number, or -1 if the log is disabled.
+    public synchronized long append(GameEvent event) throws RuntimeException{
+
+        if(!this.isEnabled){
+            return -1;
+        }
+
+        try{
+            if(this.numOfRecords == this.capacity){
+                this.roll();
+            }
+
+            ByteBuffer record = encode(event);
+            this.buffer.position(this.numOfRecords * RECORD_SIZE);
+            this.buffer.put(record);
+            this.numOfRecords++;
+            this.isDirty = true;
+
+            long now = System.currentTimeMillis();
+
+            if(this.fsyncPolicy == FsyncPolicy.ALWAYS ||
+                    (this.fsyncPolicy == FsyncPolicy.PERIODIC && now - this.lastFsyncMillis >= this.fsyncIntervalMillis)){
+                this.force(now);
+            }
+
+            return this.baseSequence + this.numOfRecords - 1;
+
+        }catch (IOException exception){
+
+            throw new RuntimeException(String.format("Unable to append %s to the game event log: %s", event,
+                    exception.getMessage()), exception);
+        }
+    }
+
+    private void force(long now){
+        this.buffer.force();
+        this.lastFsyncMillis = now;
+        this.isDirty = false;
+    }
+
+    //Write appended records to the disk if the policy is 'periodic' and some are not written yet.
+    @Scheduled(fixedDelayString = "${tictactoe.event-log.fsync-interval-ms:1000}")
+    public synchronized void flush(){
+        if(this.isEnabled && this.isDirty && this.fsyncPolicy == FsyncPolicy.PERIODIC){
+            this.force(System.currentTimeMillis());
+        }
+    }
+
+    public synchronized long getNextSequence(){
+        return this.isEnabled ? this.baseSequence + this.numOfRecords : 0;
+    }
+
+    /**
+     * Pass the events from the given sequence number on (those appended before the call) to the consumer in order;
+     * return the number of replayed events.
+     */
+    public long replay(long fromSequence, Consumer<GameEvent> consumer) throws RuntimeException{
+
+        if(!this.isEnabled){
+            return 0;
+        }
+
+        long endSequence = this.getNextSequence();
+        long numOfEvents = 0;
+
+        try{
+            for(Path segment : this.listSegments()){
+
+                long base = baseSequenceOf(segment);
+
+                if(base >= endSequence){
+                    break;
+                }
+
+                try(FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)){
+
+                    int numOfRecords = (int) Math.min(channel.size() / RECORD_SIZE, endSequence - base);
+
+                    if(base + numOfRecords <= fromSequence){
+                        continue;
+                    }
+
+                    MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                            (long) numOfRecords * RECORD_SIZE);
+
+                    for(int i = (int) Math.max(0, fromSequence - base); i < numOfRecords; i++){
+
+                        GameEvent event = decode(records, i * RECORD_SIZE, base + i);
+
+                        if(event == null){
+                            break;
+                        }
+
+                        consumer.accept(event);
+                        numOfEvents++;
+                    }
+                }
+            }
+        }catch (IOException exception){
+
+            throw new RuntimeException(String.format("Unable to replay the game event log: %s",
+                    exception.getMessage()), exception);
+        }
+
+        return numOfEvents;
+    }
+
+    //Replay the whole log and return the boards of the current moves of the given game, in order of move number.
+    public List<BitBoard> replayGame(String gameId) throws RuntimeException{
+
+        List<BitBoard> boards = new ArrayList<>();
+
+        this.replay(0, event -> {
+            if(event.getGameId().equals(gameId)){
+                apply(boards, event);
+            }
+        });
+
+        return boards;
+    }
+
+    /**
+     * Replay the whole log and return, per game (in order of first appearance), the boards of its current moves in
+     * order of move number; games without current moves (e.g. reset ones) are left out.
+     */
+    public Map<String, List<BitBoard>> replayGames() throws RuntimeException{
+
+        Map<String, List<BitBoard>> games = new LinkedHashMap<>();
+
+        this.replay(0, event -> apply(games.computeIfAbsent(event.getGameId(), gameId -> new ArrayList<>()), event));
+        games.values().removeIf(List::isEmpty);
+
+        return games;
+    }
+
+    //Apply the event to the boards of the current moves of its game.
+    private static void apply(List<BitBoard> boards, GameEvent event){
+
+        int moveNumber = event.getMoveNumber();
+
+        switch(event.getType()){
+            case RESET:
+                boards.clear();
+                break;
+
+            case REVERT:
+                truncate(boards, moveNumber + 1);
+                break;
+
+            case BOARD:
+                truncate(boards, moveNumber);
+                boards.add(event.getBoard());
+                break;
+
+            case MOVE:
+                truncate(boards, moveNumber);
+
+                if(boards.size() == moveNumber && moveNumber > 0){
+                    BitBoard prev = boards.get(moveNumber - 1);
+                    boards.add(prev.play(event.getCell() / prev.getBoardLength(),
+                            event.getCell() % prev.getBoardLength(), BitBoard.PLAYER_X.equals(event.getMark())));
+                }
+                break;
+        }
+    }
+
+    private static void truncate(List<BitBoard> boards, int size){
+        while(boards.size() > size){
+            boards.remove(boards.size() - 1);
+        }
+    }
+
+    private static ByteBuffer encode(GameEvent event) throws RuntimeException{
+
+        byte[] gameId = event.getGameId().getBytes(StandardCharsets.UTF_8);
+
+        if(gameId.length > MAX_GAME_ID_LENGTH){
+
+            throw new RuntimeException(String.format("Game id %s is too long (> %d bytes) for the game event log.",
+                    event.getGameId(), MAX_GAME_ID_LENGTH));
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.put(TYPE, (byte) (event.getType().ordinal() + 1));
+        record.put(BOARD_LENGTH, (byte) event.getBoardLength());
+        record.put(WIN_LENGTH, (byte) event.getWinLength());
+        record.put(MARK, markCode(event.getMark()));
+        record.putInt(MOVE_NUMBER, event.getMoveNumber());
+        record.putInt(CELL, event.getCell());
+        record.putLong(TIMESTAMP, event.getTimestamp());
+        record.put(GAME_ID_LENGTH, (byte) gameId.length);
+
+        for(int i = 0; i < gameId.length; i++){
+            record.put(GAME_ID + i, gameId[i]);
+        }
+
+        BitBoard board = event.getBoard();
+
+        if(board != null){
+            int boardLength = board.getBoardLength();
+
+            for(int cell = 0; cell < boardLength * boardLength; cell++){
+                int code = markCode(board.getMark(cell / boardLength, cell % boardLength));
+                int index = BOARD + cell / 4;
+                record.put(index, (byte) (record.get(index) | code << 2 * (cell % 4)));
+            }
+        }
+
+        record.putInt(CHECKSUM, checksum(record, 0));
+        record.rewind();
+
+        return record;
+    }
+
+    //Return the event of the record at the offset, or null if the record is empty or torn (its checksum mismatches).
+    private static GameEvent decode(ByteBuffer records, int offset, long sequence){
+
+        int type = records.get(offset + TYPE);
+
+        if(type <= 0 || type > GameEvent.Type.values().length ||
+                records.getInt(offset + CHECKSUM) != checksum(records, offset)){
+            return null;
+        }
+
+        byte[] gameId = new byte[records.get(offset + GAME_ID_LENGTH)];
+
+        for(int i = 0; i < gameId.length; i++){
+            gameId[i] = records.get(offset + GAME_ID + i);
+        }
+
+        int boardLength = records.get(offset + BOARD_LENGTH);
+        int winLength = records.get(offset + WIN_LENGTH);
+        GameEvent.Type eventType = GameEvent.Type.values()[type - 1];
+        BitBoard board = null;
+
+        if(eventType == GameEvent.Type.BOARD){
+            char[] compact = new char[boardLength * boardLength];
+
+            for(int cell = 0; cell < compact.length; cell++){
+                int code = records.get(offset + BOARD + cell / 4) >> 2 * (cell % 4) & 0x3;
+                compact[cell] = code == 1 ? 'X' : code == 2 ? 'O' : '-';
+            }
+
+            board = BitBoard.fromCompactString(new String(compact), boardLength, winLength);
+        }
+
+        int mark = records.get(offset + MARK);
+
+        return GameEvent.gameEventBuilder().sequence(sequence).type(eventType)
+                .gameId(new String(gameId, StandardCharsets.UTF_8)).moveNumber(records.getInt(offset + MOVE_NUMBER))
+                .boardLength(boardLength).winLength(winLength).cell(records.getInt(offset + CELL))
+                .mark(mark == 1 ? BitBoard.PLAYER_X : mark == 2 ? BitBoard.PLAYER_O : null).board(board)
+                .timestamp(records.getLong(offset + TIMESTAMP)).build();
+    }
+
+    private static byte markCode(String mark){
+        return (byte) (BitBoard.PLAYER_X.equals(mark) ? 1 : BitBoard.PLAYER_O.equals(mark) ? 2 : 0);
+    }
+
+    private static int checksum(ByteBuffer records, int offset){
+        CRC32 crc = new CRC32();
+
+        for(int i = 0; i < CHECKSUM; i++){
+            crc.update(records.get(offset + i));
+        }
+
+        return (int) crc.getValue();
+    }
+
+    @PreDestroy
+    public synchronized void close(){
+        if(this.isEnabled && this.channel != null && this.channel.isOpen()){
+            try{
+                this.buffer.force();
+                this.channel.close();
+
+            }catch (IOException exception){
+                LOGGER.info("Unable to close the game event log: {}", exception.getMessage());
+            }
+        }
+    }
+}
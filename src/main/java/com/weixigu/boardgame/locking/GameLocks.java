@@ -0,0 +1,15 @@
+package com.weixigu.boardgame.locking;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+//Striped locks of Tic-Tac-Toe games, keyed by game id: changes of the same game run one at a time.
+@Component
+public class GameLocks extends StripedLocks {
+
+    @Autowired
+    public GameLocks(@Value("${tictactoe.lock.stripes:64}") int numOfStripes){
+        super(numOfStripes);
+    }
+}
@@ -0,0 +1,48 @@
+package com.weixigu.boardgame.locking;
+
+import com.weixigu.boardgame.cache.PlayerCache;
+import com.weixigu.boardgame.domain.Player;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Striped locks of players, keyed by their lower-cased first and last names (see PlayerCache.keyOf()): operations on
+ * the same player run one at a time, while operations on players of different stripes run in parallel.
+ */
+@Component
+public class PlayerLocks extends StripedLocks {
+
+    @Autowired
+    public PlayerLocks(@Value("${player.lock.stripes:64}") int numOfStripes){
+        super(numOfStripes);
+    }
+
+    //A name that is null (and rejected by the operation) is locked as "null".
+    private static String keyOf(Player player){
+        return PlayerCache.keyOf(String.valueOf(player.getFirstName()), String.valueOf(player.getLastName()));
+    }
+
+    int stripeOf(Player player){
+        return this.stripeOf(keyOf(player));
+    }
+
+    //Return the result of the action run while holding the lock of the given player.
+    public <T> T withLock(Player player, Supplier<T> action){
+        return this.withLock(keyOf(player), action);
+    }
+
+    //Return the result of the action run while holding the locks of the given players.
+    public <T> T withLocks(Player[] players, Supplier<T> action){
+
+        String[] keys = new String[players.length];
+
+        for(int i = 0; i < players.length; i++){
+            keys[i] = keyOf(players[i]);
+        }
+
+        return this.withLocks(keys, action);
+    }
+}
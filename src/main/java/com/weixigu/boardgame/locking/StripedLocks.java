@@ -0,0 +1,110 @@
+package com.weixigu.boardgame.locking;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Locks striped by key: actions on the same key take the same lock and run one at a time, while actions on keys of
+ * different stripes run in parallel. The number of stripes is rounded up to a power of two.
+ *
+ * An action on several keys takes their locks in order of stripe, so that two such actions never deadlock.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+    private final LongAdder numOfAcquisitions = new LongAdder();
+    private final LongAdder numOfContendedAcquisitions = new LongAdder();
+
+    public StripedLocks(int numOfStripes){
+
+        if(numOfStripes < 1 || numOfStripes > (1 << 16)){
+
+            throw new RuntimeException(String.format("Invalid number of lock stripes: %d (1 to %d expected).",
+                    numOfStripes, 1 << 16));
+        }
+
+        int size = 1;
+
+        while(size < numOfStripes){
+            size <<= 1;
+        }
+
+        this.stripes = new ReentrantLock[size];
+
+        for(int i = 0; i < this.stripes.length; i++){
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    int stripeOf(String key){
+        int hash = key.hashCode();
+
+        return (hash ^ hash >>> 16) & (this.stripes.length - 1);
+    }
+
+    private void lock(ReentrantLock lock){
+        this.numOfAcquisitions.increment();
+
+        if(!lock.tryLock()){
+            this.numOfContendedAcquisitions.increment();
+            lock.lock();
+        }
+    }
+
+    //Return the result of the action run while holding the lock of the given key.
+    public <T> T withLock(String key, Supplier<T> action){
+
+        ReentrantLock lock = this.stripes[this.stripeOf(key)];
+        this.lock(lock);
+
+        try{
+            return action.get();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    //Return the result of the action run while holding the locks of the given keys.
+    public <T> T withLocks(String[] keys, Supplier<T> action){
+
+        int[] indexes = new int[keys.length];
+
+        for(int i = 0; i < keys.length; i++){
+            indexes[i] = this.stripeOf(keys[i]);
+        }
+
+        indexes = Arrays.stream(indexes).sorted().distinct().toArray();
+        int numOfLocked = 0;
+
+        try{
+            for(int index : indexes){
+                this.lock(this.stripes[index]);
+                numOfLocked++;
+            }
+
+            return action.get();
+        }finally{
+            for(int i = numOfLocked - 1; i >= 0; i--){
+                this.stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    public int getNumOfStripes(){
+        return this.stripes.length;
+    }
+
+    public Map<String, Number> getStatistics(){
+
+        Map<String, Number> statistics = new LinkedHashMap<>();
+        statistics.put("stripes", this.stripes.length);
+        statistics.put("acquisitions", this.numOfAcquisitions.sum());
+        statistics.put("contendedAcquisitions", this.numOfContendedAcquisitions.sum());
+
+        return statistics;
+    }
+}
@@ -0,0 +1,37 @@
+package com.weixigu.boardgame.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter that keeps 1 in 'sampleEvery' of the events marked LogMarkers.HOT_PATH and lets every other
+ * event through. Turbo filters run before an event is created, so a dropped event costs one counter increment.
+ * Configured in logback-spring.xml ('logging.hot-path.sample-every').
+ */
+public class HotPathSamplingFilter extends TurboFilter {
+
+    private final AtomicLong numOfEvents = new AtomicLong();
+    private int sampleEvery = 1;
+
+    public void setSampleEvery(int sampleEvery){
+        this.sampleEvery = Math.max(sampleEvery, 1);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable throwable){
+
+        //Level checks (format == null) and events of other markers are left to the logger.
+        if(this.sampleEvery == 1 || format == null || marker == null || !marker.contains(LogMarkers.HOT_PATH) ||
+                !level.isGreaterOrEqual(logger.getEffectiveLevel())){
+            return FilterReply.NEUTRAL;
+        }
+
+        return this.numOfEvents.getAndIncrement() % this.sampleEvery == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,20 @@
+package com.weixigu.boardgame.logging;
+
+import java.util.function.Supplier;
+
+//Arguments of parameterized log messages.
+public final class LogArgs {
+
+    private LogArgs(){
+    }
+
+    //Return an argument that is only computed if the event is logged (i.e. when the message is formatted).
+    public static Object lazy(Supplier<?> supplier){
+        return new Object(){
+            @Override
+            public String toString(){
+                return String.valueOf(supplier.get());
+            }
+        };
+    }
+}
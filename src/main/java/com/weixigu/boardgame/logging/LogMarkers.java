@@ -0,0 +1,14 @@
+package com.weixigu.boardgame.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+//Markers of log events that the logging configuration treats specially.
+public final class LogMarkers {
+
+    //Per-request events of the hot paths (moves, records, lookups); HotPathSamplingFilter keeps 1 in 'sampleEvery'.
+    public static final Marker HOT_PATH = MarkerFactory.getMarker("HOT_PATH");
+
+    private LogMarkers(){
+    }
+}
@@ -0,0 +1,74 @@
+package com.weixigu.boardgame.logging;
+
+import org.slf4j.MDC;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Puts the context of a request in the MDC while it is handled: 'endpoint' (e.g. PlayerEndpoint.saveRecord) and,
+ * if they are path variables, 'gameId' and 'playerId'. The log pattern prints the MDC after each message, so log
+ * messages don't need to format this context themselves. PlayerService adds 'playerName' (and 'playerId') while it
+ * works on a player.
+ */
+@Component
+public class LoggingContextInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String ENDPOINT = "endpoint";
+    public static final String GAME_ID = "gameId";
+    public static final String PLAYER_ID = "playerId";
+    public static final String PLAYER_NAME = "playerName";
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler){
+
+        if(handler instanceof HandlerMethod){
+            Method method = ((HandlerMethod) handler).getMethod();
+            MDC.put(ENDPOINT, method.getDeclaringClass().getSimpleName() + '.' + method.getName());
+        }
+
+        Object pathVariables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+
+        if(pathVariables instanceof Map){
+            Map<?, ?> variables = (Map<?, ?>) pathVariables;
+            putIfPresent(GAME_ID, variables.get("gameId"));
+            putIfPresent(PLAYER_ID, variables.get("id"));
+        }
+
+        return true;
+    }
+
+    private static void putIfPresent(String key, Object value){
+        if(value != null){
+            MDC.put(key, value.toString());
+        }
+    }
+
+    private static void clear(){
+        MDC.remove(ENDPOINT);
+        MDC.remove(GAME_ID);
+        MDC.remove(PLAYER_ID);
+        MDC.remove(PLAYER_NAME);
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception exception){
+        clear();
+    }
+
+    //Streaming responses (e.g. game updates) continue on other threads; release this one.
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request,
+                                               @NonNull HttpServletResponse response, @NonNull Object handler){
+        clear();
+    }
+}
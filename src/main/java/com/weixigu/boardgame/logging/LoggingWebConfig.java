@@ -0,0 +1,23 @@
+package com.weixigu.boardgame.logging;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+//Registers the LoggingContextInterceptor for every endpoint.
+@Configuration
+public class LoggingWebConfig implements WebMvcConfigurer {
+
+    private final LoggingContextInterceptor loggingContextInterceptor;
+
+    @Autowired
+    public LoggingWebConfig(LoggingContextInterceptor loggingContextInterceptor){
+        this.loggingContextInterceptor = loggingContextInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry){
+        registry.addInterceptor(this.loggingContextInterceptor);
+    }
+}
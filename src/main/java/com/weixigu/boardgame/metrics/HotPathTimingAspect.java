@@ -0,0 +1,130 @@
+package com.weixigu.boardgame.metrics;
+
+import com.weixigu.boardgame.repo.IPlayerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every public method of the services ('boardgame.service') and every query of the repositories
+ * ('boardgame.repository'), tagged by class, method and outcome ('success', or 'error' when it throws; 'exception'
+ * then names the exception). Endpoints are timed by Spring Boot as 'http.server.requests'.
+ *
+ * Latency histograms and percentiles of these timers are configured in application.properties and served by
+ * the Actuator endpoints /actuator/metrics and /actuator/prometheus.
+ *
+ * Each timer is built and registered on the first call it times; later calls find it in a map by class, method and
+ * exception, so that timing a call doesn't build a meter id and look it up in the registry.
+ */
+@Aspect
+@Component
+public class HotPathTimingAspect {
+
+    public static final String SERVICE_TIMER = "boardgame.service";
+    public static final String REPOSITORY_TIMER = "boardgame.repository";
+
+    private final MeterRegistry registry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HotPathTimingAspect(MeterRegistry registry){
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.weixigu.boardgame.service.*Service.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable{
+        return this.time(SERVICE_TIMER, joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    @Around("this(com.weixigu.boardgame.repo.IPlayerRepository) || this(com.weixigu.boardgame.repo.ITicTacToeRepository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable{
+        //Inherited methods (e.g. save) are declared by Spring Data, so tag them by the repository instead.
+        String repository = joinPoint.getThis() instanceof IPlayerRepository ? "IPlayerRepository" :
+                "ITicTacToeRepository";
+
+        return this.time(REPOSITORY_TIMER, repository, joinPoint);
+    }
+
+    private Object time(String name, String className, ProceedingJoinPoint joinPoint) throws Throwable{
+
+        Timer.Sample sample = Timer.start(this.registry);
+        String outcome = "success";
+        String exception = "none";
+
+        try{
+            return joinPoint.proceed();
+
+        }catch (Throwable throwable){
+
+            outcome = "error";
+            exception = throwable.getClass().getSimpleName();
+            throw throwable;
+
+        }finally{
+
+            sample.stop(this.timerOf(name, className, ((MethodSignature) joinPoint.getSignature()).getMethod(),
+                    outcome, exception));
+        }
+    }
+
+    private Timer timerOf(String name, String className, Method method, String outcome, String exception){
+
+        TimerKey key = new TimerKey(name, className, method, exception);
+        Timer timer = this.timers.get(key);
+
+        if(timer != null){
+            return timer;
+        }
+
+        return this.timers.computeIfAbsent(key, absentKey -> Timer.builder(name)
+                .tag("class", className)
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(this.registry));
+    }
+
+    //A timed method of a class (inherited methods are timed per repository), and what it threw ('none' if nothing).
+    private static final class TimerKey {
+        private final String name;
+        private final String className;
+        private final Method method;
+        private final String exception;
+
+        private TimerKey(String name, String className, Method method, String exception){
+            this.name = name;
+            this.className = className;
+            this.method = method;
+            this.exception = exception;
+        }
+
+        @Override
+        public boolean equals(Object object){
+            if(this == object){
+                return true;
+            }
+            if(!(object instanceof TimerKey)){
+                return false;
+            }
+
+            TimerKey other = (TimerKey) object;
+            return this.name.equals(other.name) && this.className.equals(other.className) &&
+                    this.method.equals(other.method) && this.exception.equals(other.exception);
+        }
+
+        @Override
+        public int hashCode(){
+            return ((this.name.hashCode() * 31 + this.className.hashCode()) * 31 + this.method.hashCode()) * 31 +
+                    this.exception.hashCode();
+        }
+    }
+}
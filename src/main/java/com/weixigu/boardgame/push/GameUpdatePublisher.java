@@ -0,0 +1,178 @@
+package com.weixigu.boardgame.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weixigu.boardgame.BoardGameApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-Sent Events channel per game: clients subscribe to a game and receive every change of it
+ * (event 'move', 'revert' or 'reset') instead of polling.
+ *
+ * An update is serialized to JSON once and the same text is sent to all the subscribers of its game;
+ * a subscriber that can't be written to is dropped.
+ *
+ * publishAsync() hands the sending to one of 'sender-threads' single-threaded executors (chosen by game id), so that
+ * a change of a game doesn't wait on slow subscribers while holding the game's lock, and the updates of a game are
+ * still sent in the order they were published.
+ */
+@Component
+public class GameUpdatePublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final Map<String, Set<SseEmitter>> subscribersByGameId = new ConcurrentHashMap<>();
+    private final LongAdder numOfPublishedUpdates = new LongAdder();
+    private final LongAdder numOfSentUpdates = new LongAdder();
+    private final ExecutorService[] senders;
+
+    @Autowired
+    public GameUpdatePublisher(ObjectMapper objectMapper,
+                               @Value("${tictactoe.push.timeout-ms:1800000}") long timeoutMillis,
+                               @Value("${tictactoe.push.sender-threads:2}") int numOfSenderThreads){
+
+        if(numOfSenderThreads < 1){
+
+            throw new RuntimeException("The number of threads sending game updates should be positive.");
+        }
+
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.senders = new ExecutorService[numOfSenderThreads];
+
+        for(int i = 0; i < numOfSenderThreads; i++){
+
+            String threadName = "game-update-sender-" + i;
+            this.senders[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    //Return a new subscription to the updates of the given game; it ends when the client disconnects or times out.
+    public SseEmitter subscribe(String gameId){
+
+        SseEmitter emitter = new SseEmitter(this.timeoutMillis);
+        Set<SseEmitter> subscribers = this.subscribersByGameId.computeIfAbsent(gameId,
+                key -> new CopyOnWriteArraySet<>());
+        subscribers.add(emitter);
+
+        Runnable unsubscribe = () -> this.unsubscribe(gameId, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+
+        LOGGER.info("Subscribed to the updates of Tic-Tac-Toe game {}.", gameId);
+
+        return emitter;
+    }
+
+    private void unsubscribe(String gameId, SseEmitter emitter){
+
+        this.subscribersByGameId.computeIfPresent(gameId, (key, subscribers) -> {
+            subscribers.remove(emitter);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    //Send the update (serialized once) to every subscriber of the given game; return the number of subscribers reached.
+    public int publish(String gameId, String eventName, Object update){
+
+        Set<SseEmitter> subscribers = this.subscribersByGameId.get(gameId);
+
+        if(subscribers == null || subscribers.isEmpty()){
+            return 0;
+        }
+
+        String data;
+
+        try{
+            data = this.objectMapper.writeValueAsString(update);
+
+        }catch (JsonProcessingException exception){
+
+            LOGGER.info("Unable to serialize update '{}' of Tic-Tac-Toe game {}: {}", eventName, gameId,
+                    exception.getMessage());
+            return 0;
+        }
+
+        int numOfSubscribers = 0;
+
+        for(SseEmitter emitter : subscribers){
+            try{
+                emitter.send(SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON));
+                numOfSubscribers++;
+
+            }catch (IOException | IllegalStateException exception){
+
+                this.unsubscribe(gameId, emitter);
+                emitter.completeWithError(exception);
+            }
+        }
+
+        this.numOfPublishedUpdates.increment();
+        this.numOfSentUpdates.add(numOfSubscribers);
+
+        return numOfSubscribers;
+    }
+
+    //Send the update to the subscribers of the given game from the game's sender thread; return without waiting.
+    public void publishAsync(String gameId, String eventName, Object update){
+
+        Set<SseEmitter> subscribers = this.subscribersByGameId.get(gameId);
+
+        if(subscribers == null || subscribers.isEmpty()){
+            return;
+        }
+
+        ExecutorService sender = this.senders[(gameId.hashCode() & Integer.MAX_VALUE) % this.senders.length];
+
+        try{
+            sender.execute(() -> this.publish(gameId, eventName, update));
+
+        }catch (RejectedExecutionException exception){
+
+            LOGGER.info("Dropped update '{}' of Tic-Tac-Toe game {}: the publisher is shut down.", eventName, gameId);
+        }
+    }
+
+    @PreDestroy
+    public void close(){
+        for(ExecutorService sender : this.senders){
+            sender.shutdown();
+        }
+    }
+
+    public Map<String, Number> getStatistics(){
+        Map<String, Number> statistics = new LinkedHashMap<>();
+
+        statistics.put("numOfGames", this.subscribersByGameId.size());
+        statistics.put("numOfSubscribers", this.subscribersByGameId.values().stream().mapToInt(Set::size).sum());
+        statistics.put("numOfPublishedUpdates", this.numOfPublishedUpdates.sum());
+        statistics.put("numOfSentUpdates", this.numOfSentUpdates.sum());
+
+        return statistics;
+    }
+}
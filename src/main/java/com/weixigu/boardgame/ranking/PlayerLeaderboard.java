@@ -0,0 +1,351 @@
+package com.weixigu.boardgame.ranking;
+
+import com.weixigu.boardgame.domain.Player;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Non-deleted players ordered by score (highest first, ties broken by the smaller id), kept in memory
+ * so that top-K and rank queries never touch the repository.
+ *
+ * The order is an order-statistic treap: every node knows the size of its subtree, so adding, removing,
+ * and ranking a player are O(log n) and listing the top K players is O(log n + K). Reads share a lock;
+ * updates take it exclusively.
+ *
+ * The leaderboard keeps and hands out snapshots (see Player.snapshot()), so changing a player never moves it
+ * here unnoticed. Like PlayerCache, anything added or removed during a transaction that is rolled back is undone.
+ */
+@Component
+public class PlayerLeaderboard {
+
+    private static final class Node {
+        private final Player player;
+        private final int score;
+        private final long id;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(Player player, int priority){
+            this.player = player;
+            this.score = player.getScore();
+            this.id = player.getId();
+            this.priority = priority;
+        }
+    }
+
+    private final Map<Long, Node> nodesById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Random random = new Random();
+    private Node root;
+
+    private static int sizeOf(Node node){
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node){
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+    }
+
+    //Negative if a (score, id) ranks above b.
+    private static int compare(int scoreA, long idA, int scoreB, long idB){
+        return scoreA != scoreB ? Integer.compare(scoreB, scoreA) : Long.compare(idA, idB);
+    }
+
+    //Split into nodes ranking above (score, id) and the rest.
+    private static Node[] split(Node node, int score, long id){
+        if(node == null){
+            return new Node[2];
+        }
+
+        if(compare(node.score, node.id, score, id) < 0){
+            Node[] parts = split(node.right, score, id);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        }
+
+        Node[] parts = split(node.left, score, id);
+        node.left = parts[1];
+        update(node);
+        parts[1] = node;
+        return parts;
+    }
+
+    //Every node of 'upper' ranks above every node of 'lower'.
+    private static Node merge(Node upper, Node lower){
+        if(upper == null || lower == null){
+            return upper == null ? lower : upper;
+        }
+
+        if(upper.priority > lower.priority){
+            upper.right = merge(upper.right, lower);
+            update(upper);
+            return upper;
+        }
+
+        lower.left = merge(upper, lower.left);
+        update(lower);
+        return lower;
+    }
+
+    private static Node remove(Node node, int score, long id){
+        if(node == null){
+            return null;
+        }
+
+        int order = compare(score, id, node.score, node.id);
+
+        if(order == 0){
+            return merge(node.left, node.right);
+        }
+
+        if(order < 0){
+            node.left = remove(node.left, score, id);
+        }else{
+            node.right = remove(node.right, score, id);
+        }
+
+        update(node);
+        return node;
+    }
+
+    /**
+     * Remember how the player of the given id was ranked before its first change in the current transaction (null if
+     * it was not ranked), to be restored unless the transaction commits. Outside a transaction, nothing is remembered.
+     */
+    private void recordUndoUnlocked(long id){
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<Long, Player> originals = (Map<Long, Player>) TransactionSynchronizationManager.getResource(this);
+
+        if(originals == null){
+            Map<Long, Player> newOriginals = new LinkedHashMap<>();
+            originals = newOriginals;
+            TransactionSynchronizationManager.bindResource(this, newOriginals);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter(){
+                @Override
+                public void afterCompletion(int status){
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PlayerLeaderboard.this);
+
+                    if(status != STATUS_COMMITTED){
+                        PlayerLeaderboard.this.undo(newOriginals);
+                    }
+                }
+            });
+        }
+
+        if(!originals.containsKey(id)){
+            Node node = this.nodesById.get(id);
+            originals.put(id, node == null ? null : node.player);
+        }
+    }
+
+    private void undo(Map<Long, Player> originals){
+        this.lock.writeLock().lock();
+        try{
+            for(Map.Entry<Long, Player> original : originals.entrySet()){
+                if(original.getValue() == null){
+                    this.removeUnlocked(original.getKey());
+                }else{
+                    this.addUnlocked(original.getValue());
+                }
+            }
+        }finally{
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    //The player must be a snapshot that nothing else refers to.
+    private void addUnlocked(Player player){
+        this.removeUnlocked(player.getId());
+
+        Node node = new Node(player, this.random.nextInt());
+        Node[] parts = split(this.root, node.score, node.id);
+        this.root = merge(merge(parts[0], node), parts[1]);
+        this.nodesById.put(node.id, node);
+    }
+
+    private void removeUnlocked(long id){
+        Node node = this.nodesById.remove(id);
+
+        if(node != null){
+            this.root = remove(this.root, node.score, node.id);
+        }
+    }
+
+    //Replace the whole leaderboard with the given (non-deleted) players.
+    public void load(Collection<Player> players){
+        this.lock.writeLock().lock();
+        try{
+            this.root = null;
+            this.nodesById.clear();
+
+            for(Player player : players){
+                this.addUnlocked(player.snapshot());
+            }
+        }finally{
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    //Add a saved player, or move it to its new place if a player of the same id is already on the leaderboard.
+    public void add(Player player){
+        if(player.getId() == null){
+            throw new RuntimeException(String.format("Player %s has no id to be ranked by.", player.fullName()));
+        }
+
+        Player snapshot = player.snapshot();
+
+        this.lock.writeLock().lock();
+        try{
+            this.recordUndoUnlocked(snapshot.getId());
+            this.addUnlocked(snapshot);
+        }finally{
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a single-game record to the ranked player of the given id and move it to its new place; a blank nick name is
+     * replaced by the record's one. Return the updated player, or null if the player is not on the leaderboard.
+     */
+    public Player addRecord(Long id, Player record) throws RuntimeException{
+        this.lock.writeLock().lock();
+        try{
+            Node node = this.nodesById.get(id);
+
+            if(node == null){
+                return null;
+            }
+
+            Player player = node.player;
+
+            if((long) player.getNumTicTacToeWin() + record.getNumTicTacToeWin() > Integer.MAX_VALUE ||
+                    (long) player.getNumTicTacToeLoss() + record.getNumTicTacToeLoss() > Integer.MAX_VALUE ||
+                    (long) player.getNumTicTacToeDraw() + record.getNumTicTacToeDraw() > Integer.MAX_VALUE){
+
+                throw new RuntimeException(String.format("Unable to add the record because player %s has too many " +
+                        "(> %d) games.", player.fullName(), Integer.MAX_VALUE));
+            }
+
+            Player updatedPlayer = player.toBuilder()
+                    .nickName(player.getNickName().trim().isEmpty() && record.getNickName() != null ? record.getNickName() :
+                            player.getNickName())
+                    .numTicTacToeWin(player.getNumTicTacToeWin() + record.getNumTicTacToeWin())
+                    .numTicTacToeLoss(player.getNumTicTacToeLoss() + record.getNumTicTacToeLoss())
+                    .numTicTacToeDraw(player.getNumTicTacToeDraw() + record.getNumTicTacToeDraw()).build();
+            this.recordUndoUnlocked(id);
+            this.addUnlocked(updatedPlayer);
+
+            return updatedPlayer.snapshot();
+        }finally{
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id){
+        this.lock.writeLock().lock();
+        try{
+            this.recordUndoUnlocked(id);
+            this.removeUnlocked(id);
+        }finally{
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    //Return the (at most) k players of the highest scores, the highest first.
+    public List<Player> top(int k){
+        this.lock.readLock().lock();
+        try{
+            List<Player> players = new ArrayList<>(Math.min(k, sizeOf(this.root)));
+            collect(this.root, k, players);
+            return players;
+        }finally{
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private static void collect(Node node, int k, List<Player> players){
+        if(node == null || players.size() >= k){
+            return;
+        }
+
+        collect(node.left, k, players);
+
+        if(players.size() < k){
+            players.add(node.player.snapshot());
+            collect(node.right, k, players);
+        }
+    }
+
+    //Return the 1-based rank of the player of the given id, or 0 if the player is not on the leaderboard.
+    public int rankOf(Long id){
+        this.lock.readLock().lock();
+        try{
+            Node target = this.nodesById.get(id);
+
+            if(target == null){
+                return 0;
+            }
+
+            int rank = 1;
+            Node node = this.root;
+
+            while(node != null){
+                int order = compare(target.score, target.id, node.score, node.id);
+
+                if(order < 0){
+                    node = node.left;
+                }else{
+                    rank += sizeOf(node.left) + (order > 0 ? 1 : 0);
+
+                    if(order == 0){
+                        break;
+                    }
+                    node = node.right;
+                }
+            }
+
+            return rank;
+        }finally{
+            this.lock.readLock().unlock();
+        }
+    }
+
+    //Return the player of the given id as it is ranked, or null if it is not on the leaderboard.
+    public Player playerOf(Long id){
+        this.lock.readLock().lock();
+        try{
+            Node node = this.nodesById.get(id);
+            return node == null ? null : node.player.snapshot();
+        }finally{
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public int size(){
+        this.lock.readLock().lock();
+        try{
+            return sizeOf(this.root);
+        }finally{
+            this.lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.weixigu.boardgame.repo;
+
+import com.weixigu.boardgame.domain.ArchivedTicTacToe;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+
+//Written by the DeadRowCompactor only; not served by Spring Data REST.
+@Repository
+@RepositoryRestResource(exported = false)
+public interface IArchivedTicTacToeRepository extends JpaRepository<ArchivedTicTacToe, Long> {
+}
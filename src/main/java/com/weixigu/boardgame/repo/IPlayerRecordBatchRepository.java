@@ -0,0 +1,17 @@
+package com.weixigu.boardgame.repo;
+
+import com.weixigu.boardgame.domain.Player;
+import org.springframework.data.rest.core.annotation.RestResource;
+
+import java.util.List;
+
+//Batched writes of player records that bypass the persistence context; implemented by IPlayerRecordBatchRepositoryImpl.
+public interface IPlayerRecordBatchRepository {
+
+    /**
+     * Add the records of the given players (the counts of each are increments) to the non-deleted players of the same
+     * ids, as one JDBC batch of UPDATE statements. Return the number of updated rows per player (0 if deleted or DNE).
+     */
+    @RestResource(exported = false)
+    int[] incrementRecords(List<Player> increments);
+}
@@ -0,0 +1,53 @@
+package com.weixigu.boardgame.repo;
+
+import com.weixigu.boardgame.domain.Player;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+//Spring Data picks this class up as the implementation of IPlayerRecordBatchRepository (by the 'Impl' suffix).
+public class IPlayerRecordBatchRepositoryImpl implements IPlayerRecordBatchRepository {
+
+    private static final String INCREMENT_RECORD_SQL = "update player set " +
+            "num_tic_tac_toe_win = num_tic_tac_toe_win + ?, num_tic_tac_toe_loss = num_tic_tac_toe_loss + ?, " +
+            "num_tic_tac_toe_draw = num_tic_tac_toe_draw + ?, " +
+            "nick_name = case when trim(nick_name) = '' then ? else nick_name end " +
+            "where id = ? and is_deleted = false";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public IPlayerRecordBatchRepositoryImpl(JdbcTemplate jdbcTemplate){
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] incrementRecords(List<Player> increments){
+
+        if(increments.isEmpty()){
+            return new int[0];
+        }
+
+        //Write pending changes first and forget loaded players afterwards, since they are stale after the batch.
+        this.entityManager.flush();
+
+        int[] numOfUpdatedRows = this.jdbcTemplate.batchUpdate(INCREMENT_RECORD_SQL, increments, increments.size(),
+                (statement, player) -> {
+                    statement.setInt(1, player.getNumTicTacToeWin());
+                    statement.setInt(2, player.getNumTicTacToeLoss());
+                    statement.setInt(3, player.getNumTicTacToeDraw());
+                    statement.setString(4, player.getNickName());
+                    statement.setLong(5, player.getId());
+                })[0];
+
+        this.entityManager.clear();
+
+        return numOfUpdatedRows;
+    }
+}
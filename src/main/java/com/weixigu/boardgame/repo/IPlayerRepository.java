@@ -1,16 +1,59 @@
 package com.weixigu.boardgame.repo;
 
 import com.weixigu.boardgame.domain.Player;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.stereotype.Repository;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface IPlayerRepository extends JpaRepository<Player, Long> {
+public interface IPlayerRepository extends JpaRepository<Player, Long>, IPlayerRecordBatchRepository {
     List<Player> findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(@Param("firstName") String firstName,
                                                                      @Param("lastName") String lastName,
                                                                      @Param("isDeleted") boolean isDeleted);
 
     List<Player> findByIsDeleted(@Param("isDeleted") boolean isDeleted);
+
+    //Fetch one page (and the total count) with LIMIT/OFFSET and ORDER BY in the database.
+    //Served by /players/repository; exporting it too would map two searches to /findByIsDeleted.
+    @RestResource(exported = false)
+    Page<Player> findByIsDeleted(@Param("isDeleted") boolean isDeleted, Pageable pageable);
+
+    //Players deleted before the given time (or before deletion times were recorded), oldest first.
+    @RestResource(exported = false)
+    @Query("select p from Player p where p.isDeleted = true and (p.deletedAt is null or p.deletedAt < :before) " +
+            "order by p.id")
+    List<Player> findDeletedPlayers(@Param("before") long before, Pageable pageable);
+
+    /**
+     * Stream the non-deleted players in order of id through a database cursor that fetches 512 rows at a time.
+     * Must be consumed (and closed) inside a transaction.
+     */
+    @RestResource(exported = false)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "512"))
+    @Query("select p from Player p where p.isDeleted = false order by p.id")
+    Stream<Player> streamNonDeletedPlayers();
+
+    /**
+     * Add a single-game record to a non-deleted player in one atomic UPDATE; a blank nick name is replaced by the
+     * given one. Return the number of updated players (0 if the player is deleted or DNE).
+     */
+    @RestResource(exported = false)
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Player p set p.numTicTacToeWin = p.numTicTacToeWin + :wins, " +
+            "p.numTicTacToeLoss = p.numTicTacToeLoss + :losses, p.numTicTacToeDraw = p.numTicTacToeDraw + :draws, " +
+            "p.nickName = case when trim(p.nickName) = '' then :nickName else p.nickName end " +
+            "where p.id = :id and p.isDeleted = false")
+    int incrementRecord(@Param("id") Long id, @Param("wins") int wins, @Param("losses") int losses,
+                        @Param("draws") int draws, @Param("nickName") String nickName);
 }
@@ -1,12 +1,66 @@
 package com.weixigu.boardgame.repo;
 
 import com.weixigu.boardgame.domain.TicTacToe;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
+//Per-game queries are served by the (gameId, isCurrentGame, moveNumber) index declared on TicTacToe.
 @Repository
 public interface ITicTacToeRepository extends JpaRepository<TicTacToe, Long> {
     List<TicTacToe> findByIsCurrentGame(boolean isMoveOfCurrentGame);
+
+    //True if the game has any move, current or removed.
+    @RestResource(exported = false)
+    boolean existsByGameId(@Param("gameId") String gameId);
+
+    List<TicTacToe> findByGameIdAndIsCurrentGame(@Param("gameId") String gameId,
+                                                 @Param("isCurrentGame") boolean isMoveOfCurrentGame);
+
+    Optional<TicTacToe> findByGameIdAndIsCurrentGameAndMoveNumber(@Param("gameId") String gameId,
+                                                                  @Param("isCurrentGame") boolean isMoveOfCurrentGame,
+                                                                  @Param("moveNumber") int moveNumber);
+
+    Optional<TicTacToe> findFirstByGameIdAndIsCurrentGameOrderByMoveNumberDesc(
+            @Param("gameId") String gameId, @Param("isCurrentGame") boolean isMoveOfCurrentGame);
+
+    List<TicTacToe> findByGameIdAndIsCurrentGameAndMoveNumberGreaterThan(
+            @Param("gameId") String gameId, @Param("isCurrentGame") boolean isMoveOfCurrentGame,
+            @Param("moveNumber") int moveNumber);
+
+    //The nearest checkpoint at or before the given move.
+    Optional<TicTacToe> findFirstByGameIdAndIsCurrentGameAndCheckpointIsNotNullAndMoveNumberLessThanEqualOrderByMoveNumberDesc(
+            @Param("gameId") String gameId, @Param("isCurrentGame") boolean isMoveOfCurrentGame,
+            @Param("moveNumber") int moveNumber);
+
+    List<TicTacToe> findByGameIdAndIsCurrentGameAndMoveNumberBetweenOrderByMoveNumber(
+            @Param("gameId") String gameId, @Param("isCurrentGame") boolean isMoveOfCurrentGame,
+            @Param("fromMoveNumber") int fromMoveNumber, @Param("toMoveNumber") int toMoveNumber);
+
+    //Bulk updates: one UPDATE statement however many moves the game has; return the number of updated moves.
+    @RestResource(exported = false)
+    @Modifying(clearAutomatically = true)
+    @Query("update TicTacToe t set t.isCurrentGame = false, t.removedAt = :removedAt " +
+            "where t.gameId = :gameId and t.isCurrentGame = true")
+    int removeAllFromCurrentGame(@Param("gameId") String gameId, @Param("removedAt") long removedAt);
+
+    @RestResource(exported = false)
+    @Modifying(clearAutomatically = true)
+    @Query("update TicTacToe t set t.isCurrentGame = false, t.removedAt = :removedAt " +
+            "where t.gameId = :gameId and t.isCurrentGame = true and t.moveNumber > :moveNumber")
+    int removeFromCurrentGameAfter(@Param("gameId") String gameId, @Param("moveNumber") int moveNumber,
+                                   @Param("removedAt") long removedAt);
+
+    //Moves removed from their games before the given time (or before removal times were recorded), oldest first.
+    @RestResource(exported = false)
+    @Query("select t from TicTacToe t where t.isCurrentGame = false and (t.removedAt is null or t.removedAt < :before) " +
+            "order by t.id")
+    List<TicTacToe> findRemovedMoves(@Param("before") long before, Pageable pageable);
 }
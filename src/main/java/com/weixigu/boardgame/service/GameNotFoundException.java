@@ -0,0 +1,12 @@
+package com.weixigu.boardgame.service;
+
+/**
+ * RuntimeException for a request to a game that was never created (or has no current move to show).
+ * Like a ValidationException, it is reported by its message only, so it has no stack trace.
+ */
+public class GameNotFoundException extends RuntimeException {
+
+    public GameNotFoundException(String gameId){
+        super(String.format("Tic-Tac-Toe game %s DNE.", gameId), null, false, false);
+    }
+}
@@ -1,48 +1,188 @@
 package com.weixigu.boardgame.service;
 
 import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.cache.PlayerCache;
 import com.weixigu.boardgame.domain.Player;
+import com.weixigu.boardgame.locking.PlayerLocks;
+import com.weixigu.boardgame.logging.LogMarkers;
+import com.weixigu.boardgame.logging.LoggingContextInterceptor;
+import com.weixigu.boardgame.ranking.PlayerLeaderboard;
 import com.weixigu.boardgame.repo.IPlayerRepository;
+import com.weixigu.boardgame.validation.ValidationException;
+import com.weixigu.boardgame.writebehind.PlayerRecordBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.*;
-
-//Service provider that performs CRUD operations on Player repository.
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service provider that performs CRUD operations on Player repository and keeps the player leaderboard up to date.
+ * Creating, deleting and replacing a player and saving its record are check-then-act sequences over the player's
+ * non-deleted copies; they hold the player's striped lock (see PlayerLocks), so that they run one at a time per
+ * player and never leave a player with two non-deleted copies. The lock is released when the method returns, so a
+ * caller's own transaction should not span them.
+ */
 @Service("playerService")
 public class PlayerService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
 
     private final IPlayerRepository playerRepository;
+    private final PlayerLeaderboard playerLeaderboard;
+    private final PlayerCache playerCache;
+    private final PlayerRecordBuffer recordBuffer;
+    private final PlayerLocks playerLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong version = new AtomicLong();
+
+    //Random per-process epoch of the version, so that a version of an earlier run is never taken for a current one.
+    private final long epoch = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public PlayerService(IPlayerRepository playerRepository){
+    public PlayerService(IPlayerRepository playerRepository, PlayerLeaderboard playerLeaderboard,
+                         PlayerCache playerCache, PlayerRecordBuffer recordBuffer, PlayerLocks playerLocks,
+                         PlatformTransactionManager transactionManager){
 
         this.playerRepository = playerRepository;
+        this.playerLeaderboard = playerLeaderboard;
+        this.playerCache = playerCache;
+        this.recordBuffer = recordBuffer;
+        this.playerLocks = playerLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    private Page<Player> getPageFromListAndPageable(List<Player> allElements, Pageable pageable){
+    /**
+     * Increase the version of the player table once the current transaction (if any) commits, i.e. only after the
+     * write is visible, so that a reader who reads the version before the players never pairs new data with an old
+     * version.
+     */
+    private void bumpVersion(){
 
-        int pageSize = pageable.getPageSize();
-        int pageNumber = pageable.getPageNumber();
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            this.version.incrementAndGet();
+            return;
+        }
 
-        int fromIndex = pageSize*pageNumber;
-        int startOfTheNextPage = pageSize*(pageNumber+1);
-        int toIndex = Math.min(allElements.size(), startOfTheNextPage);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter(){
+            @Override
+            public void afterCommit(){
+                PlayerService.this.version.incrementAndGet();
+            }
+        });
+    }
 
-        List<Player> playersOnPage = allElements.subList(fromIndex, toIndex); //.subList(i, j) contains: i,..., j-1.
+    //Monotonically increasing version of the player table, bumped on every write of this service.
+    public long getVersion(){
 
-        return new PageImpl<>(playersOnPage, pageable, allElements.size());
+        return this.version.get();
     }
 
-    //Return a Page of Player entities meeting the paging restriction and isDeleted = false.
-    public Page<Player> getPlayerRepo(int pageNumber, int pageSize, String sortBy) throws RuntimeException{
+    //Version of the player table tagged with the epoch of this process, unique across restarts (e.g. for ETags).
+    public String getVersionTag(){
+
+        return Long.toHexString(this.epoch) + '.' + this.getVersion();
+    }
+
+    //Return the non-deleted copies of the given player (by name, ignoring case); the repo is only queried on a miss.
+    private List<Player> findNonDeletedCopies(Player player){
+
+        List<Player> nonDeletedCopies = this.playerCache.get(player.getFirstName(), player.getLastName());
+
+        if(nonDeletedCopies == null){
+
+            nonDeletedCopies = this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
+                    player.getFirstName(), player.getLastName(), false);
+            this.playerCache.put(player.getFirstName(), player.getLastName(), nonDeletedCopies);
+        }
+
+        return nonDeletedCopies;
+    }
+
+    public Map<String, Number> getCacheStatistics(){
+
+        return this.playerCache.getStatistics();
+    }
+
+    public Map<String, Number> getWriteBehindStatistics(){
+
+        return this.recordBuffer.getStatistics();
+    }
+
+    public Map<String, Number> getLockStatistics(){
+
+        return this.playerLocks.getStatistics();
+    }
+
+    //Write the buffered records (if write-behind is enabled) before a write that needs the players' latest records.
+    private void flushBufferedRecords(){
+
+        if(this.recordBuffer.isEnabled()){
+            this.recordBuffer.flush();
+        }
+    }
+
+    //Return the (at most) 'top' non-deleted players of the highest scores from the leaderboard (not the repo).
+    public List<Player> getLeaderboard(int top) throws RuntimeException{
+
+        if(top <= 0){
+
+            throw new RuntimeException(String.format("The number of top players is not positive: %d", top));
+        }
+
+        List<Player> players = this.playerLeaderboard.top(top);
+        LOGGER.info(LogMarkers.HOT_PATH, "Retrieved the top {} players from the leaderboard.", top);
+
+        return players;
+    }
+
+    //Return the rank (1 for the highest score) and score of a non-deleted player from the leaderboard (not the repo).
+    public Map<String, Number> getRank(Long id) throws RuntimeException{
+
+        Player player = this.playerLeaderboard.playerOf(id);
+        int rank = this.playerLeaderboard.rankOf(id);
+
+        if(player == null || rank == 0){
+
+            throw new RuntimeException(String.format("Player %d DNE in the leaderboard.", id));
+        }
+
+        Map<String, Number> ranking = new LinkedHashMap<>();
+        ranking.put("id", id);
+        ranking.put("rank", rank);
+        ranking.put("score", player.getScore());
+        ranking.put("numOfRankedPlayers", this.playerLeaderboard.size());
+
+        return ranking;
+    }
 
-        List<Player> players = this.playerRepository.findByIsDeleted(false);
+    /**
+     * Return a Page of Player entities meeting the paging restriction and isDeleted = false.
+     * Paging and sorting (by any column including the derived 'score'; ties are broken by id) happen in the database,
+     * so only the rows of the requested page are loaded.
+     * With write-behind, the players are shown with their buffered records (taken from the leaderboard), while the
+     * page itself is sorted by the records in the repo.
+     */
+    public Page<Player> getPlayerRepo(int pageNumber, int pageSize, String sortBy) throws RuntimeException{
 
         //validate the pagination params
         if(pageNumber < 0){
@@ -50,35 +190,101 @@ public class PlayerService {
             throw new RuntimeException(String.format("page number is negative: %d", pageNumber));
         }
 
-        if(pageSize < 0){
+        if(pageSize < 1){
 
-            throw new RuntimeException(String.format("page size is negative: %d", pageSize));
+            throw new RuntimeException(String.format("page size is not positive: %d", pageSize));
         }
 
-        int totalPages = (int) Math.ceil((double)players.size()/pageSize);
+        //retrieve page
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(sortBy).and(Sort.by("id")));
+        Page<Player> page = this.playerRepository.findByIsDeleted(false, pageable);
 
-        if(pageNumber >= totalPages){
+        if(pageNumber >= page.getTotalPages()){
 
             throw new RuntimeException(String.format("page number %d (with size = %d) is too large; " +
-                            "total element is %d", pageNumber, pageSize, players.size()));
+                            "total element is %d", pageNumber, pageSize, page.getTotalElements()));
         }
 
-        //retrieve page
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(sortBy));
-        Page<Player> page = this.getPageFromListAndPageable(players, pageable);
-        LOGGER.info(String.format("Retrieved players (page = %d, size = %d, sort by = %s).",
-                pageNumber, pageSize, sortBy));
+        if(this.recordBuffer.isEnabled()){
+
+            page = page.map(player -> {
+                Player rankedPlayer = this.playerLeaderboard.playerOf(player.getId());
+                return rankedPlayer != null ? rankedPlayer : player;
+            });
+        }
+
+        LOGGER.info(LogMarkers.HOT_PATH, "Retrieved players (page = {}, size = {}, sort by = {}).", pageNumber,
+                pageSize, sortBy);
 
         return page;
     }
 
+    /**
+     * Pass the non-deleted players to the consumer one at a time (in order of id), reading them through a database
+     * cursor; each player is detached once consumed, so memory use doesn't grow with the number of players.
+     */
+    @Transactional(readOnly = true)
+    public long exportPlayers(Consumer<Player> consumer) throws RuntimeException{
+
+        long numOfPlayers = 0;
+
+        try(Stream<Player> players = this.playerRepository.streamNonDeletedPlayers()){
+
+            Iterator<Player> iterator = players.iterator();
+
+            while(iterator.hasNext()){
+
+                Player player = iterator.next();
+                consumer.accept(player);
+                this.entityManager.detach(player);
+                numOfPlayers++;
+            }
+        }
+
+        LOGGER.info("Exported {} players.", numOfPlayers);
+
+        return numOfPlayers;
+    }
+
+    /**
+     * Run the action with the player's name (and id, if it has one) in the MDC, so that the log messages of the action
+     * don't format them (see LoggingContextInterceptor); what the MDC held before is restored afterwards.
+     */
+    private static <T> T withPlayerContext(Player player, Supplier<T> action){
+
+        String previousName = MDC.get(LoggingContextInterceptor.PLAYER_NAME);
+        String previousId = MDC.get(LoggingContextInterceptor.PLAYER_ID);
+
+        MDC.put(LoggingContextInterceptor.PLAYER_NAME, player.fullName());
+        putPlayerId(player);
+        try{
+            return action.get();
+        }finally{
+            restore(LoggingContextInterceptor.PLAYER_NAME, previousName);
+            restore(LoggingContextInterceptor.PLAYER_ID, previousId);
+        }
+    }
+
+    private static void putPlayerId(Player player){
+        if(player.getId() != null){
+            MDC.put(LoggingContextInterceptor.PLAYER_ID, player.getId().toString());
+        }
+    }
+
+    private static void restore(String key, String value){
+        if(value == null){
+            MDC.remove(key);
+        }else{
+            MDC.put(key, value);
+        }
+    }
+
     //throws an exception if player already has a non-deleted copy in repo.
     private void validateCreatingPlayer(Player player) throws RuntimeException{
 
-        LOGGER.info(String.format("Validating creating player %s.", player.fullName()));
+        LOGGER.info("Validating creating the player.");
 
-        List<Player> nonDeletedCopies = this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
-                player.getFirstName(), player.getLastName(), false);
+        List<Player> nonDeletedCopies = this.findNonDeletedCopies(player);
 
         if(!nonDeletedCopies.isEmpty()){
 
@@ -93,10 +299,21 @@ public class PlayerService {
     //The method shall make repo.save(entity) behave the same as EntityManager.persist(), but not EntityManager.merge().
     public Player createPlayer(Player player) throws RuntimeException {
 
+        return withPlayerContext(player,
+                () -> this.playerLocks.withLock(player, () -> this.createPlayerLocked(player)));
+    }
+
+    private Player createPlayerLocked(Player player) throws RuntimeException {
+
         this.validateCreatingPlayer(player);
 
+        this.playerCache.evict(player.getFirstName(), player.getLastName());
         Player savedPlayer = this.playerRepository.save(player);
-        LOGGER.info(String.format("Created player %s in repo.", savedPlayer.fullName()));
+        this.bumpVersion();
+        this.playerCache.put(player.getFirstName(), player.getLastName(), Collections.singletonList(savedPlayer));
+        this.playerLeaderboard.add(savedPlayer);
+        putPlayerId(savedPlayer);
+        LOGGER.info("Created the player in repo.");
 
         return savedPlayer;
     }
@@ -108,10 +325,9 @@ public class PlayerService {
      */
     private void validateDeletingPlayer(Player player) throws RuntimeException {
 
-        LOGGER.info(String.format("Validating deleting player %s.", player.fullName()));
+        LOGGER.info("Validating deleting the player.");
 
-        List<Player> nonDeletedCopies = this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
-                player.getFirstName(), player.getLastName(), false);
+        List<Player> nonDeletedCopies = this.findNonDeletedCopies(player);
         String errorMessage = null;
 
         if(nonDeletedCopies.size() > 1){
@@ -142,47 +358,81 @@ public class PlayerService {
     //Set the target player in repo as deleted. Return a message indicating if the operation succeeds or not.
     public String deletePlayer(Player player) throws RuntimeException{
 
+        return withPlayerContext(player,
+                () -> this.playerLocks.withLock(player, () -> this.deletePlayerLocked(player)));
+    }
+
+    private String deletePlayerLocked(Player player) throws RuntimeException{
+
+        this.flushBufferedRecords();
         this.validateDeletingPlayer(player);
 
-        List<Player> nonDeletedCopies = this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
-                player.getFirstName(), player.getLastName(), false);
+        List<Player> nonDeletedCopies = this.findNonDeletedCopies(player);
 
         Player playerToBeDeleted = nonDeletedCopies.get(0);
+        putPlayerId(playerToBeDeleted);
+        this.playerCache.evict(player.getFirstName(), player.getLastName());
         playerToBeDeleted.setAsDeleted();
         this.playerRepository.save(playerToBeDeleted);
+        this.bumpVersion();
+        this.playerCache.put(player.getFirstName(), player.getLastName(), Collections.emptyList());
+        this.playerLeaderboard.remove(playerToBeDeleted.getId());
 
-        String succeedingMessage = String.format("Marked player %s as deleted in repo.", player.fullName());
-        LOGGER.info(succeedingMessage);
+        LOGGER.info("Marked the player as deleted in repo.");
 
-        return succeedingMessage;
+        return String.format("Marked player %s as deleted in repo.", player.fullName());
     }
 
     //Replace an "old" player with a "new" player. Return the "new" player if succeeded; an error message if failed.
     public Player replaceOldPlayerWithNewPlayer(Player oldPlayer, Player newPlayer) throws RuntimeException{
 
+        return withPlayerContext(oldPlayer, () -> this.playerLocks.withLocks(new Player[]{oldPlayer, newPlayer},
+                () -> this.replaceOldPlayerWithNewPlayerLocked(oldPlayer, newPlayer)));
+    }
+
+    private Player replaceOldPlayerWithNewPlayerLocked(Player oldPlayer, Player newPlayer) throws RuntimeException{
+
         if(Player.haveSameData(oldPlayer, newPlayer)){
             return oldPlayer;
         }
 
+        this.flushBufferedRecords();
         this.validateDeletingPlayer(oldPlayer);
         if(!Player.haveSameFirstNameAndLastNameAllIgnoreCase(oldPlayer, newPlayer)){
-            this.validateCreatingPlayer(newPlayer);
+            withPlayerContext(newPlayer, () -> {
+                this.validateCreatingPlayer(newPlayer);
+                return null;
+            });
         }
 
+        this.playerCache.evict(oldPlayer.getFirstName(), oldPlayer.getLastName());
+        this.playerCache.evict(newPlayer.getFirstName(), newPlayer.getLastName());
         oldPlayer.setAsDeleted();
         this.playerRepository.save(oldPlayer);
+        this.bumpVersion();
+        this.playerCache.put(oldPlayer.getFirstName(), oldPlayer.getLastName(), Collections.emptyList());
 
-        Player savedNewPlayer = this.playerRepository.save(newPlayer);
-
-        LOGGER.info(String.format("Replaced player %s with player %s", oldPlayer.fullName(), newPlayer.fullName()));
+        if(oldPlayer.getId() != null){
+            this.playerLeaderboard.remove(oldPlayer.getId());
+        }
 
-        return savedNewPlayer;
+        Player savedNewPlayer = this.playerRepository.save(newPlayer);
+        this.bumpVersion();
+        this.playerCache.put(newPlayer.getFirstName(), newPlayer.getLastName(),
+                Collections.singletonList(savedNewPlayer));
+        this.playerLeaderboard.add(savedNewPlayer);
+
+        LOGGER.info("Marked the player as deleted in repo, to be replaced.");
+        return withPlayerContext(savedNewPlayer, () -> {
+            LOGGER.info("Saved the player in repo as a replacement.");
+            return savedNewPlayer;
+        });
     }
 
     //Throws an exception if player is not in one of the three cases: win, lose, or draw.
     private void validateSingleGameRecord(Player player) throws RuntimeException{
 
-        LOGGER.info(String.format("Validating the single-game record of player %s", player.fullName()));
+        LOGGER.debug("Validating the single-game record of the player.");
 
         Integer wins = player.getNumTicTacToeWin();
         Integer losses = player.getNumTicTacToeLoss();
@@ -193,22 +443,20 @@ public class PlayerService {
         if(!isRecordValid){
 
             String errorMessage = String.format("Player %s has invalid single-game record. ", player.fullName());
-            throw new RuntimeException(errorMessage);
+            throw new ValidationException(errorMessage);
         }
     }
 
     //Throws an exception if unable to merge the records of the given player and its non-deleted copy in repo.
     private void validateSavingRecord(Player player) throws RuntimeException{
 
-        LOGGER.info(String.format("Validating saving record of player %s", player.fullName()));
+        LOGGER.debug("Validating saving the record of the player.");
 
         this.validateSingleGameRecord(player);
 
-        LOGGER.info(String.format("Validating merging the records of player %s and its non-deleted copy in repo",
-                player.fullName()));
+        LOGGER.debug("Validating merging the records of the player and its non-deleted copy in repo.");
 
-        List<Player> nonDeletedCopies = this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
-                player.getFirstName(), player.getLastName(), false);
+        List<Player> nonDeletedCopies = this.findNonDeletedCopies(player);
 
         //Ensure that the player to be saved has at most one non-deleted copy in repo.
         if(nonDeletedCopies.size() > 1){
@@ -256,54 +504,273 @@ public class PlayerService {
     /**
      * Given a player with a single-game record,
      * if the player does not have any non-deleted copy in repo, save the player to repo;
-     * otherwise, merge the single-game record of the player with the existing record of the player.
+     * otherwise, add the single-game record to the existing record of the player in place, with one UPDATE statement
+     * (so concurrent records of the same player are all counted and the player keeps a single row).
+     * With write-behind, the record of an existing player is added to the leaderboard and buffered instead, without
+     * a transaction (see PlayerRecordBuffer).
      */
     public String saveRecord(Player player) throws RuntimeException{
 
+        return withPlayerContext(player, () -> this.playerLocks.withLock(player, () -> {
+
+            if(this.recordBuffer.isEnabled()){
+
+                String message = this.bufferRecord(player);
+
+                if(message != null){
+                    return message;
+                }
+            }
+
+            //The write commits before the lock is released, so the next record of the player sees it.
+            return this.transactionTemplate.execute(status -> this.writeRecord(player));
+        }));
+    }
+
+    //Buffer the record of a player who has exactly one non-deleted copy; return null if it should be written at once.
+    private String bufferRecord(Player player) throws RuntimeException{
+
+        this.validateSingleGameRecord(player);
+
+        List<Player> nonDeletedCopies = this.findNonDeletedCopies(player);
+
+        if(nonDeletedCopies.size() != 1){
+            return null;
+        }
+
+        Long id = nonDeletedCopies.get(0).getId();
+        Player rankedPlayer = this.playerLeaderboard.addRecord(id, player);
+
+        if(rankedPlayer == null){
+            return null;
+        }
+
+        this.recordBuffer.add(id, player);
+        this.bumpVersion();
+
+        putPlayerId(rankedPlayer);
+        LOGGER.info(LogMarkers.HOT_PATH, "Buffered the record of the player.");
+
+        return String.format("Saved the record of player %s.", rankedPlayer.fullName());
+    }
+
+    //Write the single-game record to the repo at once (see saveRecord()); called in a transaction.
+    private String writeRecord(Player player) throws RuntimeException{
+
         //validation
         this.validateSavingRecord(player);
 
-        //extract the single-game record
-        Integer wins = player.getNumTicTacToeWin();
-        Integer losses = player.getNumTicTacToeLoss();
-        Integer draws = player.getNumTicTacToeDraw();
-        String nickName = player.getNickName();
-
         //extract the previous record in repo.
-        List<Player> existingCopies = this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
-                player.getFirstName(), player.getLastName(), false);
+        List<Player> existingCopies = this.findNonDeletedCopies(player);
+        Player savedCopy;
+
+        this.playerCache.evict(player.getFirstName(), player.getLastName());
 
         if(!existingCopies.isEmpty()){
 
-            Player existingCopy = existingCopies.get(0);
+            Long id = existingCopies.get(0).getId();
+            int numOfUpdatedPlayers = this.playerRepository.incrementRecord(id, player.getNumTicTacToeWin(),
+                    player.getNumTicTacToeLoss(), player.getNumTicTacToeDraw(), player.getNickName());
+
+            if(numOfUpdatedPlayers != 1){
+
+                throw new RuntimeException(String.format("The record of player %s was deleted while being saved.",
+                        player.fullName()));
+            }
+
+            savedCopy = this.playerRepository.findById(id).orElseThrow(() -> new RuntimeException(
+                    String.format("The record of player %s DNE in repo.", player.fullName())));
+
+        }else{
+
+            //Store the new record in repo.
+            savedCopy = this.playerRepository.save(Player.playerBuilder().firstName(player.getFirstName())
+                    .lastName(player.getLastName()).nickName(player.getNickName())
+                    .numTicTacToeLoss(player.getNumTicTacToeLoss()).numTicTacToeWin(player.getNumTicTacToeWin())
+                    .numTicTacToeDraw(player.getNumTicTacToeDraw()).build());
+        }
+
+        this.playerCache.put(player.getFirstName(), player.getLastName(), Collections.singletonList(savedCopy));
+        this.playerLeaderboard.add(savedCopy);
+        this.bumpVersion();
+
+        putPlayerId(savedCopy);
+        LOGGER.info(LogMarkers.HOT_PATH, "Saved the record of the player.");
+
+        return String.format("Saved the record of player %s.", savedCopy.fullName());
+    }
+
+    //Single-game records (of a batch) of one player, summed up.
+    private static final class RecordSum {
+        private final Player firstRecord;
+        private final List<Integer> indexes = new ArrayList<>();
+        private long wins;
+        private long losses;
+        private long draws;
+        private String nickName = "";
+
+        private RecordSum(Player firstRecord){
+            this.firstRecord = firstRecord;
+        }
+
+        private void add(int index, Player record){
+            this.indexes.add(index);
+            this.wins += record.getNumTicTacToeWin();
+            this.losses += record.getNumTicTacToeLoss();
+            this.draws += record.getNumTicTacToeDraw();
+
+            if(this.nickName.trim().isEmpty() && record.getNickName() != null){
+                this.nickName = record.getNickName();
+            }
+        }
+
+        private Player toPlayer(Long id){
+            return Player.playerBuilder().id(id).firstName(this.firstRecord.getFirstName())
+                    .lastName(this.firstRecord.getLastName()).nickName(this.nickName)
+                    .numTicTacToeWin((int) this.wins).numTicTacToeLoss((int) this.losses)
+                    .numTicTacToeDraw((int) this.draws).build();
+        }
+    }
+
+    private static void addError(List<Map<String, Object>> errors, int index, String message){
+
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("index", index);
+        error.put("message", message);
+        errors.add(error);
+    }
+
+    /**
+     * Save a batch of single-game records (see saveRecord()) in one transaction.
+     * Records are validated one by one and summed up per player (by name, ignoring case); the sums are then added to
+     * existing players with one JDBC batch of UPDATE statements and new players are inserted with one batch of INSERTs.
+     * A record that is invalid (or whose player can't take the sum) is skipped and reported by its index in the batch.
+     * Like saveRecord(), the batch holds the locks of all its players until it commits.
+     */
+    public Map<String, Object> saveRecords(List<Player> records) throws RuntimeException{
+
+        List<Map<String, Object>> errors = new ArrayList<>();
+        Map<String, RecordSum> sums = new LinkedHashMap<>();
+
+        for(int index = 0; index < records.size(); index++){
+
+            Player record = records.get(index);
+
+            if(record == null || record.getFirstName() == null || record.getLastName() == null ||
+                    record.getNumTicTacToeWin() == null || record.getNumTicTacToeLoss() == null ||
+                    record.getNumTicTacToeDraw() == null){
+
+                addError(errors, index, "The record is malformed or incomplete.");
+                continue;
+            }
+
+            try{
+                this.validateSingleGameRecord(record);
+
+            }catch (RuntimeException exception){
+
+                addError(errors, index, exception.getMessage());
+                continue;
+            }
+
+            sums.computeIfAbsent(PlayerCache.keyOf(record.getFirstName(), record.getLastName()),
+                    key -> new RecordSum(record)).add(index, record);
+        }
+
+        Player[] players = sums.values().stream().map(sum -> sum.firstRecord).toArray(Player[]::new);
+
+        return this.playerLocks.withLocks(players, () -> {
+
+            //The sums are added to the players' records in the repo, which must have the buffered records first.
+            this.flushBufferedRecords();
+
+            return this.transactionTemplate.execute(status -> this.writeRecords(records.size(), sums, errors));
+        });
+    }
+
+    //Write the summed records of saveRecords(); called holding the locks of the players.
+    private Map<String, Object> writeRecords(int numOfRecords, Map<String, RecordSum> sums,
+                                             List<Map<String, Object>> errors) throws RuntimeException{
+
+        List<Player> increments = new ArrayList<>();
+        List<Player> newPlayers = new ArrayList<>();
+        int numOfSavedRecords = 0;
+
+        for(RecordSum sum : sums.values()){
+
+            Player player = sum.firstRecord;
+            List<Player> nonDeletedCopies = this.findNonDeletedCopies(player);
+            Player existingCopy = nonDeletedCopies.isEmpty() ? null : nonDeletedCopies.get(0);
+            String errorMessage = null;
 
-            //merge the records
-            wins += existingCopy.getNumTicTacToeWin();
-            losses += existingCopy.getNumTicTacToeLoss();
-            draws += existingCopy.getNumTicTacToeDraw();
+            if(nonDeletedCopies.size() > 1){
 
-            //Update nickName based on client's most recent request.
-            if(existingCopy.getNickName().trim().length()>0){
-                nickName = existingCopy.getNickName();
+                errorMessage = String.format("Player %s has %d (> 1) non-deleted copies in repo.",
+                        player.fullName(), nonDeletedCopies.size());
+
+            }else if((existingCopy == null ? 0 : existingCopy.getNumTicTacToeWin()) + sum.wins > Integer.MAX_VALUE ||
+                    (existingCopy == null ? 0 : existingCopy.getNumTicTacToeLoss()) + sum.losses > Integer.MAX_VALUE ||
+                    (existingCopy == null ? 0 : existingCopy.getNumTicTacToeDraw()) + sum.draws > Integer.MAX_VALUE){
+
+                errorMessage = String.format("Unable to add the records because player %s has too many (> %d) games.",
+                        player.fullName(), Integer.MAX_VALUE);
+            }
+
+            if(errorMessage != null){
+
+                for(int index : sum.indexes){
+                    addError(errors, index, errorMessage);
+                }
+                continue;
             }
 
-            //mark the previous record in repo as deleted.
-            existingCopy.setAsDeleted();
+            this.playerCache.evict(player.getFirstName(), player.getLastName());
+            numOfSavedRecords += sum.indexes.size();
 
-            this.playerRepository.save(existingCopy);
+            if(existingCopy != null){
+                increments.add(sum.toPlayer(existingCopy.getId()));
+            }else{
+                newPlayers.add(sum.toPlayer(null));
+            }
+        }
+
+        int[] numOfUpdatedRows = this.playerRepository.incrementRecords(increments);
+
+        for(int i = 0; i < numOfUpdatedRows.length; i++){
+
+            if(numOfUpdatedRows[i] == 0){
+
+                throw new RuntimeException(String.format("The record of player %s was deleted while being saved.",
+                        increments.get(i).fullName()));
+            }
+        }
+
+        List<Player> savedPlayers = new ArrayList<>(this.playerRepository.saveAll(newPlayers));
+        savedPlayers.addAll(this.playerRepository.findAllById(
+                increments.stream().map(Player::getId).collect(Collectors.toList())));
+
+        for(Player savedPlayer : savedPlayers){
+
+            this.playerCache.put(savedPlayer.getFirstName(), savedPlayer.getLastName(),
+                    Collections.singletonList(savedPlayer));
+            this.playerLeaderboard.add(savedPlayer);
+        }
 
+        if(!savedPlayers.isEmpty()){
+            this.bumpVersion();
         }
 
-        //Store the updated record in repo.
-        Player newCopy = Player.playerBuilder().firstName(player.getFirstName())
-                .lastName(player.getLastName()).nickName(nickName)
-                .numTicTacToeLoss(losses).numTicTacToeWin(wins).numTicTacToeDraw(draws).build();
+        errors.sort(Comparator.comparing(error -> (Integer) error.get("index")));
 
-        Player savedNewCopy = this.playerRepository.save(newCopy);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("numOfRecords", numOfRecords);
+        report.put("numOfSavedRecords", numOfSavedRecords);
+        report.put("numOfPlayers", savedPlayers.size());
+        report.put("errors", errors);
 
-        String message = String.format("Saved the record of player %s.", savedNewCopy.fullName());
-        LOGGER.info(message);
+        LOGGER.info("Saved {} of {} records for {} players ({} new).", numOfSavedRecords, numOfRecords,
+                savedPlayers.size(), newPlayers.size());
 
-        return message;
+        return report;
     }
 }
@@ -0,0 +1,162 @@
+package com.weixigu.boardgame.service;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.ai.NegamaxSearch;
+import com.weixigu.boardgame.ai.PerfectPlayTable;
+import com.weixigu.boardgame.ai.TranspositionTable;
+import com.weixigu.boardgame.domain.BitBoard;
+import com.weixigu.boardgame.domain.TicTacToe;
+import com.weixigu.boardgame.logging.LogMarkers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Computer opponent: finds the best reply to a TicTacToe position.
+ * Standard 3x3 positions are read from the PerfectPlayTable; other boards are searched with negamax.
+ */
+@Service("tictactoeAiService")
+public class TicTacToeAiService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+
+    //Shared by all request threads, so a position searched for one user is answered from cache for the next.
+    private final TranspositionTable table;
+    private final int fullSearchCells;
+    private final int maxDepth;
+
+    private final PerfectPlayTable perfectPlayTable;
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder perfectPlayLookups = new LongAdder();
+
+    @Autowired
+    public TicTacToeAiService(PerfectPlayTable perfectPlayTable,
+                              @Value("${tictactoe.ai.table-entries:1048576}") int tableEntries,
+                              @Value("${tictactoe.ai.full-search-cells:10}") int fullSearchCells,
+                              @Value("${tictactoe.ai.max-depth:4}") int maxDepth){
+
+        //A full search goes as deep as the number of empty cells; the transposition table records depths up to 255.
+        if(maxDepth < 1 || maxDepth > TranspositionTable.MAX_DEPTH || fullSearchCells < 0 ||
+                fullSearchCells > TranspositionTable.MAX_DEPTH){
+
+            throw new RuntimeException(String.format("Invalid AI settings: max depth 1 to %d and full-search cells " +
+                    "0 to %d expected.", TranspositionTable.MAX_DEPTH, TranspositionTable.MAX_DEPTH));
+        }
+
+        this.perfectPlayTable = perfectPlayTable;
+        this.table = new TranspositionTable(tableEntries);
+        this.fullSearchCells = fullSearchCells;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Return the entry of the position in the PerfectPlayTable, or 0 if the table doesn't cover it (not loaded yet,
+     * non-standard board, or a player to move that doesn't match the number of marks).
+     */
+    private int lookUpPerfectPlay(BitBoard bitBoard, boolean xToMove){
+
+        if(!PerfectPlayTable.supports(bitBoard.getBoardLength(), bitBoard.getWinLength())
+                || xToMove != bitBoard.isXNext()){
+            return 0;
+        }
+
+        return this.perfectPlayTable.lookup(PerfectPlayTable.codeOf(bitBoard));
+    }
+
+    //Return the move (i.e. the game after the reply of the player to move); throws a RuntimeException if game is over.
+    public TicTacToe findBestReply(TicTacToe ticTacToe) throws RuntimeException{
+
+        BitBoard bitBoard = ticTacToe.bitBoard();
+        boolean xToMove = ticTacToe.xNext();
+        int n = bitBoard.getBoardLength();
+        int bestCell;
+
+        int entry = this.lookUpPerfectPlay(bitBoard, xToMove);
+
+        if(entry != 0 && PerfectPlayTable.bestMovesOf(entry) != 0){
+
+            bestCell = Integer.numberOfTrailingZeros(PerfectPlayTable.bestMovesOf(entry));
+            this.perfectPlayLookups.increment();
+
+        }else{
+
+            NegamaxSearch search = new NegamaxSearch(this.table, this.fullSearchCells, this.maxDepth);
+            bestCell = search.findBestCell(bitBoard, xToMove);
+
+            this.searches.increment();
+            this.nodes.add(search.getNodes());
+        }
+
+        BitBoard next = bitBoard.play(bestCell / n, bestCell % n, xToMove);
+
+        LOGGER.info(LogMarkers.HOT_PATH, "Computed the reply ({}, {}) of player {}.", bestCell / n, bestCell % n,
+                xToMove ? BitBoard.PLAYER_X : BitBoard.PLAYER_O);
+
+        return TicTacToe.tictactoeBuilder().xNext(!xToMove).board(next.toCells())
+                .boardLength(n).winLength(bitBoard.getWinLength()).bitBoard(next).build();
+    }
+
+    /**
+     * Return the game-theoretic value of a standard 3x3 position for the player to move:
+     * outcome ("WIN", "DRAW" or "LOSS"), plies until the game ends with perfect play, and best moves as [row, col].
+     * Throws a RuntimeException if the position isn't covered by the PerfectPlayTable.
+     */
+    public Map<String, Object> evaluate(TicTacToe ticTacToe) throws RuntimeException{
+
+        BitBoard bitBoard = ticTacToe.bitBoard();
+        int entry = this.lookUpPerfectPlay(bitBoard, ticTacToe.xNext());
+
+        if(entry == 0){
+            throw new RuntimeException("Only legal positions of standard 3x3 Tic-Tac-Toe can be evaluated.");
+        }
+
+        this.perfectPlayLookups.increment();
+
+        int outcome = PerfectPlayTable.outcomeOf(entry);
+        int bestMoves = PerfectPlayTable.bestMovesOf(entry);
+        List<int[]> bestCells = new ArrayList<>();
+
+        for(int cell = 0; cell < bitBoard.getBoardLength() * bitBoard.getBoardLength(); cell++){
+            if((bestMoves & (1 << cell)) != 0){
+                bestCells.add(new int[]{cell / bitBoard.getBoardLength(), cell % bitBoard.getBoardLength()});
+            }
+        }
+
+        Map<String, Object> evaluation = new LinkedHashMap<>();
+        evaluation.put("outcome", outcome == PerfectPlayTable.WIN ? "WIN" : outcome == PerfectPlayTable.DRAW ? "DRAW"
+                : "LOSS");
+        evaluation.put("plies", PerfectPlayTable.pliesOf(entry));
+        evaluation.put("bestMoves", bestCells);
+
+        return evaluation;
+    }
+
+    //Return search counters for capacity planning.
+    public Map<String, Number> getStatistics(){
+
+        long probes = this.table.getProbes();
+        long hits = this.table.getHits();
+
+        Map<String, Number> statistics = new LinkedHashMap<>();
+        statistics.put("searches", this.searches.sum());
+        statistics.put("nodes", this.nodes.sum());
+        statistics.put("tableCapacity", this.table.getCapacity());
+        statistics.put("tableProbes", probes);
+        statistics.put("tableHits", hits);
+        statistics.put("tableStores", this.table.getStores());
+        statistics.put("tableHitRate", probes == 0 ? 0.0 : (double) hits / probes);
+        statistics.put("perfectPlayLookups", this.perfectPlayLookups.sum());
+
+        return statistics;
+    }
+}
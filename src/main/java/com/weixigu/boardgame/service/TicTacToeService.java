@@ -1,108 +1,390 @@
 package com.weixigu.boardgame.service;
 
 import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.domain.BitBoard;
 import com.weixigu.boardgame.domain.TicTacToe;
+import com.weixigu.boardgame.eventlog.GameEvent;
+import com.weixigu.boardgame.eventlog.GameEventLog;
+import com.weixigu.boardgame.locking.GameLocks;
+import com.weixigu.boardgame.logging.LogMarkers;
+import com.weixigu.boardgame.push.GameUpdatePublisher;
 import com.weixigu.boardgame.repo.ITicTacToeRepository;
+import com.weixigu.boardgame.validation.RequestParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import java.util.List;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-//Service provider that performs CRUD operations on TicTacToe repository.
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Service provider that performs CRUD operations on TicTacToe repository.
+ * Every lookup is scoped to one game, so its cost depends on the moves of that game only.
+ * Methods without a game identifier operate on TicTacToe.DEFAULT_GAME_ID.
+ *
+ * A move is stored as the cell it marked; every 'checkpointInterval' moves (and whenever a move can't be
+ * expressed as one new mark) the whole board is stored as well. A board is rebuilt by replaying at most
+ * checkpointInterval - 1 moves onto the nearest checkpoint.
+ *
+ * Every committed change of a game is also appended to the GameEventLog (if it is enabled) and pushed to the
+ * subscribers of the game through the GameUpdatePublisher.
+ *
+ * A change of a game (reset, save, play or revert) reads the game's last move and then writes after it, so it holds
+ * the game's striped lock (see GameLocks) and runs in a transaction that commits before the lock is released: changes
+ * of the same game run one at a time and never number two moves alike. The transaction is a TransactionTemplate (not
+ * @Transactional), so the default-game overloads, which call the gameId ones through 'this', run in it too.
+ */
 @Service("tictactoeService")
 public class TicTacToeService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
 
     private final ITicTacToeRepository repository;
+    private final int checkpointInterval;
+    private final GameEventLog eventLog;
+    private final GameUpdatePublisher updatePublisher;
+    private final GameLocks gameLocks;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public TicTacToeService(ITicTacToeRepository repository){
+    public TicTacToeService(ITicTacToeRepository repository,
+                            @Value("${tictactoe.checkpoint-interval:8}") int checkpointInterval,
+                            GameEventLog eventLog, GameUpdatePublisher updatePublisher, GameLocks gameLocks,
+                            PlatformTransactionManager transactionManager){
+
+        if(checkpointInterval < 1){
+
+            throw new RuntimeException("The checkpoint interval should be positive.");
+        }
 
         this.repository = repository;
+        this.checkpointInterval = checkpointInterval;
+        this.eventLog = eventLog;
+        this.updatePublisher = updatePublisher;
+        this.gameLocks = gameLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    // Set the field 'isCurrentGame' = true for all TicTacToe moves stored in repo.
-    public String resetGame(){
+    //Run the action once the current transaction (if any) commits, so that nobody sees a rolled-back change.
+    private static void afterCommit(Runnable action){
+
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            action.run();
+            return;
+        }
 
-        List<TicTacToe> prevMoves = this.repository.findByIsCurrentGame(true);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter(){
+            @Override
+            public void afterCommit(){
+                action.run();
+            }
+        });
+    }
 
-        if(!prevMoves.isEmpty()){
+    /**
+     * Return the result of the change of the given game, made holding the game's lock in a transaction of its own.
+     * The game id is checked first, so that no committed change fails to be logged (see GameEventLog) for its id.
+     */
+    private <T> T changeGame(String gameId, Supplier<T> change) throws RuntimeException{
 
-            for(TicTacToe move : prevMoves){
+        RequestParams.validateGameId(gameId);
 
-                move.removeFromCurrentGame();
-                this.repository.save(move);
+        return this.gameLocks.withLock(gameId, () -> this.transactionTemplate.execute(status -> change.get()));
+    }
+
+    //Log the change and push the update (a move, or a message for 'reset') to the subscribers of the game.
+    //The change is logged holding the game's lock, in order; the update is sent by the publisher's threads.
+    private void publish(GameEvent event, String updateName, Object update){
+
+        afterCommit(() -> {
+            if(this.eventLog.isEnabled()){
+                this.eventLog.append(event);
             }
+            this.updatePublisher.publishAsync(event.getGameId(), updateName, update);
+        });
+    }
+
+    //Start a new game with an empty board of the given size; return its first move (i.e. the empty board).
+    public TicTacToe createGame(int boardLength, int winLength) throws RuntimeException{
+
+        if(!BitBoard.isSupportedSize(boardLength, winLength)){
+
+            throw new RuntimeException(String.format("Unsupported board: length = %d, win length = %d.",
+                    boardLength, winLength));
         }
 
-        String message = "Reset Tic-Tac-Toe game by removing all existing moves.";
+        BitBoard emptyBoard = BitBoard.empty(boardLength, winLength);
+
+        TicTacToe savedMove = this.repository.save(TicTacToe.tictactoeBuilder().gameId(UUID.randomUUID().toString())
+                .boardLength(boardLength).winLength(winLength).checkpoint(emptyBoard.toCompactString()).build());
+        LOGGER.info("Created Tic-Tac-Toe game {}.", savedMove.getGameId());
+
+        TicTacToe firstMove = withBoard(savedMove, emptyBoard);
+        this.publish(GameEvent.board(savedMove.getGameId(), 0, emptyBoard), "move", firstMove);
+
+        return firstMove;
+    }
+
+    private static TicTacToe withBoard(TicTacToe move, BitBoard bitBoard){
+
+        return move.toBuilder().board(bitBoard.toCells()).bitBoard(bitBoard).build();
+    }
+
+    //Return the stored move with its board rebuilt from the nearest checkpoint and the moves after it.
+    private TicTacToe rebuild(TicTacToe move) throws RuntimeException{
+
+        TicTacToe checkpoint = move.hasCheckpoint() ? move : this.repository
+                .findFirstByGameIdAndIsCurrentGameAndCheckpointIsNotNullAndMoveNumberLessThanEqualOrderByMoveNumberDesc(
+                        move.getGameId(), move.isCurrentGame(), move.getMoveNumber())
+                .orElseThrow(() -> new RuntimeException(String.format(
+                        "Move #%d of Tic-Tac-Toe game %s has no checkpoint.", move.getMoveNumber(), move.getGameId())));
+
+        int boardLength = move.getBoardLength();
+        BitBoard bitBoard = BitBoard.fromCompactString(checkpoint.getCheckpoint(), boardLength, move.getWinLength());
+
+        if(checkpoint.getMoveNumber() < move.getMoveNumber()){
+
+            List<TicTacToe> deltas = this.repository.findByGameIdAndIsCurrentGameAndMoveNumberBetweenOrderByMoveNumber(
+                    move.getGameId(), move.isCurrentGame(), checkpoint.getMoveNumber() + 1, move.getMoveNumber());
+
+            for(TicTacToe delta : deltas){
+                bitBoard = bitBoard.play(delta.getCell() / boardLength, delta.getCell() % boardLength,
+                        BitBoard.PLAYER_X.equals(delta.getCellMark()));
+            }
+        }
+
+        return withBoard(move, bitBoard);
+    }
+
+    public String resetGame(){
+
+        return this.resetGame(TicTacToe.DEFAULT_GAME_ID);
+    }
+
+    // Set the field 'isCurrentGame' = false for all the moves of the given game.
+    public String resetGame(String gameId){
+
+        return this.changeGame(gameId, () -> this.resetGameLocked(gameId));
+    }
+
+    private String resetGameLocked(String gameId){
+
+        int numOfMoves = this.repository.removeAllFromCurrentGame(gameId, System.currentTimeMillis());
+
+        String message = String.format("Reset Tic-Tac-Toe game %s by removing all %d existing moves.",
+                gameId, numOfMoves);
         LOGGER.info(message);
 
+        Map<String, Object> update = new LinkedHashMap<>();
+        update.put("gameId", gameId);
+        update.put("message", message);
+        this.publish(GameEvent.reset(gameId), "reset", update);
+
         return message;
     }
 
-    //Return ticTacToe if successfully saved it to repo; otherwise, return a string type error message.
     public TicTacToe saveMove(TicTacToe ticTacToe) throws RuntimeException{
 
+        return this.saveMove(ticTacToe.getGameId(), ticTacToe);
+    }
+
+    //Return the move if successfully saved it as the next move of the given game; otherwise, throw an exception.
+    public TicTacToe saveMove(String gameId, TicTacToe ticTacToe) throws RuntimeException{
+
+        return this.changeGame(gameId, () -> this.saveMoveLocked(gameId, ticTacToe));
+    }
+
+    private TicTacToe saveMoveLocked(String gameId, TicTacToe ticTacToe) throws RuntimeException{
+
         if(!ticTacToe.isCurrentGame()){
 
             throw new RuntimeException("The move (to be saved) is NOT of current game.");
         }
 
-        TicTacToe savedMove = this.repository.save(ticTacToe);
-        LOGGER.info("Saved a move made in Tic-Tac-Toe.");
+        Optional<TicTacToe> lastMove = this.repository.findFirstByGameIdAndIsCurrentGameOrderByMoveNumberDesc(
+                gameId, true);
+
+        if(lastMove.isPresent() && (lastMove.get().getBoardLength() != ticTacToe.getBoardLength() ||
+                lastMove.get().getWinLength() != ticTacToe.getWinLength())){
+
+            throw new RuntimeException(String.format("The move (to be saved) doesn't match the board of game %s.",
+                    gameId));
+        }
+
+        if(!lastMove.isPresent()){
 
-        return savedMove;
+            //Only the default game starts with its first saved move; any other game is started by createGame.
+            if(!TicTacToe.DEFAULT_GAME_ID.equals(gameId) && !this.repository.existsByGameId(gameId)){
+
+                throw new GameNotFoundException(gameId);
+            }
+
+            return this.saveNextMove(gameId, -1, ticTacToe.xNext(), -1, ticTacToe.bitBoard());
+        }
+
+        //Play the mark found by diffing the cells against the last board, so only its lines are checked for a win.
+        BitBoard lastBoard = this.rebuild(lastMove.get()).bitBoard();
+        int cell = lastBoard.findAddedCell(ticTacToe.getBoard());
+        int boardLength = lastBoard.getBoardLength();
+        BitBoard nextBoard = cell < 0 ? ticTacToe.bitBoard() : lastBoard.play(cell / boardLength, cell % boardLength,
+                BitBoard.PLAYER_X.equals(ticTacToe.getBoard()[cell / boardLength][cell % boardLength]));
+
+        return this.saveNextMove(gameId, lastMove.get().getMoveNumber(), ticTacToe.xNext(), cell, nextBoard);
     }
 
-    //Throws a RuntimeException if the given index of a move in Tic-Tac-Toe is invalid.
-    private void validateIndexOfMove(int indexOfMove) throws RuntimeException{
+    //Return the row of the move that marked 'cell' (-1 if unknown): the cell, and the whole board if it's a checkpoint.
+    private TicTacToe toStoredMove(String gameId, int moveNumber, boolean xNext, int cell, BitBoard board){
 
-        if(indexOfMove < 0){
+        boolean isCheckpoint = cell < 0 || moveNumber % this.checkpointInterval == 0;
 
-            throw new RuntimeException(String.format("The index %d of the target move is negative.", indexOfMove));
+        return TicTacToe.tictactoeBuilder().gameId(gameId).moveNumber(moveNumber).xNext(xNext)
+                .boardLength(board.getBoardLength()).winLength(board.getWinLength())
+                .cell(cell).cellMark(cell < 0 ? null : board.getMark(cell / board.getBoardLength(),
+                        cell % board.getBoardLength()))
+                .checkpoint(isCheckpoint ? board.toCompactString() : null).build();
+    }
+
+    //Save the board as the move after 'lastMoveNumber' (-1 for none) that marked 'cell' (-1 if unknown).
+    private TicTacToe saveNextMove(String gameId, int lastMoveNumber, boolean xNext, int cell, BitBoard nextBoard){
+
+        int moveNumber = lastMoveNumber + 1;
+        TicTacToe savedMove = this.repository.save(this.toStoredMove(gameId, moveNumber, xNext, cell, nextBoard));
+        LOGGER.info(LogMarkers.HOT_PATH, "Saved move #{} made in Tic-Tac-Toe game {}.", moveNumber, gameId);
+
+        TicTacToe move = withBoard(savedMove, nextBoard);
+        this.publish(cell < 0 ? GameEvent.board(gameId, moveNumber, nextBoard) :
+                GameEvent.move(gameId, moveNumber, nextBoard, cell), "move", move);
+
+        return move;
+    }
+
+    /**
+     * Store the boards of the current moves of the given game (e.g. replayed from the GameEventLog after a restart)
+     * unless the game already has moves; they are neither logged nor pushed again. Return the number of stored moves.
+     */
+    public int restoreGame(String gameId, List<BitBoard> boards) throws RuntimeException{
+
+        return this.changeGame(gameId, () -> {
+
+            if(boards.isEmpty() || this.repository.existsByGameId(gameId)){
+                return 0;
+            }
+
+            List<TicTacToe> moves = new ArrayList<>();
+
+            for(int moveNumber = 0; moveNumber < boards.size(); moveNumber++){
+                BitBoard board = boards.get(moveNumber);
+                int cell = moveNumber == 0 ? -1 : boards.get(moveNumber - 1).findAddedCell(board.toCells());
+                moves.add(this.toStoredMove(gameId, moveNumber, board.isXNext(), cell, board));
+            }
+
+            this.repository.saveAll(moves);
+            LOGGER.info("Restored {} moves of Tic-Tac-Toe game {}.", moves.size(), gameId);
+
+            return moves.size();
+        });
+    }
+
+    public TicTacToe playMove(int row, int col) throws RuntimeException{
+
+        return this.playMove(TicTacToe.DEFAULT_GAME_ID, row, col);
+    }
+
+    //Mark the given cell for the player to move in the given game and save the resulting board as the next move.
+    public TicTacToe playMove(String gameId, int row, int col) throws RuntimeException{
+
+        return this.changeGame(gameId, () -> this.playMoveLocked(gameId, row, col));
+    }
+
+    private TicTacToe playMoveLocked(String gameId, int row, int col) throws RuntimeException{
+
+        TicTacToe lastMove = this.viewLastMove(gameId);
+        BitBoard lastBoard = lastMove.bitBoard();
+
+        if(lastBoard.getWinner() != null || !lastBoard.isLegalMove(row, col)){
+
+            throw new RuntimeException(String.format("The move (%d, %d) is NOT legal in Tic-Tac-Toe game %s.",
+                    row, col, gameId));
         }
 
-        List<TicTacToe> currentGame = this.repository.findByIsCurrentGame(true);
+        BitBoard nextBoard = lastBoard.play(row, col, lastMove.xNext());
+
+        return this.saveNextMove(gameId, lastMove.getMoveNumber(), !lastMove.xNext(),
+                row * lastBoard.getBoardLength() + col, nextBoard);
+    }
 
-        if(indexOfMove > currentGame.size()-1){
+    //Return the move of the given index in the given game; throws a RuntimeException if the index is invalid.
+    private TicTacToe findMove(String gameId, int indexOfMove) throws RuntimeException{
 
-            throw new RuntimeException(String.format("The index %d of the target move is too large.", indexOfMove));
+        if(indexOfMove < 0){
+
+            throw new RuntimeException(String.format("The index %d of the target move is negative.", indexOfMove));
         }
+
+        return this.repository.findByGameIdAndIsCurrentGameAndMoveNumber(gameId, true, indexOfMove)
+                .orElseThrow(() -> new RuntimeException(
+                        String.format("The index %d of the target move is too large.", indexOfMove)));
     }
 
-    //Retrieve a move of the given index in the current TicTacToe game without reverting the game to this move.
     public TicTacToe viewPrevMove(int indexOfMove) throws RuntimeException {
 
-        this.validateIndexOfMove(indexOfMove);
+        return this.viewPrevMove(TicTacToe.DEFAULT_GAME_ID, indexOfMove);
+    }
+
+    //Retrieve a move of the given index in the given game without reverting the game to this move.
+    public TicTacToe viewPrevMove(String gameId, int indexOfMove) throws RuntimeException {
 
-        List<TicTacToe> currentGame = this.repository.findByIsCurrentGame(true);
-        TicTacToe move = currentGame.get(indexOfMove);
+        TicTacToe move = this.rebuild(this.findMove(gameId, indexOfMove));
 
-        LOGGER.info(String.format("Retrieved Tic Tac Toe move #%d", indexOfMove));
+        LOGGER.info(LogMarkers.HOT_PATH, "Retrieved Tic Tac Toe move #{} of game {}", indexOfMove, gameId);
+
+        return move;
+    }
+
+    //Return the latest move of the given game; throws a GameNotFoundException if the game has no current move.
+    public TicTacToe viewLastMove(String gameId) throws RuntimeException{
+
+        TicTacToe move = this.rebuild(this.repository.findFirstByGameIdAndIsCurrentGameOrderByMoveNumberDesc(gameId, true)
+                .orElseThrow(() -> new GameNotFoundException(gameId)));
+
+        LOGGER.info(LogMarkers.HOT_PATH, "Retrieved the last Tic Tac Toe move of game {}", gameId);
 
         return move;
     }
 
-    //Reverts the current TicTacToe game to a previous move that is of the given index; return the move if succeeded.
     public TicTacToe revertToPrevMove(int indexOfMove) throws RuntimeException{
 
-        this.validateIndexOfMove(indexOfMove);
+        return this.revertToPrevMove(TicTacToe.DEFAULT_GAME_ID, indexOfMove);
+    }
+
+    //Reverts the given game to a previous move that is of the given index; return the move if succeeded.
+    public TicTacToe revertToPrevMove(String gameId, int indexOfMove) throws RuntimeException{
 
-        List<TicTacToe> currentGame = this.repository.findByIsCurrentGame(true);
+        return this.changeGame(gameId, () -> this.revertToPrevMoveLocked(gameId, indexOfMove));
+    }
+
+    private TicTacToe revertToPrevMoveLocked(String gameId, int indexOfMove) throws RuntimeException{
 
-        TicTacToe newLastMove = currentGame.get(indexOfMove);
+        TicTacToe newLastMove = this.rebuild(this.findMove(gameId, indexOfMove));
 
         //Set all the moves made after the target move as invalid.
-        for(int i = indexOfMove+1; i < currentGame.size(); i++){
-            TicTacToe move = currentGame.get(i);
-            move.removeFromCurrentGame();
-            this.repository.save(move);
-        }
+        int numOfUndoneMoves = this.repository.removeFromCurrentGameAfter(gameId, indexOfMove,
+                System.currentTimeMillis());
 
-        LOGGER.info(String.format("Reverted Tic-Tac-Toe to move #%d", indexOfMove));
+        LOGGER.info("Reverted Tic-Tac-Toe game {} to move #{} by undoing {} moves", gameId, indexOfMove,
+                numOfUndoneMoves);
+        this.publish(GameEvent.revert(gameId, indexOfMove), "revert", newLastMove);
 
         return newLastMove;
     }
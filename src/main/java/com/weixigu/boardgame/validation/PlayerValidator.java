@@ -5,10 +5,12 @@ import com.weixigu.boardgame.domain.Player;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.validation.Errors;
-import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
 
-//Spring Validator API that validates Player instances.
+/**
+ * Spring Validator API that validates Player instances.
+ * Stateless and thread-safe; isValid(player) checks a player without allocating an Errors object.
+ */
 public class PlayerValidator implements Validator {
     private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
 
@@ -20,51 +22,90 @@ public class PlayerValidator implements Validator {
     @Override
     public void validate(Object target, Errors errors){
 
-        LOGGER.info("Calling (Spring Validation API) PlayerValidator to validate Player.");
+        LOGGER.debug("Calling (Spring Validation API) PlayerValidator to validate Player.");
 
-        Player player = (Player) target;
+        check((Player) target, errors);
+    }
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "firstName", "field.required");
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "lastName", "field.required");
+    public boolean isValid(Player player){
+        return check(player, null);
+    }
 
-        ValidationUtils.rejectIfEmpty(errors, "numTicTacToeLoss", "field.required");
-        ValidationUtils.rejectIfEmpty(errors, "numTicTacToeWin", "field.required");
-        ValidationUtils.rejectIfEmpty(errors, "score", "field.required");
+    private static boolean isBlank(String value){
+        return value == null || value.trim().isEmpty();
+    }
 
+    private static boolean isUntrimmed(String value){
+        int length = value.length();
+        return length > 0 && (value.charAt(0) <= ' ' || value.charAt(length - 1) <= ' ');
+    }
+
+    //Return true if the player is valid; otherwise, reject its invalid fields in 'errors' (if given) and return false.
+    private static boolean check(Player player, Errors errors){
+
+        boolean isValid = true;
         String firstName = player.getFirstName();
+        String lastName = player.getLastName();
+        String nickName = player.getNickName();
+        Integer losses = player.getNumTicTacToeLoss();
+        Integer wins = player.getNumTicTacToeWin();
+        Integer score = wins == null || losses == null ? null : player.getScore();
 
-        if(firstName.trim().length() != firstName.length()){
-            errors.rejectValue("firstName", "untrimmed.string");
+        if(isBlank(firstName)){
+            isValid = reject(errors, "firstName", "field.required");
         }
 
-        String lastName = player.getLastName();
+        if(isBlank(lastName)){
+            isValid = reject(errors, "lastName", "field.required");
+        }
 
-        if(lastName.trim().length() != lastName.length()){
-            errors.rejectValue("lastName", "untrimmed.string");
+        if(losses == null){
+            isValid = reject(errors, "numTicTacToeLoss", "field.required");
         }
 
-        String nickName = player.getNickName();
+        if(wins == null){
+            isValid = reject(errors, "numTicTacToeWin", "field.required");
+        }
 
-        if(nickName != null && (nickName.trim().length() != nickName.length())){
-            errors.rejectValue("nickName", "untrimmed.string");
+        if(score == null){
+            isValid = reject(errors, "score", "field.required");
         }
 
-        Integer losses = player.getNumTicTacToeLoss();
+        if(!isValid && errors == null){
+            return false;
+        }
 
-        if(losses < 0){
-            errors.rejectValue("numTicTacToeLoss", "negative.value");
+        if(firstName != null && isUntrimmed(firstName)){
+            isValid = reject(errors, "firstName", "untrimmed.string");
         }
 
-        Integer wins = player.getNumTicTacToeWin();
+        if(lastName != null && isUntrimmed(lastName)){
+            isValid = reject(errors, "lastName", "untrimmed.string");
+        }
+
+        if(nickName != null && isUntrimmed(nickName)){
+            isValid = reject(errors, "nickName", "untrimmed.string");
+        }
+
+        if(losses != null && losses < 0){
+            isValid = reject(errors, "numTicTacToeLoss", "negative.value");
+        }
 
-        if(wins < 0){
-            errors.rejectValue("numTicTacToeWin", "negative.value");
+        if(wins != null && wins < 0){
+            isValid = reject(errors, "numTicTacToeWin", "negative.value");
         }
 
-        Integer score = player.getScore();
+        if(score != null && score != wins - losses){
+            isValid = reject(errors, "score", "wrong.value");
+        }
+
+        return isValid;
+    }
 
-        if(!score.equals(wins - losses)){
-            errors.rejectValue("score", "wrong.value");
+    private static boolean reject(Errors errors, String field, String errorCode){
+        if(errors != null){
+            errors.rejectValue(field, errorCode);
         }
+        return false;
     }
 }
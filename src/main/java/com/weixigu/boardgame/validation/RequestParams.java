@@ -0,0 +1,83 @@
+package com.weixigu.boardgame.validation;
+
+import com.weixigu.boardgame.domain.TicTacToe;
+
+//Parsing of request params without regular expressions or intermediate objects.
+public final class RequestParams {
+
+    private RequestParams(){
+    }
+
+    //Return true if the value has 1 to maxDigits characters, all of them digits.
+    public static boolean isDigits(String value, int maxDigits){
+
+        int length = value.length();
+
+        if(length == 0 || length > maxDigits){
+            return false;
+        }
+
+        for(int i = 0; i < length; i++){
+            char c = value.charAt(i);
+
+            if(c < '0' || c > '9'){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Return the value of request param 'name', which should be digits only and at most Integer.MAX_VALUE.
+    public static int parseNonNegativeInt(String value, String name) throws ValidationException{
+
+        if(!isDigits(value, Integer.MAX_VALUE)){
+
+            throw new ValidationException(String.format("Request param '%s' should be digits only: %s", name, value));
+        }
+
+        long number = 0;
+
+        for(int i = 0; i < value.length(); i++){
+            number = number * 10 + (value.charAt(i) - '0');
+
+            if(number > Integer.MAX_VALUE){
+
+                throw new ValidationException(String.format("Request param '%s' is too large (> %d): %s.", name,
+                        Integer.MAX_VALUE, value));
+            }
+        }
+
+        return (int) number;
+    }
+
+    //Throw a ValidationException unless the game id (e.g. the path variable 'gameId') is valid (see TicTacToe).
+    public static void validateGameId(String gameId) throws ValidationException{
+
+        if(!TicTacToe.isValidGameId(gameId)){
+
+            throw new ValidationException(String.format("Game id should be 1 to %d letters, digits, '-' or '_': %s",
+                    TicTacToe.MAX_GAME_ID_LENGTH, gameId));
+        }
+    }
+
+    //Return true if the If-None-Match header value is '*' or lists the ETag (a weak tag matches its strong form).
+    public static boolean matchesETag(String ifNoneMatch, String eTag){
+
+        if(ifNoneMatch == null){
+            return false;
+        }
+
+        for(String tag : ifNoneMatch.split(",")){
+            tag = tag.trim();
+
+            if(tag.startsWith("W/")){
+                tag = tag.substring(2);
+            }
+
+            if(tag.equals("*") || tag.equals(eTag)){
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,21 +1,16 @@
 package com.weixigu.boardgame.validation;
 
 import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.domain.BitBoard;
 import com.weixigu.boardgame.domain.TicTacToe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.validation.Errors;
-import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
-
-//Spring Validation API that validates TicTacToe instances.
+//Spring Validation API that validates TicTacToe instances; stateless and thread-safe.
 public class TicTacToeValidator implements Validator {
     private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
-    private static final Set<String> PLAYERS = new HashSet<>(Arrays.asList("X", "O"));
 
     @Override
     public boolean supports(Class<?> clazz){
@@ -24,29 +19,55 @@ public class TicTacToeValidator implements Validator {
 
     @Override
     public void validate(Object target, Errors errors){
-        LOGGER.info("Calling (Spring Validation API) TicTacToeValidator to validate TicTacToe.");
+        LOGGER.debug("Calling (Spring Validation API) TicTacToeValidator to validate TicTacToe.");
 
         TicTacToe ticTacToe = (TicTacToe) target;
+        String[][] board = ticTacToe.getBoard();
 
-        ValidationUtils.rejectIfEmpty(errors, "board", "field.required");
+        if(board == null){
+            errors.rejectValue("board", "field.required");
+            return;
+        }
 
-        String[][] board = ticTacToe.getBoard();
+        int boardLength = ticTacToe.getBoardLength();
 
-        if(board.length != TicTacToe.BOARD_LENGTH){
-            errors.rejectValue("board", "wrong.size");
+        if(boardLength < TicTacToe.MIN_BOARD_LENGTH || boardLength > TicTacToe.MAX_BOARD_LENGTH){
+            errors.rejectValue("boardLength", "out.of.range");
+        }
+
+        int winLength = ticTacToe.getWinLength();
+
+        if(winLength < TicTacToe.MIN_WIN_LENGTH || winLength > boardLength){
+            errors.rejectValue("winLength", "out.of.range");
+        }
+
+        //One pass over the rows: a missing row or a row of the wrong length is a wrong size, reported once.
+        boolean isWrongSize = board.length != boardLength;
+        boolean hasInvalidValue = false;
+
+        for(String[] row : board){
+            if(row == null){
+                isWrongSize = true;
+                continue;
+            }
 
-        }else{
-            for(String[] row : board){
-                if(row.length != TicTacToe.BOARD_LENGTH){
-                    errors.rejectValue("board", "wrong.size");
-                }
+            if(row.length != boardLength){
+                isWrongSize = true;
+            }
+
+            //The bit board only knows "X" and "O"; any other mark would be silently dropped, so reject it here.
+            for(int i = 0; i < row.length && !hasInvalidValue; i++){
+                String cell = row[i];
+                hasInvalidValue = cell != null && !BitBoard.PLAYER_X.equals(cell) && !BitBoard.PLAYER_O.equals(cell);
             }
         }
 
-        String winner = ticTacToe.getWinner();
+        if(isWrongSize){
+            errors.rejectValue("board", "wrong.size");
+        }
 
-        if(winner != null && !PLAYERS.contains(winner)){
-            errors.rejectValue("winner", "invalid.value");
+        if(hasInvalidValue){
+            errors.rejectValue("board", "invalid.value");
         }
     }
 }
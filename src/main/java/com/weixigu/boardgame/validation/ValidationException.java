@@ -0,0 +1,12 @@
+package com.weixigu.boardgame.validation;
+
+/**
+ * RuntimeException for malformed requests. A malformed request is an expected outcome that is reported by its
+ * message only, so the exception has no stack trace (nor suppressed exceptions) and costs little to create.
+ */
+public class ValidationException extends RuntimeException {
+
+    public ValidationException(String message){
+        super(message, null, false, false);
+    }
+}
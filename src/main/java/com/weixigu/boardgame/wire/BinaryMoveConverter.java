@@ -0,0 +1,44 @@
+package com.weixigu.boardgame.wire;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+
+//Reads and writes a Move as TicTacToeMediaTypes.MOVE_BINARY: the 2 bytes row, col.
+public class BinaryMoveConverter extends AbstractHttpMessageConverter<Move> {
+
+    public BinaryMoveConverter(){
+        super(TicTacToeMediaTypes.MOVE_BINARY);
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz){
+        return Move.class.equals(clazz);
+    }
+
+    @Override
+    @NonNull
+    protected Move readInternal(@NonNull Class<? extends Move> clazz, @NonNull HttpInputMessage inputMessage)
+            throws IOException{
+
+        byte[] bytes = StreamUtils.copyToByteArray(inputMessage.getBody());
+
+        if(bytes.length != 2){
+            throw new HttpMessageNotReadableException("A binary move should have 2 bytes: row, col.", inputMessage);
+        }
+
+        return new Move(bytes[0], bytes[1]);
+    }
+
+    @Override
+    protected void writeInternal(@NonNull Move move, @NonNull HttpOutputMessage outputMessage) throws IOException{
+
+        outputMessage.getHeaders().setContentLength(2);
+        outputMessage.getBody().write(new byte[]{(byte) move.getRow(), (byte) move.getCol()});
+    }
+}
@@ -0,0 +1,75 @@
+package com.weixigu.boardgame.wire;
+
+import com.weixigu.boardgame.domain.BitBoard;
+import com.weixigu.boardgame.domain.TicTacToe;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+//Reads and writes TicTacToe moves as TicTacToeMediaTypes.BOARD_BINARY, e.g. 10 bytes for a 3x3 board.
+public class BinaryTicTacToeConverter extends AbstractHttpMessageConverter<TicTacToe> {
+
+    private static final int HEADER_SIZE = 7;
+    private static final int X_NEXT = 1;
+
+    public BinaryTicTacToeConverter(){
+        super(TicTacToeMediaTypes.BOARD_BINARY);
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz){
+        return TicTacToe.class.equals(clazz);
+    }
+
+    @Override
+    @NonNull
+    protected TicTacToe readInternal(@NonNull Class<? extends TicTacToe> clazz, @NonNull HttpInputMessage inputMessage)
+            throws IOException{
+
+        byte[] bytes = StreamUtils.copyToByteArray(inputMessage.getBody());
+
+        if(bytes.length < HEADER_SIZE){
+            throw new HttpMessageNotReadableException(String.format(
+                    "A binary Tic-Tac-Toe move should have at least %d bytes.", HEADER_SIZE), inputMessage);
+        }
+
+        int boardLength = bytes[0];
+        int winLength = bytes[1];
+        BitBoard board;
+
+        try{
+            board = BitBoard.fromPackedBytes(bytes, HEADER_SIZE, boardLength, winLength);
+
+        }catch (RuntimeException exception){
+
+            throw new HttpMessageNotReadableException(exception.getMessage(), exception, inputMessage);
+        }
+
+        return TicTacToe.tictactoeBuilder().xNext((bytes[2] & X_NEXT) != 0).boardLength(boardLength)
+                .winLength(winLength).board(board.toCells()).bitBoard(board).build();
+    }
+
+    @Override
+    protected void writeInternal(@NonNull TicTacToe ticTacToe, @NonNull HttpOutputMessage outputMessage)
+            throws IOException{
+
+        BitBoard board = ticTacToe.bitBoard();
+        String winner = board.getWinner();
+        int flags = (ticTacToe.xNext() ? X_NEXT : 0) |
+                (BitBoard.PLAYER_X.equals(winner) ? 1 : BitBoard.PLAYER_O.equals(winner) ? 2 : 0) << 1;
+
+        byte[] packedBoard = board.toPackedBytes();
+        ByteBuffer bytes = ByteBuffer.allocate(HEADER_SIZE + packedBoard.length);
+        bytes.put((byte) ticTacToe.getBoardLength()).put((byte) ticTacToe.getWinLength()).put((byte) flags)
+                .putInt(ticTacToe.getMoveNumber()).put(packedBoard);
+
+        outputMessage.getHeaders().setContentLength(bytes.capacity());
+        outputMessage.getBody().write(bytes.array());
+    }
+}
@@ -0,0 +1,75 @@
+package com.weixigu.boardgame.wire;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.weixigu.boardgame.domain.BitBoard;
+import com.weixigu.boardgame.domain.TicTacToe;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+
+//Reads and writes TicTacToe moves as TicTacToeMediaTypes.BOARD_COMPACT.
+public class CompactTicTacToeConverter extends AbstractHttpMessageConverter<TicTacToe> {
+
+    private final ObjectMapper objectMapper;
+
+    public CompactTicTacToeConverter(ObjectMapper objectMapper){
+        super(TicTacToeMediaTypes.BOARD_COMPACT);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz){
+        return TicTacToe.class.equals(clazz);
+    }
+
+    @Override
+    @NonNull
+    protected TicTacToe readInternal(@NonNull Class<? extends TicTacToe> clazz, @NonNull HttpInputMessage inputMessage)
+            throws IOException{
+
+        JsonNode node = this.objectMapper.readTree(inputMessage.getBody());
+
+        if(node == null || !node.path("board").isTextual()){
+            throw new HttpMessageNotReadableException("A compact Tic-Tac-Toe move should have a 'board' string.",
+                    inputMessage);
+        }
+
+        int boardLength = node.path("boardLength").asInt(TicTacToe.DEFAULT_BOARD_LENGTH);
+        int winLength = node.path("winLength").asInt(TicTacToe.DEFAULT_WIN_LENGTH);
+        BitBoard board;
+
+        try{
+            board = BitBoard.fromCompactString(node.get("board").asText(), boardLength, winLength);
+
+        }catch (RuntimeException exception){
+
+            throw new HttpMessageNotReadableException(exception.getMessage(), exception, inputMessage);
+        }
+
+        return TicTacToe.tictactoeBuilder().gameId(node.path("gameId").asText(TicTacToe.DEFAULT_GAME_ID))
+                .xNext(node.path("xNext").asBoolean(board.isXNext())).boardLength(boardLength).winLength(winLength)
+                .board(board.toCells()).bitBoard(board).build();
+    }
+
+    @Override
+    protected void writeInternal(@NonNull TicTacToe ticTacToe, @NonNull HttpOutputMessage outputMessage)
+            throws IOException{
+
+        ObjectNode node = this.objectMapper.createObjectNode();
+        node.put("gameId", ticTacToe.getGameId());
+        node.put("moveNumber", ticTacToe.getMoveNumber());
+        node.put("boardLength", ticTacToe.getBoardLength());
+        node.put("winLength", ticTacToe.getWinLength());
+        node.put("xNext", ticTacToe.xNext());
+        node.put("winner", ticTacToe.getWinner());
+        node.put("board", ticTacToe.bitBoard().toCompactString());
+
+        this.objectMapper.writeValue(outputMessage.getBody(), node);
+    }
+}
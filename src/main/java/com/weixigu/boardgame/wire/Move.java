@@ -0,0 +1,20 @@
+package com.weixigu.boardgame.wire;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+//A single move (the cell marked by the player to move) sent instead of the whole board.
+@Getter
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@AllArgsConstructor
+public class Move {
+
+    @JsonProperty("row")
+    private int row;
+
+    @JsonProperty("col")
+    private int col;
+}
@@ -0,0 +1,28 @@
+package com.weixigu.boardgame.wire;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Compact wire formats of Tic-Tac-Toe moves, negotiated with the 'Accept' and 'Content-Type' headers
+ * (JSON with a String[][] board stays the default):
+ *
+ * BOARD_COMPACT: JSON whose 'board' is one character per cell in row-major order, 'X', 'O' or '-'
+ * (see BitBoard.toCompactString()), e.g. {"boardLength":3,"winLength":3,"xNext":false,"board":"X--------"}.
+ * BOARD_BINARY: boardLength, winLength and flags (bit 0: xNext; bits 1-2: winner, 1 = X, 2 = O) as one byte each,
+ * the move number as a 4-byte int, then the board packed 2 bits per cell (see BitBoard.toPackedBytes()).
+ * MOVE_JSON / MOVE_BINARY: a single move on the last board of a game, {"row":1,"col":1} or the 2 bytes row, col.
+ */
+public final class TicTacToeMediaTypes {
+
+    public static final String BOARD_COMPACT_VALUE = "application/vnd.tictactoe.compact";
+    public static final String BOARD_BINARY_VALUE = "application/vnd.tictactoe.binary";
+    public static final String MOVE_JSON_VALUE = "application/vnd.tictactoe.move+json";
+    public static final String MOVE_BINARY_VALUE = "application/vnd.tictactoe.move.binary";
+
+    public static final MediaType BOARD_COMPACT = MediaType.valueOf(BOARD_COMPACT_VALUE);
+    public static final MediaType BOARD_BINARY = MediaType.valueOf(BOARD_BINARY_VALUE);
+    public static final MediaType MOVE_BINARY = MediaType.valueOf(MOVE_BINARY_VALUE);
+
+    private TicTacToeMediaTypes(){
+    }
+}
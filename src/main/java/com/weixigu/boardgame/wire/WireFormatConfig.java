@@ -0,0 +1,31 @@
+package com.weixigu.boardgame.wire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Registers the converters of the compact wire formats (see TicTacToeMediaTypes). They are added after the default
+ * converters, so that JSON stays the format of requests that accept any media type.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public WireFormatConfig(ObjectMapper objectMapper){
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters){
+        converters.add(new CompactTicTacToeConverter(this.objectMapper));
+        converters.add(new BinaryTicTacToeConverter());
+        converters.add(new BinaryMoveConverter());
+    }
+}
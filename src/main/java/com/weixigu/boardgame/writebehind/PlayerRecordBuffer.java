@@ -0,0 +1,314 @@
+package com.weixigu.boardgame.writebehind;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.cache.PlayerCache;
+import com.weixigu.boardgame.domain.Player;
+import com.weixigu.boardgame.repo.IPlayerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind of single-game records of existing players: the records are summed per player (by id) in
+ * LongAdders and written to the repo in one transaction (one JDBC batch of UPDATEs, see incrementRecords()) once
+ * 'max-records' records are buffered or every 'flush-interval-ms', and when the application shuts down.
+ *
+ * A flush commits in a transaction of its own, so that the records don't depend on the caller's transaction.
+ * It swaps in an empty buffer while holding the write side of a lock that adding a record holds the read side of,
+ * so that no record is added to a buffer that is being written. If the write fails, the records go back to the buffer.
+ *
+ * No buffered sum of a player is let exceed Integer.MAX_VALUE: a record that would make it do so is added only after
+ * the buffer is flushed, and a flush writes at most Integer.MAX_VALUE games of each kind per player, leaving the rest
+ * buffered for the next flush.
+ */
+@Component
+public class PlayerRecordBuffer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+
+    //Buffered records of one player.
+    private static final class Increment {
+        private final String firstName;
+        private final String lastName;
+        private final LongAdder wins = new LongAdder();
+        private final LongAdder losses = new LongAdder();
+        private final LongAdder draws = new LongAdder();
+        private volatile String nickName = "";
+
+        private Increment(String firstName, String lastName){
+            this.firstName = firstName;
+            this.lastName = lastName;
+        }
+
+        private void add(long wins, long losses, long draws, String nickName){
+            this.wins.add(wins);
+            this.losses.add(losses);
+            this.draws.add(draws);
+
+            if(nickName != null && !nickName.trim().isEmpty()){
+                this.nickName = nickName;
+            }
+        }
+
+        //Whether adding the given counts keeps every sum within an int.
+        private boolean fits(long wins, long losses, long draws){
+            return this.wins.sum() + wins <= Integer.MAX_VALUE && this.losses.sum() + losses <= Integer.MAX_VALUE &&
+                    this.draws.sum() + draws <= Integer.MAX_VALUE;
+        }
+
+        //Move whatever exceeds an int into the returned increment, or return null if every sum is within an int.
+        private Increment splitOverflow(){
+            long extraWins = Math.max(0, this.wins.sum() - Integer.MAX_VALUE);
+            long extraLosses = Math.max(0, this.losses.sum() - Integer.MAX_VALUE);
+            long extraDraws = Math.max(0, this.draws.sum() - Integer.MAX_VALUE);
+
+            if(extraWins == 0 && extraLosses == 0 && extraDraws == 0){
+                return null;
+            }
+
+            Increment overflow = new Increment(this.firstName, this.lastName);
+            overflow.add(extraWins, extraLosses, extraDraws, null);
+            this.add(-extraWins, -extraLosses, -extraDraws, null);
+
+            return overflow;
+        }
+
+        private long numOfGames(){
+            return this.wins.sum() + this.losses.sum() + this.draws.sum();
+        }
+
+        //Every sum must be within an int (see splitOverflow()).
+        private Player toPlayer(Long id){
+            return Player.playerBuilder().id(id).firstName(this.firstName).lastName(this.lastName)
+                    .nickName(this.nickName).numTicTacToeWin((int) this.wins.sum())
+                    .numTicTacToeLoss((int) this.losses.sum()).numTicTacToeDraw((int) this.draws.sum()).build();
+        }
+    }
+
+    private final IPlayerRepository playerRepository;
+    private final PlayerCache playerCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean isEnabled;
+    private final int maxRecords;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger numOfBufferedRecords = new AtomicInteger();
+    private final LongAdder numOfFlushes = new LongAdder();
+    private final LongAdder numOfFlushedRecords = new LongAdder();
+    private final LongAdder numOfDroppedRecords = new LongAdder();
+    private ConcurrentHashMap<Long, Increment> increments = new ConcurrentHashMap<>(); //guarded by 'lock' when swapped
+
+    @Autowired
+    public PlayerRecordBuffer(IPlayerRepository playerRepository, PlayerCache playerCache,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${player.write-behind.enabled:false}") boolean isEnabled,
+                              @Value("${player.write-behind.max-records:1000}") int maxRecords){
+
+        if(maxRecords < 1){
+
+            throw new RuntimeException(String.format("Invalid write-behind max records: %d (>= 1 expected).",
+                    maxRecords));
+        }
+
+        this.playerRepository = playerRepository;
+        this.playerCache = playerCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.isEnabled = isEnabled;
+        this.maxRecords = maxRecords;
+    }
+
+    public boolean isEnabled(){
+        return this.isEnabled;
+    }
+
+    /**
+     * Buffer a single-game record of the (saved, non-deleted) player of the given id; flush if the buffer is full.
+     * If the record would make a buffered sum of the player exceed Integer.MAX_VALUE, the buffer is flushed first.
+     */
+    public void add(Long id, Player record) throws RuntimeException{
+
+        boolean isFull;
+
+        while(true){
+            boolean[] isAdded = new boolean[1];
+
+            this.lock.readLock().lock();
+            try{
+                this.increments.compute(id, (key, increment) -> {
+                    Increment current = increment == null ?
+                            new Increment(record.getFirstName(), record.getLastName()) : increment;
+
+                    if(current.fits(record.getNumTicTacToeWin(), record.getNumTicTacToeLoss(),
+                            record.getNumTicTacToeDraw())){
+
+                        current.add(record.getNumTicTacToeWin(), record.getNumTicTacToeLoss(),
+                                record.getNumTicTacToeDraw(), record.getNickName());
+                        isAdded[0] = true;
+                    }
+                    return current;
+                });
+
+                isFull = isAdded[0] && this.numOfBufferedRecords.incrementAndGet() >= this.maxRecords;
+            }finally{
+                this.lock.readLock().unlock();
+            }
+
+            if(isAdded[0]){
+                break;
+            }
+
+            //Write the buffered sums out so that the record fits into the emptied buffer.
+            this.flush();
+        }
+
+        if(isFull){
+            this.flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${player.write-behind.flush-interval-ms:1000}")
+    public void flushPeriodically(){
+        try{
+            this.flush();
+
+        }catch (RuntimeException exception){
+            LOGGER.info("Unable to flush the buffered player records: {}", exception.getMessage());
+        }
+    }
+
+    /**
+     * Write the buffered records to the repo in one transaction; return the number of written records.
+     * Records of players deleted since they were buffered are dropped (and logged).
+     */
+    public synchronized int flush() throws RuntimeException{
+
+        Map<Long, Increment> flushed;
+        int numOfRecords;
+
+        this.lock.writeLock().lock();
+        try{
+            flushed = this.increments;
+            numOfRecords = this.numOfBufferedRecords.getAndSet(0);
+            this.increments = new ConcurrentHashMap<>();
+        }finally{
+            this.lock.writeLock().unlock();
+        }
+
+        if(flushed.isEmpty()){
+            return 0;
+        }
+
+        //Whatever exceeds an int (only if records were put back after a failed write) waits for the next flush.
+        Map<Long, Increment> overflows = new LinkedHashMap<>();
+        flushed.forEach((id, increment) -> {
+            Increment overflow = increment.splitOverflow();
+
+            if(overflow != null){
+                overflows.put(id, overflow);
+            }
+        });
+
+        List<Player> players = new ArrayList<>(flushed.size());
+        flushed.forEach((id, increment) -> players.add(increment.toPlayer(id)));
+        int[] numOfUpdatedRows;
+
+        try{
+            numOfUpdatedRows = this.transactionTemplate.execute(status ->
+                    this.playerRepository.incrementRecords(players));
+
+        }catch (RuntimeException exception){
+
+            //Put the records back, to be written by the next flush.
+            overflows.forEach((id, overflow) -> flushed.get(id).add(overflow.wins.sum(), overflow.losses.sum(),
+                    overflow.draws.sum(), null));
+            this.putBack(flushed, numOfRecords);
+
+            throw exception;
+        }
+
+        if(!overflows.isEmpty()){
+            long numOfOverflowingRecords = 0;
+
+            for(Increment overflow : overflows.values()){
+                numOfOverflowingRecords += overflow.numOfGames();
+            }
+
+            int numOfPutBackRecords = (int) Math.min(numOfOverflowingRecords, numOfRecords);
+            this.putBack(overflows, numOfPutBackRecords);
+            numOfRecords -= numOfPutBackRecords;
+        }
+
+        for(int i = 0; i < players.size(); i++){
+
+            Player player = players.get(i);
+
+            //The cached copies are older than the repo now.
+            this.playerCache.evict(player.getFirstName(), player.getLastName());
+
+            if(numOfUpdatedRows == null || numOfUpdatedRows[i] == 0){
+
+                long numOfDropped = (long) player.getNumTicTacToeWin() + player.getNumTicTacToeLoss() +
+                        player.getNumTicTacToeDraw();
+                this.numOfDroppedRecords.add(numOfDropped);
+                numOfRecords -= numOfDropped;
+                LOGGER.info("Dropped {} buffered records of player {}, which was deleted.", numOfDropped,
+                        player.fullName());
+            }
+        }
+
+        this.numOfFlushes.increment();
+        this.numOfFlushedRecords.add(numOfRecords);
+        LOGGER.debug("Flushed {} buffered records of {} players.", numOfRecords, players.size());
+
+        return numOfRecords;
+    }
+
+    private void putBack(Map<Long, Increment> unwritten, int numOfRecords){
+        this.lock.readLock().lock();
+        try{
+            unwritten.forEach((id, increment) -> this.increments.merge(id, increment, (current, failed) -> {
+                current.add(failed.wins.sum(), failed.losses.sum(), failed.draws.sum(), failed.nickName);
+                return current;
+            }));
+            this.numOfBufferedRecords.addAndGet(numOfRecords);
+        }finally{
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close(){
+        if(this.isEnabled){
+            LOGGER.info("Flushed {} buffered player records on shutdown.", this.flush());
+        }
+    }
+
+    public Map<String, Number> getStatistics(){
+
+        Map<String, Number> statistics = new LinkedHashMap<>();
+        statistics.put("bufferedRecords", this.numOfBufferedRecords.get());
+        statistics.put("flushes", this.numOfFlushes.sum());
+        statistics.put("flushedRecords", this.numOfFlushedRecords.sum());
+        statistics.put("droppedRecords", this.numOfDroppedRecords.sum());
+
+        return statistics;
+    }
+}
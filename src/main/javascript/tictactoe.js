@@ -13,6 +13,7 @@ export default class TicTacToe extends React.Component {
     	this.urlViewPastMove = '/tictactoes/view-prev-move';
     	this.urlRevertToPrevMove = '/tictactoes/revert-to-prev-move';
         this.urlSaveRecord = '/players/save-record';
+        this.urlGameUpdates = '/tictactoes/updates';
 
     	this.state = {
     	    winner: null, /*winner = 'X' or 'O' if game is over; null if not. */
@@ -33,15 +34,54 @@ export default class TicTacToe extends React.Component {
     componentDidMount() {
         /*componentDidMount() is invoked after render() is fired.*/
         console.log('Component did mount.');
+        this.subscribeToGameUpdates();
         this.initTicTacToe();
     }
 
+    componentWillUnmount(){
+        if(this.gameUpdates){
+            this.gameUpdates.close();
+        }
+    }
+
     componentDidUpdate(){
         /*componentDidUpdate() is invoked immediately after updating occurs.*/
         console.log('Component did update.');
     }
 
     /*TicTacToe: start -------------------*/
+    subscribeToGameUpdates(){
+        /*The server pushes every saved or reverted move of the game (Server-Sent Events), so that other
+        players and spectators see it without asking again. The browser reconnects by itself.*/
+        if(typeof EventSource === 'undefined'){
+            return;
+        }
+        this.gameUpdates = new EventSource(this.urlGameUpdates);
+        const showMove = event =>{
+            const move = JSON.parse(event.data);
+            this.setState({
+                winner: move.winner,
+                xNext: move.xNext,
+                board: move.board,
+                numOfMoves: move.moveNumber,
+                numOfMovesResetByTimeTravel: move.moveNumber,
+            });
+        };
+        this.gameUpdates.addEventListener('move', showMove);
+        this.gameUpdates.addEventListener('revert', showMove);
+        this.gameUpdates.addEventListener('reset', event =>{
+            /*The game was reset (e.g. by another player): clear the board until its first move comes.*/
+            console.log(JSON.parse(event.data).message);
+            this.setState({
+                winner: null,
+                xNext: true,
+                board: this.state.board.map(row => row.map(() => null)),
+                numOfMoves: -1,
+                numOfMovesResetByTimeTravel: -1,
+            });
+        });
+    }
+
     initTicTacToe(){
         /*First delete all the moves of the previous game, then initialize a new game.*/
         console.log('Initializing new game.');
@@ -63,8 +103,8 @@ export default class TicTacToe extends React.Component {
                     winner: responseOfSavingEmptyBoard.data.winner,
                     xNext: responseOfSavingEmptyBoard.data.xNext,
                     board: responseOfSavingEmptyBoard.data.board,
-                    numOfMoves: this.state.numOfMoves+1,
-                    numOfMovesResetByTimeTravel: this.state.numOfMoves+1,
+                    numOfMoves: responseOfSavingEmptyBoard.data.moveNumber,
+                    numOfMovesResetByTimeTravel: responseOfSavingEmptyBoard.data.moveNumber,
                 });
             }).catch(errorOfSavingEmptyBoard =>{
                 console.error(errorOfSavingEmptyBoard);
@@ -157,8 +197,8 @@ export default class TicTacToe extends React.Component {
                 xNext: response.data.xNext,
                 board: response.data.board,
                 /*ensure that the two numbers of moves are the same:*/
-                numOfMoves: this.state.numOfMoves+1,
-                numOfMovesResetByTimeTravel: this.state.numOfMoves+1,
+                numOfMoves: response.data.moveNumber,
+                numOfMovesResetByTimeTravel: response.data.moveNumber,
             });
             if(this.state.winner){
                 console.log('Game is over; a winner has come out. ');
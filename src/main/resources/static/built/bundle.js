@@ -54708,6 +54708,7 @@ function (_React$Component) {
     _this.urlViewPastMove = '/tictactoes/view-prev-move';
     _this.urlRevertToPrevMove = '/tictactoes/revert-to-prev-move';
     _this.urlSaveRecord = '/players/save-record';
+    _this.urlGameUpdates = '/tictactoes/updates';
     _this.state = {
       winner: null,
 
@@ -54739,8 +54740,16 @@ function (_React$Component) {
     value: function componentDidMount() {
       /*componentDidMount() is invoked after render() is fired.*/
       console.log('Component did mount.');
+      this.subscribeToGameUpdates();
       this.initTicTacToe();
     }
+  }, {
+    key: "componentWillUnmount",
+    value: function componentWillUnmount() {
+      if (this.gameUpdates) {
+        this.gameUpdates.close();
+      }
+    }
   }, {
     key: "componentDidUpdate",
     value: function componentDidUpdate() {
@@ -54749,10 +54758,54 @@ function (_React$Component) {
     }
     /*TicTacToe: start -------------------*/
 
+  }, {
+    key: "subscribeToGameUpdates",
+    value: function subscribeToGameUpdates() {
+      var _this2 = this;
+
+      /*The server pushes every saved or reverted move of the game (Server-Sent Events), so that other
+      players and spectators see it without asking again. The browser reconnects by itself.*/
+      if (typeof EventSource === 'undefined') {
+        return;
+      }
+
+      this.gameUpdates = new EventSource(this.urlGameUpdates);
+
+      var showMove = function showMove(event) {
+        var move = JSON.parse(event.data);
+
+        _this2.setState({
+          winner: move.winner,
+          xNext: move.xNext,
+          board: move.board,
+          numOfMoves: move.moveNumber,
+          numOfMovesResetByTimeTravel: move.moveNumber
+        });
+      };
+
+      this.gameUpdates.addEventListener('move', showMove);
+      this.gameUpdates.addEventListener('revert', showMove);
+      this.gameUpdates.addEventListener('reset', function (event) {
+        /*The game was reset (e.g. by another player): clear the board until its first move comes.*/
+        console.log(JSON.parse(event.data).message);
+
+        _this2.setState({
+          winner: null,
+          xNext: true,
+          board: _this2.state.board.map(function (row) {
+            return row.map(function () {
+              return null;
+            });
+          }),
+          numOfMoves: -1,
+          numOfMovesResetByTimeTravel: -1
+        });
+      });
+    }
   }, {
     key: "initTicTacToe",
     value: function initTicTacToe() {
-      var _this2 = this;
+      var _this3 = this;
 
       /*First delete all the moves of the previous game, then initialize a new game.*/
       console.log('Initializing new game.');
@@ -54761,21 +54814,21 @@ function (_React$Component) {
         url: this.urlResetGame
       }).then(function (responseOfResettingGame) {
         var ticTacToe = {
-          'winner': _this2.state.winner,
-          'xNext': _this2.state.xNext,
-          'board': _this2.state.board
+          'winner': _this3.state.winner,
+          'xNext': _this3.state.xNext,
+          'board': _this3.state.board
         };
         axios__WEBPACK_IMPORTED_MODULE_4___default()({
           method: 'post',
-          url: _this2.urlSaveMove,
+          url: _this3.urlSaveMove,
           data: ticTacToe
         }).then(function (responseOfSavingEmptyBoard) {
-          _this2.setState({
+          _this3.setState({
             winner: responseOfSavingEmptyBoard.data.winner,
             xNext: responseOfSavingEmptyBoard.data.xNext,
             board: responseOfSavingEmptyBoard.data.board,
-            numOfMoves: _this2.state.numOfMoves + 1,
-            numOfMovesResetByTimeTravel: _this2.state.numOfMoves + 1
+            numOfMoves: responseOfSavingEmptyBoard.data.moveNumber,
+            numOfMovesResetByTimeTravel: responseOfSavingEmptyBoard.data.moveNumber
           });
         })["catch"](function (errorOfSavingEmptyBoard) {
           console.error(errorOfSavingEmptyBoard);
@@ -54787,7 +54840,7 @@ function (_React$Component) {
   }, {
     key: "handleClick",
     value: function handleClick(i, j) {
-      var _this3 = this;
+      var _this4 = this;
 
       console.log('Clicking grid (' + i + ', ' + j + ') on board. ');
       /*Do nothing if a winner has come out or the grid was already clicked by a player.*/
@@ -54814,8 +54867,8 @@ function (_React$Component) {
         }).then(function (response) {
           var snapshot = response.data;
 
-          _this3.setState({
-            numOfMoves: _this3.state.numOfMovesResetByTimeTravel
+          _this4.setState({
+            numOfMoves: _this4.state.numOfMovesResetByTimeTravel
           });
 
           var board_new = snapshot.board;
@@ -54826,7 +54879,7 @@ function (_React$Component) {
             'board': board_new
           };
 
-          _this3.saveTicTacToe(ticTacToe_new);
+          _this4.saveTicTacToe(ticTacToe_new);
         })["catch"](function (error) {
           console.error(error);
         });
@@ -54844,7 +54897,7 @@ function (_React$Component) {
   }, {
     key: "viewPastMove",
     value: function viewPastMove(pastMove) {
-      var _this4 = this;
+      var _this5 = this;
 
       /*re-load data of a past move.*/
       console.log('Viewing move #' + pastMove);
@@ -54857,7 +54910,7 @@ function (_React$Component) {
       }).then(function (response) {
         var snapshot = response.data;
 
-        _this4.setState({
+        _this5.setState({
           winner: snapshot.winner,
           xNext: snapshot.xNext,
           board: snapshot.board,
@@ -54872,7 +54925,7 @@ function (_React$Component) {
   }, {
     key: "saveTicTacToe",
     value: function saveTicTacToe(ticTacToe) {
-      var _this5 = this;
+      var _this6 = this;
 
       console.log('Saving new status of the game created by clicking a grid. ');
       axios__WEBPACK_IMPORTED_MODULE_4___default()({
@@ -54881,36 +54934,36 @@ function (_React$Component) {
         data: ticTacToe
       }).then(function (response) {
         /*console.log('TicTacToe: current states = \n'+JSON.stringify(response.data, null, 4));*/
-        _this5.setState({
+        _this6.setState({
           winner: response.data.winner,
           xNext: response.data.xNext,
           board: response.data.board,
 
           /*ensure that the two numbers of moves are the same:*/
-          numOfMoves: _this5.state.numOfMoves + 1,
-          numOfMovesResetByTimeTravel: _this5.state.numOfMoves + 1
+          numOfMoves: response.data.moveNumber,
+          numOfMovesResetByTimeTravel: response.data.moveNumber
         });
 
-        if (_this5.state.winner) {
+        if (_this6.state.winner) {
           console.log('Game is over; a winner has come out. ');
-          var myWinner = _this5.state.winner === 'X' ? _this5.state.playerX : _this5.state.playerO;
-          var myLoser = _this5.state.winner === 'X' ? _this5.state.playerO : _this5.state.playerX;
+          var myWinner = _this6.state.winner === 'X' ? _this6.state.playerX : _this6.state.playerO;
+          var myLoser = _this6.state.winner === 'X' ? _this6.state.playerO : _this6.state.playerX;
           myWinner.numTicTacToeWin = 1;
           myLoser.numTicTacToeLoss = 1;
 
-          _this5.saveRecord(myWinner);
+          _this6.saveRecord(myWinner);
 
-          _this5.saveRecord(myLoser);
-        } else if (_this5.isGameOver()) {
+          _this6.saveRecord(myLoser);
+        } else if (_this6.isGameOver()) {
           console.log('Game is over; nobody wins.');
-          var myDrawX = _this5.state.playerX;
-          var myDrawO = _this5.state.playerO;
+          var myDrawX = _this6.state.playerX;
+          var myDrawO = _this6.state.playerO;
           myDrawX.numTicTacToeDraw = 1;
           myDrawO.numTicTacToeDraw = 1;
 
-          _this5.saveRecord(myDrawX);
+          _this6.saveRecord(myDrawX);
 
-          _this5.saveRecord(myDrawO);
+          _this6.saveRecord(myDrawO);
         }
       })["catch"](function (error) {
         console.error(error);
@@ -55007,7 +55060,7 @@ function (_React$Component) {
   }, {
     key: "render",
     value: function render() {
-      var _this6 = this;
+      var _this7 = this;
 
       console.log('Rendering game.');
 
@@ -55031,13 +55084,13 @@ function (_React$Component) {
           board: this.state.board,
           numOfMoves: this.state.numOfMoves,
           onClick: function onClick(i, j) {
-            return _this6.handleClick(i, j);
+            return _this7.handleClick(i, j);
           },
           revertTo: function revertTo(prevMove) {
-            return _this6.revertTo(prevMove);
+            return _this7.revertTo(prevMove);
           },
           viewPastMove: function viewPastMove(pastMove) {
-            return _this6.viewPastMove(pastMove);
+            return _this7.viewPastMove(pastMove);
           }
         });
       }
@@ -55059,26 +55112,26 @@ function (_React$Component2) {
   _inherits(CreatePlayer, _React$Component2);
 
   function CreatePlayer(props) {
-    var _this7;
+    var _this8;
 
     _classCallCheck(this, CreatePlayer);
 
-    _this7 = _possibleConstructorReturn(this, _getPrototypeOf(CreatePlayer).call(this, props));
-    _this7.refModalInputX = {};
+    _this8 = _possibleConstructorReturn(this, _getPrototypeOf(CreatePlayer).call(this, props));
+    _this8.refModalInputX = {};
     /*refs for grabbing inputs of modal dialog (player X).*/
 
-    _this7.refModalInputO = {};
+    _this8.refModalInputO = {};
     /*refs for grabbing inputs of modal dialog (player O).*/
 
-    _this7.handleSubmit = _this7.handleSubmit.bind(_assertThisInitialized(_this7));
-    _this7.handleCancel = _this7.handleCancel.bind(_assertThisInitialized(_this7));
-    return _this7;
+    _this8.handleSubmit = _this8.handleSubmit.bind(_assertThisInitialized(_this8));
+    _this8.handleCancel = _this8.handleCancel.bind(_assertThisInitialized(_this8));
+    return _this8;
   }
 
   _createClass(CreatePlayer, [{
     key: "handleSubmit",
     value: function handleSubmit(e) {
-      var _this8 = this;
+      var _this9 = this;
 
       e.preventDefault();
       /*Extract data from modal dialog inputs*/
@@ -55088,11 +55141,11 @@ function (_React$Component2) {
 
       if (!this.props.playerX) {
         this.props.playerAttributes.forEach(function (attribute) {
-          newPlayer[attribute] = attribute.includes('Name') ? _this8.refModalInputX[attribute].current.value.trim() : 0;
+          newPlayer[attribute] = attribute.includes('Name') ? _this9.refModalInputX[attribute].current.value.trim() : 0;
         });
       } else {
         this.props.playerAttributes.forEach(function (attribute) {
-          newPlayer[attribute] = attribute.includes('Name') ? _this8.refModalInputO[attribute].current.value.trim() : 0;
+          newPlayer[attribute] = attribute.includes('Name') ? _this9.refModalInputO[attribute].current.value.trim() : 0;
         });
       }
       /*Ensure player's firstName & lastName are not empty or white spaces.*/
@@ -55125,19 +55178,19 @@ function (_React$Component2) {
   }, {
     key: "clearInputs",
     value: function clearInputs() {
-      var _this9 = this;
+      var _this10 = this;
 
       if (!this.props.playerX) {
         this.props.playerAttributes.forEach(function (attribute) {
           if (attribute.includes('Name')) {
-            _this9.refModalInputX[attribute].current.value = '';
+            _this10.refModalInputX[attribute].current.value = '';
             /*clear inputs submitted for player X.*/
           }
         });
       } else {
         this.props.playerAttributes.forEach(function (attribute) {
           if (attribute.includes('Name')) {
-            _this9.refModalInputO[attribute].current.value = '';
+            _this10.refModalInputO[attribute].current.value = '';
             /*clear inputs that are submitted for player O.*/
           }
         });
@@ -55146,12 +55199,12 @@ function (_React$Component2) {
   }, {
     key: "render",
     value: function render() {
-      var _this10 = this;
+      var _this11 = this;
 
       /*Create refs to player attributes.*/
       this.props.playerAttributes.forEach(function (attribute) {
-        _this10.refModalInputX[attribute] = react__WEBPACK_IMPORTED_MODULE_2___default.a.createRef();
-        _this10.refModalInputO[attribute] = react__WEBPACK_IMPORTED_MODULE_2___default.a.createRef();
+        _this11.refModalInputX[attribute] = react__WEBPACK_IMPORTED_MODULE_2___default.a.createRef();
+        _this11.refModalInputO[attribute] = react__WEBPACK_IMPORTED_MODULE_2___default.a.createRef();
       });
       /*Configure modal dialog's title & inputs.*/
 
@@ -55162,7 +55215,7 @@ function (_React$Component2) {
         }, " ", react__WEBPACK_IMPORTED_MODULE_2___default.a.createElement("input", {
           type: "text",
           maxLength: "32",
-          ref: !_this10.props.playerX ? _this10.refModalInputX[attribute] : _this10.refModalInputO[attribute],
+          ref: !_this11.props.playerX ? _this11.refModalInputX[attribute] : _this11.refModalInputO[attribute],
           placeholder: attribute
         })) : react__WEBPACK_IMPORTED_MODULE_2___default.a.createElement("div", {
           key: attribute
@@ -55214,7 +55267,7 @@ function (_React$Component3) {
 
     /*The view of playing TicTacToe.*/
     value: function render() {
-      var _this11 = this;
+      var _this12 = this;
 
       /*display players' names */
       var playerXName = 'player X: ' + this.props.playerX.lastName + ', ' + this.props.playerX.firstName;
@@ -55244,7 +55297,7 @@ function (_React$Component3) {
             /*onClick = {()=> this.props.revertTo(i)}*/
             ,
             onClick: function onClick() {
-              return _this11.props.viewPastMove(i);
+              return _this12.props.viewPastMove(i);
             }
           }, timeTravelButtonText)));
         };
@@ -55264,7 +55317,7 @@ function (_React$Component3) {
       }, "Rule: Two players (represented by X and O) alternate turns placing their mark on an empty cell. The winner is the first player to form an unbroken chain of 3 marks horizontally, vertically, or diagonally."), react__WEBPACK_IMPORTED_MODULE_2___default.a.createElement(Board, {
         board: this.props.board,
         onClick: function onClick(i, j) {
-          return _this11.props.onClick(i, j);
+          return _this12.props.onClick(i, j);
         }
       })), react__WEBPACK_IMPORTED_MODULE_2___default.a.createElement("td", {
         valign: "center"
@@ -55293,13 +55346,13 @@ function (_React$Component4) {
   _createClass(Board, [{
     key: "renderCell",
     value: function renderCell(i, j) {
-      var _this12 = this;
+      var _this13 = this;
 
       return react__WEBPACK_IMPORTED_MODULE_2___default.a.createElement(Cell, {
         key: 'cell(' + i + ',' + j + ')',
         cell: this.props.board[i][j],
         onClick: function onClick() {
-          return _this12.props.onClick(i, j);
+          return _this13.props.onClick(i, j);
         }
         /*a callback function*/
 
@@ -55355,12 +55408,12 @@ function (_React$Component5) {
   _createClass(Cell, [{
     key: "render",
     value: function render() {
-      var _this13 = this;
+      var _this14 = this;
 
       return react__WEBPACK_IMPORTED_MODULE_2___default.a.createElement("button", {
         className: "game-cell",
         onClick: function onClick() {
-          return _this13.props.onClick();
+          return _this14.props.onClick();
         }
         /*a callback function*/
 
@@ -0,0 +1,58 @@
+package com.weixigu.boardgame.ai;
+
+import com.weixigu.boardgame.domain.BitBoard;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PerfectPlayTableUnitTest {
+
+    private static final PerfectPlayTable PERFECT_PLAY_TABLE = new PerfectPlayTable();
+
+    @BeforeAll
+    static void setUp(){
+        PERFECT_PLAY_TABLE.load();
+    }
+
+    private static int lookup(String[][] cells){
+        return PERFECT_PLAY_TABLE.lookup(PerfectPlayTable.codeOf(BitBoard.fromCells(cells, 3, 3)));
+    }
+
+    @Test
+    void load_shouldEnumerateAllLegalPositions(){
+
+        assertThat(PERFECT_PLAY_TABLE.isLoaded()).isTrue();
+        assertThat(PERFECT_PLAY_TABLE.getNumOfPositions()).isEqualTo(5478);
+        assertThat(PERFECT_PLAY_TABLE.getNumOfCanonicalPositions()).isEqualTo(765);
+    }
+
+    @Test
+    void lookup_emptyBoard_shouldBeDrawWhereverXStarts(){
+
+        int entry = lookup(new String[3][3]);
+
+        assertThat(PerfectPlayTable.outcomeOf(entry)).isEqualTo(PerfectPlayTable.DRAW);
+        assertThat(PerfectPlayTable.pliesOf(entry)).isEqualTo(9);
+        assertThat(PerfectPlayTable.bestMovesOf(entry)).isEqualTo(0x1FF);
+    }
+
+    @Test
+    void lookup_symmetricPositions_shouldMapBestMovesThroughSymmetry(){
+        //X threatens the top row in one position and the right column in its rotation.
+        int entry = lookup(new String[][]{{"X", "X", null}, {"O", "O", null}, {null, null, null}});
+        int rotatedEntry = lookup(new String[][]{{null, "O", "X"}, {null, "O", "X"}, {null, null, null}});
+
+        assertThat(PerfectPlayTable.outcomeOf(entry)).isEqualTo(PerfectPlayTable.WIN);
+        assertThat(PerfectPlayTable.pliesOf(entry)).isEqualTo(1);
+        assertThat(PerfectPlayTable.bestMovesOf(entry)).isEqualTo(1 << 2);
+        assertThat(PerfectPlayTable.outcomeOf(rotatedEntry)).isEqualTo(PerfectPlayTable.WIN);
+        assertThat(PerfectPlayTable.bestMovesOf(rotatedEntry)).isEqualTo(1 << 8);
+    }
+
+    @Test
+    void lookup_illegalPosition_shouldReturnZero(){
+
+        assertThat(lookup(new String[][]{{"O", null, null}, {null, null, null}, {null, null, null}})).isZero();
+    }
+}
@@ -0,0 +1,54 @@
+package com.weixigu.boardgame.archive;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.domain.TicTacToe;
+import com.weixigu.boardgame.repo.IArchivedTicTacToeRepository;
+import com.weixigu.boardgame.repo.ITicTacToeRepository;
+import com.weixigu.boardgame.service.TicTacToeService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class DeadRowCompactorIntegrationTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+
+    @Autowired
+    private DeadRowCompactor deadRowCompactor;
+
+    @Autowired
+    private TicTacToeService ticTacToeService;
+
+    @Autowired
+    private ITicTacToeRepository ticTacToeRepository;
+
+    @Autowired
+    private IArchivedTicTacToeRepository archivedTicTacToeRepository;
+
+    @Test
+    void compact_resetGame_shouldArchiveItsMovesAfterRetention(){
+
+        LOGGER.info("Integration test: compact_resetGame_shouldArchiveItsMovesAfterRetention().");
+
+        TicTacToe game = this.ticTacToeService.createGame(3, 3);
+        this.ticTacToeService.resetGame(game.getGameId());
+
+        //Still within the retention period.
+        this.deadRowCompactor.compact(System.currentTimeMillis() - 60_000);
+        assertThat(this.ticTacToeRepository.findById(game.getId())).isPresent();
+
+        long archivedMoves = this.deadRowCompactor.getStatistics().get("archivedMoves").longValue();
+        this.deadRowCompactor.compact(System.currentTimeMillis() + 1);
+
+        assertThat(this.ticTacToeRepository.findById(game.getId())).isEmpty();
+        assertThat(this.archivedTicTacToeRepository.findById(game.getId()))
+                .hasValueSatisfying(move -> assertThat(move.getGameId()).isEqualTo(game.getGameId()));
+        assertThat(this.deadRowCompactor.getStatistics().get("archivedMoves").longValue())
+                .isGreaterThan(archivedMoves);
+    }
+}
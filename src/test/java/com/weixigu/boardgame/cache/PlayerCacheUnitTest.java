@@ -0,0 +1,69 @@
+package com.weixigu.boardgame.cache;
+
+import com.weixigu.boardgame.domain.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PlayerCacheUnitTest {
+
+    @Test
+    void get_nameInOtherCase_shouldHit(){
+
+        PlayerCache playerCache = new PlayerCache(4);
+        Player player = Player.playerBuilder().firstName("Silly").lastName("Goose").build();
+
+        assertThat(playerCache.get("silly", "goose")).isNull();
+
+        playerCache.put("Silly", "Goose", Collections.singletonList(player));
+
+        assertThat(playerCache.get("SILLY", "goose")).extracting(Player::fullName).containsExactly("Goose, Silly");
+
+        Map<String, Number> statistics = playerCache.getStatistics();
+        assertThat(statistics.get("hits").longValue()).isEqualTo(1);
+        assertThat(statistics.get("misses").longValue()).isEqualTo(1);
+    }
+
+    @Test
+    void get_playerChangedAfterPutOrGet_shouldNotChangeCachedPlayer(){
+
+        PlayerCache playerCache = new PlayerCache(4);
+        Player player = Player.playerBuilder().id(1L).firstName("Silly").lastName("Goose").build();
+
+        playerCache.put("Silly", "Goose", Collections.singletonList(player));
+        player.setAsDeleted();
+        playerCache.get("Silly", "Goose").get(0).setAsDeleted();
+
+        assertThat(playerCache.get("Silly", "Goose").get(0).isDeleted()).isFalse();
+    }
+
+    @Test
+    void put_cacheIsFull_shouldEvictLeastRecentlyUsedName(){
+
+        PlayerCache playerCache = new PlayerCache(2);
+
+        playerCache.put("a", "a", Collections.emptyList());
+        playerCache.put("b", "b", Collections.emptyList());
+        playerCache.get("a", "a");
+        playerCache.put("c", "c", Collections.emptyList());
+
+        assertThat(playerCache.get("b", "b")).isNull();
+        assertThat(playerCache.get("a", "a")).isEmpty();
+        assertThat(playerCache.getStatistics().get("evictions").longValue()).isEqualTo(1);
+        assertThat(playerCache.getStatistics().get("size").intValue()).isEqualTo(2);
+    }
+
+    @Test
+    void evict_cachedName_shouldMiss(){
+
+        PlayerCache playerCache = new PlayerCache(2);
+
+        playerCache.put("a", "b", Collections.emptyList());
+        playerCache.evict("A", "B");
+
+        assertThat(playerCache.get("a", "b")).isNull();
+    }
+}
@@ -0,0 +1,162 @@
+package com.weixigu.boardgame.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BitBoardUnitTest {
+
+    @Test
+    void getWinner_emptyBoard_shouldReturnNull(){
+
+        BitBoard bitBoard = BitBoard.fromCells(new String[3][3], 3, 3);
+
+        assertThat(bitBoard.getWinner()).isNull();
+        assertThat(bitBoard.isFull()).isFalse();
+        assertThat(bitBoard.isDraw()).isFalse();
+    }
+
+    @Test
+    void getWinner_xHasAntiDiagonal_shouldReturnX(){
+
+        String[][] cells = {{"O", "O", "X"}, {null, "X", null}, {"X", null, null}};
+
+        assertThat(BitBoard.fromCells(cells, 3, 3).getWinner()).isEqualTo(BitBoard.PLAYER_X);
+    }
+
+    @Test
+    void getWinner_oHasMiddleColumn_shouldReturnO(){
+
+        String[][] cells = {{"X", "O", "X"}, {null, "O", null}, {"X", "O", null}};
+
+        assertThat(BitBoard.fromCells(cells, 3, 3).getWinner()).isEqualTo(BitBoard.PLAYER_O);
+    }
+
+    @Test
+    void isDraw_fullBoardWithoutLine_shouldReturnTrue(){
+
+        String[][] cells = {{"X", "O", "X"}, {"X", "O", "O"}, {"O", "X", "X"}};
+        BitBoard bitBoard = BitBoard.fromCells(cells, 3, 3);
+
+        assertThat(bitBoard.getWinner()).isNull();
+        assertThat(bitBoard.isDraw()).isTrue();
+    }
+
+    @Test
+    void play_emptyCell_shouldMarkCellAndKeepOriginalUnchanged(){
+
+        BitBoard original = BitBoard.empty();
+        BitBoard next = original.play(1, 2, true);
+
+        assertThat(original.isEmpty(1, 2)).isTrue();
+        assertThat(next.isEmpty(1, 2)).isFalse();
+        assertThat(next.toCells()[1][2]).isEqualTo(BitBoard.PLAYER_X);
+    }
+
+    @Test
+    void play_occupiedCellOrFinishedGame_shouldFail(){
+
+        String[][] cells = {{"X", "X", "X"}, {"O", "O", null}, {null, null, null}};
+        BitBoard bitBoard = BitBoard.fromCells(cells, 3, 3);
+
+        assertThat(bitBoard.isLegalMove(0, 0)).isFalse();
+        assertThat(bitBoard.isLegalMove(2, 2)).isFalse(); //X already won.
+        assertThatThrownBy(()-> bitBoard.play(1, 2, false))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Illegal move");
+    }
+
+    @Test
+    void toCells_roundTrip_shouldKeepBoardShape(){
+
+        String[][] cells = {{"X", null, "O"}, {null, "X", null}, {"O", null, null}};
+
+        assertThat(BitBoard.fromCells(cells, 3, 3).toCells()).isEqualTo(cells);
+    }
+
+    @Test
+    void play_fiveInARowOnGomokuBoard_shouldDetectWinnerFromLastMove(){
+        //15x15 board, 5 in a row; X plays the anti-diagonal, O plays the top row.
+        BitBoard bitBoard = BitBoard.empty(15, 5);
+
+        for(int i = 0; i < 4; i++){
+            bitBoard = bitBoard.play(10 - i, 4 + i, true).play(0, i, false);
+        }
+
+        assertThat(bitBoard.getWinner()).isNull();
+        assertThat(bitBoard.isXNext()).isTrue();
+
+        bitBoard = bitBoard.play(6, 8, true);
+
+        assertThat(bitBoard.getWinner()).isEqualTo(BitBoard.PLAYER_X);
+        assertThat(BitBoard.fromCells(bitBoard.toCells(), 15, 5).getWinner()).isEqualTo(BitBoard.PLAYER_X);
+    }
+
+    @Test
+    void fromCells_runShorterThanWinLength_shouldReturnNoWinner(){
+
+        String[][] cells = new String[19][19];
+
+        for(int col = 14; col < 19; col++){
+            cells[18][col] = BitBoard.PLAYER_O;
+        }
+        cells[18][14] = null; //four in a row at the board edge.
+
+        assertThat(BitBoard.fromCells(cells, 19, 5).getWinner()).isNull();
+        assertThat(BitBoard.fromCells(cells, 19, 4).getWinner()).isEqualTo(BitBoard.PLAYER_O);
+    }
+
+    @Test
+    void empty_unsupportedSize_shouldFail(){
+
+        assertThat(BitBoard.isSupportedSize(19, 5)).isTrue();
+        assertThat(BitBoard.isSupportedSize(20, 5)).isFalse();
+        assertThat(BitBoard.isSupportedSize(4, 5)).isFalse();
+        assertThatThrownBy(()-> BitBoard.empty(3, 2))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Unsupported board");
+    }
+
+    @Test
+    void toCompactString_boardWithMarks_shouldRoundTrip(){
+
+        BitBoard bitBoard = BitBoard.empty(15, 5).play(0, 0, true).play(7, 7, false).play(14, 14, true);
+        String compact = bitBoard.toCompactString();
+
+        assertThat(compact).hasSize(225).startsWith("X-").endsWith("-X");
+        assertThat(BitBoard.fromCompactString(compact, 15, 5).toCells()).isEqualTo(bitBoard.toCells());
+        assertThatThrownBy(()-> BitBoard.fromCompactString(compact, 3, 3))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("should have 9 characters");
+    }
+
+    @Test
+    void toPackedBytes_boardWithMarks_shouldRoundTrip(){
+
+        BitBoard bitBoard = BitBoard.empty(3, 3).play(0, 0, true).play(1, 1, false).play(2, 2, true);
+        byte[] packed = bitBoard.toPackedBytes();
+
+        assertThat(packed).hasSize(BitBoard.numOfPackedBytes(3)).hasSize(3);
+        assertThat(BitBoard.fromPackedBytes(packed, 0, 3, 3).toCompactString()).isEqualTo("X---O---X");
+        assertThat(BitBoard.fromPackedBytes(BitBoard.empty(15, 5).play(14, 14, true).toPackedBytes(), 0, 15, 5)
+                .getMark(14, 14)).isEqualTo(BitBoard.PLAYER_X);
+        assertThatThrownBy(()-> BitBoard.fromPackedBytes(packed, 1, 3, 3))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("should have 3 bytes");
+    }
+
+    @Test
+    void findAddedCell_oneNewMark_shouldReturnItsCell(){
+
+        BitBoard bitBoard = BitBoard.empty(9, 5).play(4, 4, true);
+
+        assertThat(bitBoard.findAddedCell(bitBoard.play(8, 7, false).toCells())).isEqualTo(8 * 9 + 7);
+        assertThat(bitBoard.findAddedCell(bitBoard.toCells())).isEqualTo(-1);
+        assertThat(bitBoard.findAddedCell(BitBoard.empty(9, 5).play(0, 0, true).play(4, 5, false).toCells()))
+                .isEqualTo(-1);
+        assertThat(bitBoard.findAddedCell(bitBoard.play(0, 0, false).play(0, 1, true).toCells())).isEqualTo(-1);
+        assertThat(bitBoard.findAddedCell(BitBoard.empty(3, 3).toCells())).isEqualTo(-1);
+        assertThat(bitBoard.findAddedCell((String[][]) null)).isEqualTo(-1);
+    }
+}
@@ -12,6 +12,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -40,6 +45,25 @@ class PlayerEndpointIntegrationTest {
         assertThat(this.playerEndpoint).isNotNull();
     }
 
+    @Test
+    void exportPlayers_preloadedPlayers_shouldWriteOnePlayerPerLine() throws IOException {
+
+        LOGGER.info("Integration test: exportPlayers_preloadedPlayers_shouldWriteOnePlayerPerLine().");
+
+        ResponseEntity<StreamingResponseBody> responseEntity = this.playerEndpoint.exportPlayers();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(outputStream);
+
+        String body = outputStream.toString(StandardCharsets.UTF_8.name());
+        String[] lines = body.split("\n");
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body).endsWith("}\n");
+        assertThat(lines.length).isGreaterThanOrEqualTo(NUM_OF_PRELOADED_PLAYERS);
+        assertThat(lines).allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+        assertThat(lines[0]).contains("\"firstName\":\"Rick\"").contains("\"score\":10");
+    }
+
     @Test
     void validatePlayer_validDataFormat_shouldSucceed(){
 
@@ -96,7 +120,7 @@ class PlayerEndpointIntegrationTest {
         LOGGER.info("Integration test: getPlayerRepo_verifyNumOfPreloadedPlayers_shouldSucceed().");
 
         ResponseEntity<?> responseEntity = this.playerEndpoint.getPlayerRepo(DEFAULT_PAGE_NUMBER, DEFAULT_PAGE_SIZE,
-                DEFAULT_SORT_BY);
+                DEFAULT_SORT_BY, null);
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
 
         Object responseBody = responseEntity.getBody();
@@ -117,7 +141,7 @@ class PlayerEndpointIntegrationTest {
         LOGGER.info("Integration test: getPlayerRepo_verifyFirstPreloadedPlayer_shouldSucceed().");
 
         ResponseEntity<?> responseEntity = this.playerEndpoint.getPlayerRepo(DEFAULT_PAGE_NUMBER, DEFAULT_PAGE_SIZE,
-                DEFAULT_SORT_BY);
+                DEFAULT_SORT_BY, null);
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
 
         Object responseBody = responseEntity.getBody();
@@ -141,7 +165,7 @@ class PlayerEndpointIntegrationTest {
         String pageNumber = "214748364700000000"; //We can use BigInteger. But I'm too lazy to refactor it.
 
         ResponseEntity<?> responseEntity = this.playerEndpoint.getPlayerRepo(pageNumber, DEFAULT_PAGE_SIZE,
-                DEFAULT_SORT_BY);
+                DEFAULT_SORT_BY, null);
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
 
         Object responseBody = responseEntity.getBody();
@@ -151,6 +175,51 @@ class PlayerEndpointIntegrationTest {
         assertThat(errorMessage).contains("Request param 'page' is too large");
     }
 
+    @Test
+    void getPlayerRepo_pageSizeIsZero_shouldFail(){
+
+        LOGGER.info("Integration test: getPlayerRepo_pageSizeIsZero_shouldFail().");
+
+        ResponseEntity<?> responseEntity = this.playerEndpoint.getPlayerRepo(DEFAULT_PAGE_NUMBER, "0",
+                DEFAULT_SORT_BY, null);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        Object responseBody = responseEntity.getBody();
+        assertThat(responseBody).isInstanceOf(String.class);
+
+        String errorMessage = (String) responseBody;
+        assertThat(errorMessage).contains("Request param 'size' should be positive");
+    }
+
+    @Test
+    void getPlayerRepo_ifNoneMatchIsCurrentETag_shouldReturnNotModifiedUntilPlayersChange(){
+
+        LOGGER.info("Integration test: " +
+                "getPlayerRepo_ifNoneMatchIsCurrentETag_shouldReturnNotModifiedUntilPlayersChange().");
+
+        String eTag = this.playerEndpoint.getPlayerRepo(DEFAULT_PAGE_NUMBER, DEFAULT_PAGE_SIZE, DEFAULT_SORT_BY, null)
+                .getHeaders().getETag();
+        ResponseEntity<?> responseEntity = this.playerEndpoint.getPlayerRepo(DEFAULT_PAGE_NUMBER, DEFAULT_PAGE_SIZE,
+                DEFAULT_SORT_BY, "W/" + eTag);
+
+        assertThat(eTag).isNotNull();
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(responseEntity.getBody()).isNull();
+        assertThat(this.playerEndpoint.getPlayerRepo(DEFAULT_PAGE_NUMBER, "2", DEFAULT_SORT_BY, eTag)
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        //Committed writes change the ETag.
+        Player player = Player.playerBuilder().firstName("etag").lastName("cat").build();
+        this.playerEndpoint.createPlayer(player);
+        this.playerEndpoint.deletePlayer(player);
+
+        responseEntity = this.playerEndpoint.getPlayerRepo(DEFAULT_PAGE_NUMBER, DEFAULT_PAGE_SIZE, DEFAULT_SORT_BY,
+                eTag);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getHeaders().getETag()).isNotEqualTo(eTag);
+    }
+
     @Transactional
     @Test
     public void createPlayer_validDataFormat_shouldSucceed() {
@@ -1,9 +1,12 @@
 package com.weixigu.boardgame.endpoint;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.weixigu.boardgame.domain.Player;
 import com.weixigu.boardgame.service.PlayerService;
+import com.weixigu.boardgame.validation.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -11,8 +14,13 @@ import org.springframework.data.domain.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -32,7 +40,7 @@ class PlayerEndpointUnitTest {
         MockitoAnnotations.initMocks(this);
 
         //Instantiate an instance of the class to be tested.
-        this.playerEndpoint = new PlayerEndpoint(playerService);
+        this.playerEndpoint = new PlayerEndpoint(playerService, new ObjectMapper(), 2);
     }
 
     @Test
@@ -61,6 +69,18 @@ class PlayerEndpointUnitTest {
                 .hasMessageNotContaining("lastName");
     }
 
+    @Test
+    void validatePlayer_untrimmedNames_shouldFailWithoutStackTrace() {
+
+        Player player = Player.playerBuilder().firstName(" foo").lastName("bar ").build();
+
+        assertThatThrownBy(()-> this.playerEndpoint.validatePlayer(player))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("firstName [untrimmed.string]")
+                .hasMessageContaining("lastName [untrimmed.string]")
+                .satisfies(exception -> assertThat(exception.getStackTrace()).isEmpty());
+    }
+
     @Test
     void getPlayerRepo_requestParamsAreValidWithRespectToPreloadedPlayers_shouldSucceed(){
 
@@ -84,7 +104,7 @@ class PlayerEndpointUnitTest {
 
         //testing
         ResponseEntity<?> responseEntity = this.playerEndpoint.getPlayerRepo(String.valueOf(pageNumber),
-                String.valueOf(pageSize), sortBy);
+                String.valueOf(pageSize), sortBy, null);
 
         Object responseBody = responseEntity.getBody();
         assertThat(responseBody).isEqualTo(expectedPage);
@@ -98,7 +118,7 @@ class PlayerEndpointUnitTest {
         String sortBy = "id";
 
         //testing
-        ResponseEntity<?> responseEntity = this.playerEndpoint.getPlayerRepo(pageNumber, pageSize, sortBy);
+        ResponseEntity<?> responseEntity = this.playerEndpoint.getPlayerRepo(pageNumber, pageSize, sortBy, null);
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
 
         Object responseBody = responseEntity.getBody();
@@ -189,4 +209,98 @@ class PlayerEndpointUnitTest {
         String message = (String) responseBody;
         assertThat(message).contains("firstName [field.required]"); //See PlayerValidator.java
     }
+
+    //Stub PlayerService.saveRecords() with a report of a batch in which every null record is an error.
+    private void stubSaveRecords(){
+
+        Mockito.when(this.playerService.saveRecords(Mockito.anyList())).thenAnswer(invocation -> {
+
+            List<Player> records = invocation.getArgument(0);
+            List<Map<String, Object>> errors = new ArrayList<>();
+
+            for(int index = 0; index < records.size(); index++){
+
+                if(records.get(index) == null){
+
+                    Map<String, Object> error = new HashMap<>();
+                    error.put("index", index);
+                    error.put("message", "The record is malformed or incomplete.");
+                    errors.add(error);
+                }
+            }
+
+            Map<String, Object> report = new HashMap<>();
+            report.put("numOfRecords", records.size());
+            report.put("numOfSavedRecords", records.size() - errors.size());
+            report.put("numOfPlayers", 1);
+            report.put("errors", errors);
+            return report;
+        });
+    }
+
+    private static InputStream ndjson(String records){
+
+        return new ByteArrayInputStream(records.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveRecordsFromNdjson_recordOfWrongType_shouldPassItAsNullAndReportItsIndex(){
+
+        String records = "{\"firstName\":\"fat\",\"lastName\":\"cat\",\"numTicTacToeWin\":1}\n\n" +
+                "{\"firstName\":\"fat\",\"lastName\":\"cat\",\"numTicTacToeWin\":\"many\"}\n" +
+                "{\"firstName\":\"fat\",\"lastName\":\"cat\",\"numTicTacToeLoss\":1}\n";
+
+        //stubbing
+        this.stubSaveRecords();
+
+        //test
+        ResponseEntity<?> responseEntity = this.playerEndpoint.saveRecordsFromNdjson(ndjson(records));
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ArgumentCaptor<List<Player>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.playerService, Mockito.times(2)).saveRecords(captor.capture());
+
+        //The batch size is 2, so the third record is saved in a batch of its own.
+        List<List<Player>> batches = captor.getAllValues();
+        assertThat(batches.get(0)).hasSize(2);
+        assertThat(batches.get(0).get(0).getNumTicTacToeWin()).isEqualTo(1);
+        assertThat(batches.get(0).get(1)).isNull();
+        assertThat(batches.get(1)).hasSize(1);
+        assertThat(batches.get(1).get(0).getNumTicTacToeLoss()).isEqualTo(1);
+
+        Map<String, Object> report = (Map<String, Object>) responseEntity.getBody();
+        assertThat(report.get("numOfRecords")).isEqualTo(3);
+        assertThat(report.get("numOfSavedRecords")).isEqualTo(2);
+        assertThat((List<Map<String, Object>>) report.get("errors")).extracting(error -> error.get("index"))
+                .containsExactly(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveRecordsFromNdjson_lineIsNotJson_shouldSaveTheRecordsBeforeItAndStop(){
+
+        String records = "{\"firstName\":\"fat\",\"lastName\":\"cat\",\"numTicTacToeWin\":1}\n" +
+                "{\"firstName\":\"fat\",\"lastName\":\"cat\",\"numTicTacToeWin\":1}\n" +
+                "{\"firstName\":\"fat\",\"lastName\":\"cat\",\"numTicTacToeDraw\":1}\n" +
+                "not json\n" +
+                "{\"firstName\":\"fat\",\"lastName\":\"cat\",\"numTicTacToeLoss\":1}\n";
+
+        //stubbing
+        this.stubSaveRecords();
+
+        //test
+        ResponseEntity<?> responseEntity = this.playerEndpoint.saveRecordsFromNdjson(ndjson(records));
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Mockito.verify(this.playerService, Mockito.times(2)).saveRecords(Mockito.anyList());
+
+        Map<String, Object> report = (Map<String, Object>) responseEntity.getBody();
+        assertThat(report.get("numOfRecords")).isEqualTo(4);
+        assertThat(report.get("numOfSavedRecords")).isEqualTo(3);
+
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) report.get("errors");
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).get("index")).isEqualTo(3);
+        assertThat((String) errors.get(0).get("message")).contains("not JSON");
+    }
 }
@@ -0,0 +1,144 @@
+package com.weixigu.boardgame.eventlog;
+
+import com.weixigu.boardgame.domain.BitBoard;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GameEventLogUnitTest {
+
+    @TempDir
+    Path directory;
+
+    private GameEventLog open(int segmentBytes){
+        return new GameEventLog(true, this.directory.toString(), segmentBytes, "never", 1000);
+    }
+
+    @Test
+    void replay_appendedEvents_shouldReturnThemInOrder(){
+
+        GameEventLog eventLog = this.open(1 << 16);
+        BitBoard empty = BitBoard.empty(3, 3);
+        BitBoard next = empty.play(1, 1, true);
+
+        assertThat(eventLog.append(GameEvent.board("game", 0, empty))).isEqualTo(0);
+        assertThat(eventLog.append(GameEvent.move("game", 1, next, 4))).isEqualTo(1);
+
+        List<GameEvent> events = new ArrayList<>();
+        assertThat(eventLog.replay(0, events::add)).isEqualTo(2);
+
+        assertThat(events).extracting(GameEvent::getSequence).containsExactly(0L, 1L);
+        assertThat(events.get(0).getType()).isEqualTo(GameEvent.Type.BOARD);
+        assertThat(events.get(0).getBoard().toCompactString()).isEqualTo("---------");
+        assertThat(events.get(1).getType()).isEqualTo(GameEvent.Type.MOVE);
+        assertThat(events.get(1).getCell()).isEqualTo(4);
+        assertThat(events.get(1).getMark()).isEqualTo(BitBoard.PLAYER_X);
+
+        eventLog.close();
+    }
+
+    @Test
+    void append_segmentIsFull_shouldRollToNewSegment() throws IOException{
+
+        GameEventLog eventLog = this.open(2 * GameEventLog.RECORD_SIZE);
+
+        for(int i = 0; i < 5; i++){
+            eventLog.append(GameEvent.reset("game-" + i));
+        }
+
+        assertThat(Files.list(this.directory).count()).isEqualTo(3);
+
+        List<GameEvent> events = new ArrayList<>();
+        eventLog.replay(3, events::add);
+
+        assertThat(events).extracting(GameEvent::getGameId).containsExactly("game-3", "game-4");
+
+        eventLog.close();
+    }
+
+    @Test
+    void open_existingLog_shouldResumeAfterLastEvent(){
+
+        GameEventLog eventLog = this.open(3 * GameEventLog.RECORD_SIZE);
+
+        for(int i = 0; i < 4; i++){
+            eventLog.append(GameEvent.reset("game"));
+        }
+        eventLog.close();
+
+        GameEventLog reopened = this.open(3 * GameEventLog.RECORD_SIZE);
+
+        assertThat(reopened.getNextSequence()).isEqualTo(4);
+        assertThat(reopened.append(GameEvent.reset("game"))).isEqualTo(4);
+        assertThat(reopened.replay(0, event -> {})).isEqualTo(5);
+
+        reopened.close();
+    }
+
+    @Test
+    void replayGame_resetAndRevert_shouldReturnCurrentBoards(){
+
+        GameEventLog eventLog = this.open(1 << 16);
+        BitBoard board0 = BitBoard.empty(3, 3);
+        BitBoard board1 = board0.play(0, 0, true);
+        BitBoard board2 = board1.play(1, 1, false);
+
+        eventLog.append(GameEvent.board("game", 0, board0));
+        eventLog.append(GameEvent.move("game", 1, board1, 0));
+        eventLog.append(GameEvent.move("other", 1, board1, 0));
+        eventLog.append(GameEvent.move("game", 2, board2, 4));
+        eventLog.append(GameEvent.revert("game", 1));
+
+        assertThat(eventLog.replayGame("game")).extracting(BitBoard::toCompactString)
+                .containsExactly("---------", "X--------");
+
+        eventLog.append(GameEvent.reset("game"));
+        eventLog.append(GameEvent.board("game", 0, board2));
+
+        assertThat(eventLog.replayGame("game")).extracting(BitBoard::toCompactString)
+                .containsExactly("X---O----");
+
+        eventLog.close();
+    }
+
+    @Test
+    void replayGames_severalGames_shouldReturnCurrentBoardsOfEach(){
+
+        GameEventLog eventLog = this.open(1 << 16);
+        BitBoard board0 = BitBoard.empty(3, 3);
+        BitBoard board1 = board0.play(0, 0, true);
+
+        eventLog.append(GameEvent.board("game", 0, board0));
+        eventLog.append(GameEvent.board("reset", 0, board0));
+        eventLog.append(GameEvent.move("game", 1, board1, 0));
+        eventLog.append(GameEvent.reset("reset"));
+        eventLog.append(GameEvent.board("other", 0, board1));
+
+        Map<String, List<BitBoard>> games = eventLog.replayGames();
+
+        assertThat(games).containsOnlyKeys("game", "other");
+        assertThat(games.get("game")).extracting(BitBoard::toCompactString).containsExactly("---------", "X--------");
+        assertThat(games.get("other")).extracting(BitBoard::toCompactString).containsExactly("X--------");
+
+        eventLog.close();
+    }
+
+    @Test
+    void append_logIsDisabled_shouldDoNothing(){
+
+        GameEventLog eventLog = new GameEventLog(false, this.directory.resolve("log").toString(), 1 << 16,
+                "always", 1000);
+
+        assertThat(eventLog.append(GameEvent.reset("game"))).isEqualTo(-1);
+        assertThat(eventLog.replay(0, event -> {})).isEqualTo(0);
+        assertThat(Files.exists(this.directory.resolve("log"))).isFalse();
+    }
+}
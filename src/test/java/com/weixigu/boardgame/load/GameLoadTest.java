@@ -0,0 +1,263 @@
+package com.weixigu.boardgame.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.domain.BitBoard;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * End-to-end load test: the application on a random port and 'load.clients' concurrent clients, each playing full
+ * games (create game, save-move until the game is over, save-record of both players, leaderboard read) for
+ * 'load.duration-seconds' after 'load.warmup-seconds' of warm-up.
+ *
+ * Reports the games per second and, per endpoint, the throughput and p50/p99/p999 latency (logged, and written as
+ * JSON to target/load-test-report.json). Tagged 'load', so it only runs with the load-test profile:
+ * mvn -P load-test test -Dload.clients=32 -Dload.duration-seconds=60
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GameLoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final int numOfClients = Integer.getInteger("load.clients", 16);
+    private final int durationSeconds = Integer.getInteger("load.duration-seconds", 30);
+    private final int warmupSeconds = Integer.getInteger("load.warmup-seconds", 5);
+    private final int boardLength = Integer.getInteger("load.board-length", 3);
+    private final int winLength = Integer.getInteger("load.win-length", 3);
+
+    private final Map<String, Recorder> latencies = new LinkedHashMap<>();
+    private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+    private final LongAdder numOfGames = new LongAdder();
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private volatile boolean isMeasuring;
+
+    @LocalServerPort
+    private int port;
+
+    GameLoadTest(){
+        for(String endpoint : new String[]{"createGame", "saveMove", "saveRecord", "leaderboard"}){
+            this.latencies.put(endpoint, new Recorder(MAX_LATENCY_NANOS, 3));
+            this.errors.put(endpoint, new LongAdder());
+        }
+
+        //Failed requests are counted, not thrown.
+        this.restTemplate.setErrorHandler(new ResponseErrorHandler(){
+            @Override
+            public boolean hasError(ClientHttpResponse response){
+                return false;
+            }
+
+            @Override
+            public void handleError(ClientHttpResponse response){
+            }
+        });
+    }
+
+    private String url(String path){
+        return "http://localhost:" + this.port + path;
+    }
+
+    //Send the request and record its latency under the endpoint; return the response body, or null if it failed.
+    private String send(String endpoint, HttpMethod method, String path, Object body){
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        long start = System.nanoTime();
+        ResponseEntity<String> response = this.restTemplate.exchange(this.url(path), method,
+                new HttpEntity<>(body, headers), String.class);
+        long latency = System.nanoTime() - start;
+
+        boolean isSuccessful = response.getStatusCode().is2xxSuccessful();
+
+        if(this.isMeasuring){
+            this.latencies.get(endpoint).recordValue(Math.min(latency, MAX_LATENCY_NANOS));
+
+            if(!isSuccessful){
+                this.errors.get(endpoint).increment();
+            }
+        }
+
+        return isSuccessful ? response.getBody() : null;
+    }
+
+    private static Map<String, Object> record(String lastName, int wins, int losses, int draws){
+        Map<String, Object> player = new LinkedHashMap<>();
+
+        player.put("firstName", "Load");
+        player.put("lastName", lastName);
+        player.put("nickName", "");
+        player.put("numTicTacToeWin", wins);
+        player.put("numTicTacToeLoss", losses);
+        player.put("numTicTacToeDraw", draws);
+
+        return player;
+    }
+
+    //Play one full game with random legal moves; return false if a request failed.
+    private boolean playGame(int client, Random random) throws IOException{
+
+        String createdGame = this.send("createGame", HttpMethod.POST,
+                String.format("/tictactoes/games?boardLength=%d&winLength=%d", this.boardLength, this.winLength), null);
+
+        if(createdGame == null){
+            return false;
+        }
+
+        String gameId = OBJECT_MAPPER.readTree(createdGame).get("gameId").asText();
+        BitBoard board = BitBoard.empty(this.boardLength, this.winLength);
+
+        while(board.getWinner() == null && !board.isFull()){
+
+            int row;
+            int col;
+
+            do{
+                row = random.nextInt(this.boardLength);
+                col = random.nextInt(this.boardLength);
+            }while(!board.isEmpty(row, col));
+
+            board = board.play(row, col, board.isXNext());
+
+            Map<String, Object> move = new LinkedHashMap<>();
+            move.put("xNext", board.isXNext());
+            move.put("board", board.toCells());
+            move.put("boardLength", this.boardLength);
+            move.put("winLength", this.winLength);
+
+            if(this.send("saveMove", HttpMethod.POST, "/tictactoes/games/" + gameId + "/save-move", move) == null){
+                return false;
+            }
+        }
+
+        //Each client has its own two players, so that clients don't create the same new player at once.
+        String winner = board.getWinner();
+        String playerX = "Client" + client + "X";
+        String playerO = "Client" + client + "O";
+        boolean isXWinner = BitBoard.PLAYER_X.equals(winner);
+        int draws = winner == null ? 1 : 0;
+
+        boolean isSaved = this.send("saveRecord", HttpMethod.POST, "/players/save-record",
+                record(playerX, isXWinner ? 1 : 0, winner != null && !isXWinner ? 1 : 0, draws)) != null;
+        isSaved &= this.send("saveRecord", HttpMethod.POST, "/players/save-record",
+                record(playerO, winner != null && !isXWinner ? 1 : 0, isXWinner ? 1 : 0, draws)) != null;
+
+        return isSaved && this.send("leaderboard", HttpMethod.GET, "/players/leaderboard?top=10", null) != null;
+    }
+
+    private static Map<String, Object> summarize(Histogram histogram, long numOfErrors, double seconds){
+        Map<String, Object> summary = new LinkedHashMap<>();
+
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", numOfErrors);
+        summary.put("throughputPerSecond", histogram.getTotalCount() / seconds);
+        summary.put("p50Millis", histogram.getValueAtPercentile(50) / 1e6);
+        summary.put("p99Millis", histogram.getValueAtPercentile(99) / 1e6);
+        summary.put("p999Millis", histogram.getValueAtPercentile(99.9) / 1e6);
+        summary.put("maxMillis", histogram.getMaxValue() / 1e6);
+
+        return summary;
+    }
+
+    @Test
+    void playFullGames_concurrentClients_shouldReportThroughputAndLatency() throws Exception{
+
+        LOGGER.info(String.format("Load test: %d clients, %d s warm-up, %d s measured, %dx%d board.",
+                this.numOfClients, this.warmupSeconds, this.durationSeconds, this.boardLength, this.boardLength));
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(this.warmupSeconds);
+        long measureTo = measureFrom + TimeUnit.SECONDS.toNanos(this.durationSeconds);
+
+        ExecutorService clients = Executors.newFixedThreadPool(this.numOfClients);
+        List<Future<?>> results = new ArrayList<>();
+
+        for(int i = 0; i < this.numOfClients; i++){
+            int client = i;
+
+            results.add(clients.submit(() -> {
+                Random random = new Random(client);
+
+                while(System.nanoTime() < measureTo){
+                    boolean isMeasured = this.isMeasuring;
+
+                    if(this.playGame(client, random) && isMeasured && this.isMeasuring){
+                        this.numOfGames.increment();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        TimeUnit.NANOSECONDS.sleep(measureFrom - System.nanoTime());
+        this.isMeasuring = true;
+        TimeUnit.NANOSECONDS.sleep(measureTo - System.nanoTime());
+        this.isMeasuring = false;
+
+        for(Future<?> result : results){
+            result.get();
+        }
+        clients.shutdown();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", this.numOfClients);
+        report.put("durationSeconds", this.durationSeconds);
+        report.put("games", this.numOfGames.sum());
+        report.put("gamesPerSecond", this.numOfGames.sum() / (double) this.durationSeconds);
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long numOfErrors = 0;
+
+        for(Map.Entry<String, Recorder> entry : this.latencies.entrySet()){
+            long numOfEndpointErrors = this.errors.get(entry.getKey()).sum();
+            endpoints.put(entry.getKey(), summarize(entry.getValue().getIntervalHistogram(), numOfEndpointErrors,
+                    this.durationSeconds));
+            numOfErrors += numOfEndpointErrors;
+        }
+        report.put("endpoints", endpoints);
+
+        String json = OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(new File("target/load-test-report.json"), report);
+        LOGGER.info("Load test report:\n" + json);
+
+        JsonNode saveMove = OBJECT_MAPPER.valueToTree(endpoints).get("saveMove");
+        assertThat(this.numOfGames.sum()).isPositive();
+        assertThat(saveMove.get("requests").asLong()).isPositive();
+        assertThat(numOfErrors).isZero();
+    }
+}
@@ -0,0 +1,131 @@
+package com.weixigu.boardgame.locking;
+
+import com.weixigu.boardgame.domain.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PlayerLocksUnitTest {
+
+    private static Player player(String firstName, String lastName){
+        return Player.playerBuilder().firstName(firstName).lastName(lastName).build();
+    }
+
+    //Plain (non-atomic) read-modify-write, which loses updates unless the callers are linearized.
+    private static final class Counter {
+        private long value;
+
+        private void increment(){
+            long current = this.value;
+            Thread.yield();
+            this.value = current + 1;
+        }
+    }
+
+    @Test
+    void withLock_samePlayerUnderContention_shouldLoseNoUpdate() throws Exception{
+
+        PlayerLocks playerLocks = new PlayerLocks(16);
+        Counter counter = new Counter();
+        int numOfThreads = 8;
+        int numOfIncrementsPerThread = 2000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+        List<Future<?>> results = new ArrayList<>();
+
+        for(int i = 0; i < numOfThreads; i++){
+            //The same player under differently cased names.
+            Player player = i % 2 == 0 ? player("Rick", "Sanchez") : player("RICK", "sanchez");
+
+            results.add(executor.submit(() -> {
+                for(int j = 0; j < numOfIncrementsPerThread; j++){
+                    playerLocks.withLock(player, () -> {
+                        counter.increment();
+                        return null;
+                    });
+                }
+            }));
+        }
+
+        for(Future<?> result : results){
+            result.get();
+        }
+        executor.shutdown();
+
+        assertThat(counter.value).isEqualTo((long) numOfThreads * numOfIncrementsPerThread);
+        assertThat(playerLocks.getStatistics().get("acquisitions")).isEqualTo((long) numOfThreads *
+                numOfIncrementsPerThread);
+    }
+
+    @Test
+    void withLock_playersOfDifferentStripes_shouldRunInParallel() throws Exception{
+
+        PlayerLocks playerLocks = new PlayerLocks(64);
+        Player rick = player("Rick", "Sanchez");
+        Player other = null;
+
+        for(int i = 0; other == null; i++){
+            Player candidate = player("Morty" + i, "Smith");
+
+            if(playerLocks.stripeOf(candidate) != playerLocks.stripeOf(rick)){
+                other = candidate;
+            }
+        }
+
+        //Both actions wait inside their locks for each other; that only ends if they hold their locks at once.
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for(Player player : new Player[]{rick, other}){
+            results.add(executor.submit(() -> playerLocks.withLock(player, () -> {
+                try{
+                    return barrier.await(5, TimeUnit.SECONDS);
+
+                }catch (Exception exception){
+                    throw new RuntimeException(exception);
+                }
+            })));
+        }
+
+        for(Future<Integer> result : results){
+            assertThatCode(result::get).doesNotThrowAnyException();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void withLocks_twoPlayersInOppositeOrders_shouldNotDeadlock() throws Exception{
+
+        PlayerLocks playerLocks = new PlayerLocks(64);
+        Player rick = player("Rick", "Sanchez");
+        Player morty = player("Morty", "Smith");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<?>> results = new ArrayList<>();
+
+        for(Player[] players : new Player[][]{{rick, morty}, {morty, rick}}){
+            results.add(executor.submit(() -> {
+                for(int i = 0; i < 10000; i++){
+                    playerLocks.withLocks(players, () -> null);
+                }
+            }));
+        }
+
+        for(Future<?> result : results){
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(playerLocks.getNumOfStripes()).isEqualTo(64);
+        assertThat(new PlayerLocks(100).getNumOfStripes()).isEqualTo(128);
+        assertThatThrownBy(()-> new PlayerLocks(0)).isInstanceOf(RuntimeException.class);
+    }
+}
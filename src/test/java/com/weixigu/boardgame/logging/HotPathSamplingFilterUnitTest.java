@@ -0,0 +1,63 @@
+package com.weixigu.boardgame.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MarkerFactory;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HotPathSamplingFilterUnitTest {
+
+    private final Logger logger = new LoggerContext().getLogger("test");
+
+    @Test
+    void decide_hotPathEvents_shouldKeepOneInSampleEvery(){
+
+        HotPathSamplingFilter filter = new HotPathSamplingFilter();
+        filter.setSampleEvery(4);
+        this.logger.setLevel(Level.INFO);
+
+        int numOfKeptEvents = 0;
+
+        for(int i = 0; i < 100; i++){
+            if(filter.decide(LogMarkers.HOT_PATH, this.logger, Level.INFO, "move {}", null, null) ==
+                    FilterReply.NEUTRAL){
+                numOfKeptEvents++;
+            }
+        }
+
+        assertThat(numOfKeptEvents).isEqualTo(25);
+    }
+
+    @Test
+    void decide_otherEventsOrLevelChecks_shouldNotBeSampled(){
+
+        HotPathSamplingFilter filter = new HotPathSamplingFilter();
+        filter.setSampleEvery(1000);
+        this.logger.setLevel(Level.INFO);
+
+        filter.decide(LogMarkers.HOT_PATH, this.logger, Level.INFO, "first", null, null);
+
+        for(int i = 0; i < 10; i++){
+            assertThat(filter.decide(null, this.logger, Level.INFO, "message", null, null))
+                    .isEqualTo(FilterReply.NEUTRAL);
+            assertThat(filter.decide(MarkerFactory.getMarker("OTHER"), this.logger, Level.INFO, "message", null, null))
+                    .isEqualTo(FilterReply.NEUTRAL);
+            assertThat(filter.decide(LogMarkers.HOT_PATH, this.logger, Level.INFO, null, null, null))
+                    .isEqualTo(FilterReply.NEUTRAL);
+        }
+    }
+
+    @Test
+    void lazy_argument_shouldOnlyBeComputedWhenFormatted(){
+
+        int[] numOfCalls = {0};
+        Object argument = LogArgs.lazy(() -> ++numOfCalls[0]);
+
+        assertThat(numOfCalls[0]).isZero();
+        assertThat(argument.toString()).isEqualTo("1");
+    }
+}
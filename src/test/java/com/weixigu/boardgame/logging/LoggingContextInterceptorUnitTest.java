@@ -0,0 +1,40 @@
+package com.weixigu.boardgame.logging;
+
+import com.weixigu.boardgame.endpoint.TicTacToeEndpoint;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class LoggingContextInterceptorUnitTest {
+
+    @Test
+    void preHandle_gameRequest_shouldPutContextInMdcUntilCompletion() throws Exception{
+
+        LoggingContextInterceptor interceptor = new LoggingContextInterceptor();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HandlerMethod handler = new HandlerMethod(mock(TicTacToeEndpoint.class),
+                TicTacToeEndpoint.class.getMethod("viewGame", String.class));
+
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+                Collections.singletonMap("gameId", "game-1"));
+
+        assertThat(interceptor.preHandle(request, response, handler)).isTrue();
+        assertThat(MDC.get(LoggingContextInterceptor.ENDPOINT)).isEqualTo("TicTacToeEndpoint.viewGame");
+        assertThat(MDC.get(LoggingContextInterceptor.GAME_ID)).isEqualTo("game-1");
+        assertThat(MDC.get(LoggingContextInterceptor.PLAYER_ID)).isNull();
+
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(MDC.get(LoggingContextInterceptor.ENDPOINT)).isNull();
+        assertThat(MDC.get(LoggingContextInterceptor.GAME_ID)).isNull();
+    }
+}
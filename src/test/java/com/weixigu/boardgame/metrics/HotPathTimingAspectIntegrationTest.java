@@ -0,0 +1,53 @@
+package com.weixigu.boardgame.metrics;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.service.TicTacToeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class HotPathTimingAspectIntegrationTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+
+    @Autowired
+    private TicTacToeService ticTacToeService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private long countOf(String name, String className, String method, String outcome){
+        Timer timer = this.registry.find(name).tag("class", className).tag("method", method)
+                .tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    @Test
+    void serviceCall_succeedsOrFails_shouldBeTimedByOutcome(){
+
+        LOGGER.info("Integration test: serviceCall_succeedsOrFails_shouldBeTimedByOutcome().");
+
+        long numOfSuccesses = this.countOf(HotPathTimingAspect.SERVICE_TIMER, "TicTacToeService", "createGame",
+                "success");
+        long numOfErrors = this.countOf(HotPathTimingAspect.SERVICE_TIMER, "TicTacToeService", "createGame", "error");
+        long numOfSaves = this.countOf(HotPathTimingAspect.REPOSITORY_TIMER, "ITicTacToeRepository", "save",
+                "success");
+
+        this.ticTacToeService.createGame(3, 3);
+        assertThatThrownBy(()-> this.ticTacToeService.createGame(20, 5)).isInstanceOf(RuntimeException.class);
+
+        assertThat(this.countOf(HotPathTimingAspect.SERVICE_TIMER, "TicTacToeService", "createGame", "success"))
+                .isEqualTo(numOfSuccesses + 1);
+        assertThat(this.countOf(HotPathTimingAspect.SERVICE_TIMER, "TicTacToeService", "createGame", "error"))
+                .isEqualTo(numOfErrors + 1);
+        assertThat(this.countOf(HotPathTimingAspect.REPOSITORY_TIMER, "ITicTacToeRepository", "save", "success"))
+                .isEqualTo(numOfSaves + 1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.weixigu.boardgame.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HotPathTimingAspectUnitTest {
+
+    //Stand-in for a service: its methods are the timed ones.
+    static class SomeService {
+        public String play(){
+            return "played";
+        }
+    }
+
+    @Test
+    void timeService_methodCalledAgain_shouldRegisterItsTimerOnce() throws Throwable{
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AtomicInteger numOfRegistrations = new AtomicInteger();
+
+        //A meter filter maps the id of every meter registered (or looked up) in the registry.
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id){
+                numOfRegistrations.incrementAndGet();
+                return id;
+            }
+        });
+
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getDeclaringType()).thenReturn(SomeService.class);
+        when(signature.getName()).thenReturn("play");
+        when(signature.getMethod()).thenReturn(SomeService.class.getMethod("play"));
+
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenReturn("played");
+
+        HotPathTimingAspect aspect = new HotPathTimingAspect(registry);
+
+        for(int i = 0; i < 3; i++){
+            assertThat(aspect.timeService(joinPoint)).isEqualTo("played");
+        }
+
+        Timer timer = registry.find(HotPathTimingAspect.SERVICE_TIMER).tag("class", "SomeService")
+                .tag("method", "play").tag("outcome", "success").timer();
+
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(3);
+        assertThat(numOfRegistrations.get()).isEqualTo(1);
+    }
+}
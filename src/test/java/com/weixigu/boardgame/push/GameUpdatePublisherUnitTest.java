@@ -0,0 +1,73 @@
+package com.weixigu.boardgame.push;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class GameUpdatePublisherUnitTest {
+
+    @Test
+    void publish_gameHasSubscribers_shouldSerializeOnceAndSendToAll() throws Exception{
+
+        ObjectMapper objectMapper = spy(new ObjectMapper());
+        GameUpdatePublisher publisher = new GameUpdatePublisher(objectMapper, 60000, 1);
+
+        publisher.subscribe("game-a");
+        publisher.subscribe("game-a");
+        publisher.subscribe("game-b");
+
+        assertThat(publisher.publish("game-a", "move", Collections.singletonMap("moveNumber", 1))).isEqualTo(2);
+        verify(objectMapper, times(1)).writeValueAsString(any());
+
+        assertThat(publisher.getStatistics().get("numOfSubscribers").intValue()).isEqualTo(3);
+        assertThat(publisher.getStatistics().get("numOfSentUpdates").longValue()).isEqualTo(2);
+    }
+
+    @Test
+    void publish_gameHasNoSubscriber_shouldNotSerialize() throws Exception{
+
+        ObjectMapper objectMapper = spy(new ObjectMapper());
+        GameUpdatePublisher publisher = new GameUpdatePublisher(objectMapper, 60000, 1);
+
+        publisher.subscribe("game-a");
+
+        assertThat(publisher.publish("game-b", "reset", "message")).isEqualTo(0);
+        verify(objectMapper, never()).writeValueAsString(any());
+    }
+
+    @Test
+    void publishAsync_severalUpdates_shouldSendThemInOrderFromTheSenderThread() throws Exception{
+
+        ObjectMapper objectMapper = spy(new ObjectMapper());
+        GameUpdatePublisher publisher = new GameUpdatePublisher(objectMapper, 60000, 2);
+        List<String> threadNames = new CopyOnWriteArrayList<>();
+
+        doAnswer(invocation -> {
+            threadNames.add(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(objectMapper).writeValueAsString(any());
+
+        publisher.subscribe("game-a");
+
+        for(int moveNumber = 0; moveNumber < 3; moveNumber++){
+            publisher.publishAsync("game-a", "move", Collections.singletonMap("moveNumber", moveNumber));
+        }
+
+        ArgumentCaptor<Object> updates = ArgumentCaptor.forClass(Object.class);
+        verify(objectMapper, timeout(5000).times(3)).writeValueAsString(updates.capture());
+        publisher.close();
+
+        assertThat(updates.getAllValues()).extracting(update -> (Object) ((Map<?, ?>) update).get("moveNumber"))
+                .containsExactly(0, 1, 2);
+        assertThat(threadNames).hasSize(3).allMatch(name -> name.startsWith("game-update-sender-"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.weixigu.boardgame.ranking;
+
+import com.weixigu.boardgame.domain.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PlayerLeaderboardUnitTest {
+
+    private PlayerLeaderboard playerLeaderboard;
+
+    @BeforeEach
+    void setUp(){
+        this.playerLeaderboard = new PlayerLeaderboard();
+    }
+
+    private static Player player(long id, int wins, int losses){
+        return Player.playerBuilder().id(id).firstName("foo" + id).numTicTacToeWin(wins).numTicTacToeLoss(losses)
+                .build();
+    }
+
+    @Test
+    void top_playersOfEqualScores_shouldRankSmallerIdFirst(){
+
+        this.playerLeaderboard.add(player(3, 5, 0));
+        this.playerLeaderboard.add(player(1, 2, 0));
+        this.playerLeaderboard.add(player(2, 7, 2));
+
+        List<Long> ids = this.playerLeaderboard.top(10).stream().map(Player::getId).collect(Collectors.toList());
+
+        assertThat(ids).containsExactly(2L, 3L, 1L);
+        assertThat(this.playerLeaderboard.rankOf(3L)).isEqualTo(2);
+        assertThat(this.playerLeaderboard.top(1)).extracting(Player::getId).containsExactly(2L);
+    }
+
+    @Test
+    void add_samePlayerWithNewRecord_shouldMoveIt(){
+
+        this.playerLeaderboard.add(player(1, 1, 0));
+        this.playerLeaderboard.add(player(2, 2, 0));
+        this.playerLeaderboard.add(player(1, 3, 0));
+
+        assertThat(this.playerLeaderboard.size()).isEqualTo(2);
+        assertThat(this.playerLeaderboard.rankOf(1L)).isEqualTo(1);
+        assertThat(this.playerLeaderboard.playerOf(1L).getScore()).isEqualTo(3);
+
+        this.playerLeaderboard.remove(1L);
+
+        assertThat(this.playerLeaderboard.rankOf(1L)).isZero();
+        assertThat(this.playerLeaderboard.rankOf(2L)).isEqualTo(1);
+    }
+
+    @Test
+    void rankOf_randomUpdates_shouldMatchSortedOrder(){
+
+        Random random = new Random(7);
+        Map<Long, Player> players = new HashMap<>();
+
+        for(int i = 0; i < 2000; i++){
+            long id = random.nextInt(300);
+
+            if(random.nextInt(4) == 0){
+                players.remove(id);
+                this.playerLeaderboard.remove(id);
+
+            }else{
+                Player player = player(id, random.nextInt(20), random.nextInt(20));
+                players.put(id, player);
+                this.playerLeaderboard.add(player);
+            }
+        }
+
+        List<Player> expected = new ArrayList<>(players.values());
+        expected.sort(Comparator.comparing(Player::getScore).reversed().thenComparing(Player::getId));
+
+        assertThat(this.playerLeaderboard.top(expected.size() + 1)).extracting(Player::getId)
+                .containsExactlyElementsOf(expected.stream().map(Player::getId).collect(Collectors.toList()));
+
+        for(int i = 0; i < expected.size(); i++){
+            assertThat(this.playerLeaderboard.rankOf(expected.get(i).getId())).isEqualTo(i + 1);
+        }
+    }
+
+    @Test
+    void playerOf_addedPlayerChanged_shouldKeepRankedPlayer(){
+
+        Player player = player(1, 1, 0);
+
+        this.playerLeaderboard.add(player);
+        player.setAsDeleted();
+        this.playerLeaderboard.top(1).get(0).setAsDeleted();
+        this.playerLeaderboard.playerOf(1L).setAsDeleted();
+
+        assertThat(this.playerLeaderboard.playerOf(1L).isDeleted()).isFalse();
+    }
+
+    @Test
+    void add_transactionRolledBack_shouldUndoChanges(){
+
+        this.playerLeaderboard.add(player(1, 1, 0));
+        this.playerLeaderboard.add(player(2, 2, 0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try{
+            this.playerLeaderboard.add(player(1, 5, 0));
+            this.playerLeaderboard.addRecord(1L, player(1, 1, 0));
+            this.playerLeaderboard.remove(2L);
+            this.playerLeaderboard.add(player(3, 9, 0));
+
+            assertThat(this.playerLeaderboard.top(10)).extracting(Player::getId).containsExactly(3L, 1L);
+
+            for(TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()){
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        }finally{
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(this.playerLeaderboard.top(10)).extracting(Player::getId).containsExactly(2L, 1L);
+        assertThat(this.playerLeaderboard.playerOf(1L).getScore()).isEqualTo(1);
+        assertThat(TransactionSynchronizationManager.getResource(this.playerLeaderboard)).isNull();
+    }
+}
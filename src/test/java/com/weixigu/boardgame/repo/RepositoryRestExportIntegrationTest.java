@@ -0,0 +1,84 @@
+package com.weixigu.boardgame.repo;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Checks which repository queries Spring Data REST serves under /rest-api; internal ones must not be exported.
+@SpringBootTest
+class RepositoryRestExportIntegrationTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp(){
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+    }
+
+    private String get200(String path) throws Exception{
+
+        return this.mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse()
+                .getContentAsString();
+    }
+
+    @Test
+    void ticTacToeSearches_internalQueries_shouldNotBeExported() throws Exception{
+
+        LOGGER.info("Integration test: ticTacToeSearches_internalQueries_shouldNotBeExported().");
+
+        String searches = this.get200("/rest-api/ticTacToes/search");
+
+        assertThat(searches).contains("findByGameIdAndIsCurrentGame")
+                .doesNotContain("existsByGameId", "removeAllFromCurrentGame", "removeFromCurrentGameAfter",
+                        "findRemovedMoves");
+    }
+
+    @Test
+    void playerSearches_overloadedQuery_shouldBeServedOnce() throws Exception{
+
+        LOGGER.info("Integration test: playerSearches_overloadedQuery_shouldBeServedOnce().");
+
+        String searches = this.get200("/rest-api/players/search");
+
+        assertThat(searches).containsOnlyOnce("/findByIsDeleted");
+    }
+
+    @Test
+    void playerSearches_internalQueries_shouldNotBeExported() throws Exception{
+
+        LOGGER.info("Integration test: playerSearches_internalQueries_shouldNotBeExported().");
+
+        String searches = this.get200("/rest-api/players/search");
+
+        assertThat(searches).contains("findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted")
+                .doesNotContain("\"incrementRecord\"", "incrementRecords", "streamNonDeletedPlayers",
+                        "findDeletedPlayers");
+    }
+
+    @Test
+    void archiveRepositories_shouldNotBeExported() throws Exception{
+
+        LOGGER.info("Integration test: archiveRepositories_shouldNotBeExported().");
+
+        assertThat(this.get200("/rest-api")).contains("/rest-api/players", "/rest-api/ticTacToes")
+                .doesNotContain("archived");
+        this.mockMvc.perform(get("/rest-api/archivedPlayers")).andExpect(status().isNotFound());
+        this.mockMvc.perform(get("/rest-api/archivedTicTacToes")).andExpect(status().isNotFound());
+    }
+}
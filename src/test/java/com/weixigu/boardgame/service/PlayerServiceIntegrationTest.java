@@ -11,6 +11,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.assertj.core.api.Assertions.*;
 
 @SpringBootTest
@@ -55,6 +64,114 @@ public class PlayerServiceIntegrationTest {
         assertThat(Player.haveSameData(myPage.getContent().get(0), FIRST_PRELOADED_PLAYER)).isTrue();
     }
 
+    @Test
+    void getPlayerRepo_sortByScore_shouldSortInRepo(){
+
+        LOGGER.info("Integration test: getPlayerRepo_sortByScore_shouldSortInRepo().");
+
+        //Bender Rodríguez (see PlayerDataLoader.java) has by far the lowest score.
+        Page<Player> myPage = this.playerService.getPlayerRepo(0, 1, "score");
+
+        assertThat(myPage.getNumberOfElements()).isEqualTo(1);
+        assertThat(myPage.getTotalElements()).isGreaterThanOrEqualTo(NUM_OF_PRELOADED_PLAYERS);
+        assertThat(myPage.getContent().get(0).getFirstName()).isEqualTo("Bender");
+        assertThat(myPage.getContent().get(0).getScore()).isEqualTo(11 - 101011);
+    }
+
+    @Transactional
+    @Test
+    void getRank_afterSavingRecord_shouldFollowTheNewScore(){
+
+        LOGGER.info("Integration test: getRank_afterSavingRecord_shouldFollowTheNewScore().");
+
+        Player record = Player.playerBuilder().firstName("Summer").lastName("Smith").numTicTacToeWin(1).build();
+
+        this.playerService.saveRecord(record);
+        Long id = this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
+                "Summer", "Smith", false).get(0).getId();
+        int rankAfterOneWin = this.playerService.getRank(id).get("rank").intValue();
+        this.playerService.saveRecord(record);
+
+        assertThat(this.playerService.getRank(id).get("score")).isEqualTo(2);
+        assertThat(this.playerService.getRank(id).get("rank").intValue()).isLessThanOrEqualTo(rankAfterOneWin);
+
+        int rank = this.playerService.getRank(id).get("rank").intValue();
+        assertThat(this.playerService.getLeaderboard(rank).get(rank - 1).getId()).isEqualTo(id);
+    }
+
+    @Transactional
+    @Test
+    void saveRecord_playerHasRecord_shouldUpdateTheSameRow(){
+
+        LOGGER.info("Integration test: saveRecord_playerHasRecord_shouldUpdateTheSameRow().");
+
+        Player win = Player.playerBuilder().firstName("Beth").lastName("Smith").nickName("Doc").numTicTacToeWin(1)
+                .build();
+        Player loss = Player.playerBuilder().firstName("BETH").lastName("SMITH").numTicTacToeLoss(1).build();
+
+        this.playerService.saveRecord(win);
+        long numOfPlayers = this.playerRepository.count();
+        this.playerService.saveRecord(loss);
+        this.playerService.saveRecord(win);
+
+        assertThat(this.playerRepository.count()).isEqualTo(numOfPlayers);
+
+        Player player = this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
+                "beth", "smith", false).get(0);
+        assertThat(player.getNumTicTacToeWin()).isEqualTo(2);
+        assertThat(player.getNumTicTacToeLoss()).isEqualTo(1);
+        assertThat(player.getNickName()).isEqualTo("Doc");
+    }
+
+    @Transactional
+    @Test
+    void saveRecord_playerWasLookedUpBefore_shouldHitCache(){
+
+        LOGGER.info("Integration test: saveRecord_playerWasLookedUpBefore_shouldHitCache().");
+
+        Player record = Player.playerBuilder().firstName("Morty").lastName("Smith").numTicTacToeDraw(1).build();
+
+        this.playerService.saveRecord(record);
+        long misses = this.playerService.getCacheStatistics().get("misses").longValue();
+
+        //The names written by the first record are still cached, so validating and merging don't query the repo.
+        this.playerService.saveRecord(record);
+
+        assertThat(this.playerService.getCacheStatistics().get("misses").longValue()).isEqualTo(misses);
+        assertThat(this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted("morty", "smith", false)
+                .get(0).getNumTicTacToeDraw()).isEqualTo(2);
+    }
+
+    @Transactional
+    @Test
+    void saveRecords_batchWithInvalidRecords_shouldSaveTheOthersAndReportErrors(){
+
+        LOGGER.info("Integration test: saveRecords_batchWithInvalidRecords_shouldSaveTheOthersAndReportErrors().");
+
+        Player win = Player.playerBuilder().firstName("Jerry").lastName("Smith").numTicTacToeWin(1).build();
+        Player loss = Player.playerBuilder().firstName("JERRY").lastName("smith").numTicTacToeLoss(1).build();
+        Player twoWins = Player.playerBuilder().firstName("Jerry").lastName("Smith").numTicTacToeWin(2).build();
+
+        Map<String, Object> report = this.playerService.saveRecords(Arrays.asList(win, loss, twoWins, null));
+
+        assertThat(report.get("numOfSavedRecords")).isEqualTo(2);
+        assertThat(report.get("numOfPlayers")).isEqualTo(1);
+        assertThat((List<?>) report.get("errors")).hasSize(2);
+
+        //The second batch adds to the player inserted by the first one.
+        report = this.playerService.saveRecords(Arrays.asList(win, win));
+
+        assertThat(report.get("numOfSavedRecords")).isEqualTo(2);
+        assertThat((List<?>) report.get("errors")).isEmpty();
+
+        List<Player> copies = this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
+                "jerry", "smith", false);
+        assertThat(copies).hasSize(1);
+        assertThat(copies.get(0).getNumTicTacToeWin()).isEqualTo(3);
+        assertThat(copies.get(0).getNumTicTacToeLoss()).isEqualTo(1);
+        assertThat(this.playerService.getRank(copies.get(0).getId()).get("score")).isEqualTo(2);
+    }
+
     @Test
     void getPlayerRepo_pageNumberIsGreaterThanMaxInteger_shouldFail(){
 
@@ -151,4 +268,100 @@ public class PlayerServiceIntegrationTest {
                 .hasMessageContaining(player.fullName())
                 .hasMessageContaining("DNE");
     }
+
+    @Test
+    void saveRecord_concurrentRecordsOfNewPlayer_shouldKeepOneRowAndCountEachRecord() throws Exception{
+
+        LOGGER.info("Integration test: saveRecord_concurrentRecordsOfNewPlayer_shouldKeepOneRowAndCountEachRecord().");
+
+        int numOfThreads = 8;
+        int numOfRecordsPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        //Every thread saves records of the same (new) player, under differently cased names, all at once.
+        for(int i = 0; i < numOfThreads; i++){
+            boolean isWinner = i % 2 == 0;
+            Player record = Player.playerBuilder().firstName(isWinner ? "Mr" : "MR").lastName("Meeseeks")
+                    .numTicTacToeWin(isWinner ? 1 : 0).numTicTacToeLoss(isWinner ? 0 : 1).build();
+
+            results.add(executor.submit(() -> {
+                start.await();
+
+                for(int j = 0; j < numOfRecordsPerThread; j++){
+                    this.playerService.saveRecord(record);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+
+        for(Future<?> result : results){
+            result.get();
+        }
+        executor.shutdown();
+
+        List<Player> copies = this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
+                "mr", "meeseeks", false);
+
+        assertThat(copies).hasSize(1);
+        assertThat(copies.get(0).getNumTicTacToeWin()).isEqualTo(numOfThreads / 2 * numOfRecordsPerThread);
+        assertThat(copies.get(0).getNumTicTacToeLoss()).isEqualTo(numOfThreads / 2 * numOfRecordsPerThread);
+        assertThat(this.playerService.getLockStatistics().get("acquisitions").longValue())
+                .isGreaterThanOrEqualTo(numOfThreads * numOfRecordsPerThread);
+
+        //The database is shared with the other tests, which count the non-deleted players.
+        this.playerService.deletePlayer(copies.get(0));
+    }
+
+    @Test
+    void saveRecords_concurrentWithSaveRecordOfNewPlayer_shouldKeepOneRowAndCountEachRecord() throws Exception{
+
+        LOGGER.info("Integration test: saveRecords_concurrentWithSaveRecordOfNewPlayer_shouldKeepOneRowAndCountEachRecord().");
+
+        int numOfThreads = 8;
+        int numOfRecordsPerThread = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        //Half of the threads save batches and the other half single records of the same (new) player, all at once.
+        for(int i = 0; i < numOfThreads; i++){
+            boolean isBatch = i % 2 == 0;
+            Player record = Player.playerBuilder().firstName(isBatch ? "Bird" : "BIRD").lastName("Person")
+                    .numTicTacToeWin(1).numTicTacToeLoss(0).numTicTacToeDraw(0).build();
+
+            results.add(executor.submit(() -> {
+                start.await();
+
+                for(int j = 0; j < numOfRecordsPerThread; j++){
+
+                    if(isBatch){
+                        this.playerService.saveRecords(Arrays.asList(record, record));
+                    }else{
+                        this.playerService.saveRecord(record);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+
+        for(Future<?> result : results){
+            result.get();
+        }
+        executor.shutdown();
+
+        List<Player> copies = this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
+                "bird", "person", false);
+
+        assertThat(copies).hasSize(1);
+        assertThat(copies.get(0).getNumTicTacToeWin()).isEqualTo(numOfThreads / 2 * numOfRecordsPerThread * 3);
+
+        //The database is shared with the other tests, which count the non-deleted players.
+        this.playerService.deletePlayer(copies.get(0));
+    }
 }
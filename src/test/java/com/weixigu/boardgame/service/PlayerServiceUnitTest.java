@@ -1,13 +1,20 @@
 package com.weixigu.boardgame.service;
 
+import com.weixigu.boardgame.cache.PlayerCache;
 import com.weixigu.boardgame.domain.Player;
+import com.weixigu.boardgame.locking.PlayerLocks;
+import com.weixigu.boardgame.logging.LoggingContextInterceptor;
+import com.weixigu.boardgame.ranking.PlayerLeaderboard;
 import com.weixigu.boardgame.repo.IPlayerRepository;
+import com.weixigu.boardgame.writebehind.PlayerRecordBuffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.slf4j.MDC;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -24,14 +31,43 @@ class PlayerServiceUnitTest {
     @Mock
     private IPlayerRepository playerRepository;
 
+    @Mock
+    private PlayerLeaderboard playerLeaderboard;
+
+    @Mock
+    private PlayerCache playerCache;
+
+    @Mock
+    private PlayerRecordBuffer recordBuffer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @BeforeEach
     void setUp(){
 
         //Initialize fields annotated with Mockito annotations (e.g. @Mock)
         MockitoAnnotations.initMocks(this);
 
+        //The cache always misses, so every lookup reaches the (stubbed) repository.
+        Mockito.when(this.playerCache.get(Mockito.anyString(), Mockito.anyString())).thenReturn(null);
+
         //Instantiate an instance of the class to be tested.
-        this.playerService = new PlayerService(this.playerRepository);
+        this.playerService = new PlayerService(this.playerRepository, this.playerLeaderboard,
+                this.playerCache, this.recordBuffer, new PlayerLocks(4), this.transactionManager);
+    }
+
+    //Stub the paged query with a repository holding the given (non-deleted) players.
+    private void stubFindByIsDeleted(List<Player> players){
+
+        Mockito.when(this.playerRepository.findByIsDeleted(Mockito.eq(false), Mockito.any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    Pageable pageable = invocation.getArgument(1);
+                    int fromIndex = (int) Math.min(players.size(), pageable.getOffset());
+                    int toIndex = (int) Math.min(players.size(), pageable.getOffset() + pageable.getPageSize());
+
+                    return new PageImpl<>(players.subList(fromIndex, toIndex), pageable, players.size());
+                });
     }
 
     @Test
@@ -40,6 +76,17 @@ class PlayerServiceUnitTest {
         assertThat(this.playerService).isNotNull();
     }
 
+    @Test
+    void getVersionTag_serviceRestarted_shouldDifferFromEarlierRunAtSameVersion(){
+        //A restarted service starts over at version 0, under a new epoch.
+        PlayerService restartedService = new PlayerService(this.playerRepository, this.playerLeaderboard,
+                this.playerCache, this.recordBuffer, new PlayerLocks(4), this.transactionManager);
+
+        assertThat(restartedService.getVersion()).isEqualTo(this.playerService.getVersion());
+        assertThat(restartedService.getVersionTag()).isNotEqualTo(this.playerService.getVersionTag());
+        assertThat(this.playerService.getVersionTag()).endsWith("." + this.playerService.getVersion());
+    }
+
     @Test
     void getPlayerRepo_eightPlayersInRepoAndPageIsTwoAndSizeIsThree_shouldSucceed(){
         //The retrieved page should contain the 7th and 8th players.
@@ -58,7 +105,7 @@ class PlayerServiceUnitTest {
         int expectedNumOfElements = 2;
 
         //stubbing
-        Mockito.when(this.playerRepository.findByIsDeleted(false)).thenReturn(players);
+        this.stubFindByIsDeleted(players);
 
         //testing
         assertThatCode(()->this.playerService.getPlayerRepo(pageNumber, pageSize, DEFAULT_SORT_BY))
@@ -95,7 +142,7 @@ class PlayerServiceUnitTest {
         int pageSize = Integer.MAX_VALUE;
 
         //stubbing
-        Mockito.when(this.playerRepository.findByIsDeleted(false)).thenReturn(players);
+        this.stubFindByIsDeleted(players);
 
         //testing
         assertThatCode(()->this.playerService.getPlayerRepo(pageNumber, pageSize, DEFAULT_SORT_BY))
@@ -130,7 +177,7 @@ class PlayerServiceUnitTest {
         int pageSize = Integer.MAX_VALUE;
 
         //stubbing
-        Mockito.when(this.playerRepository.findByIsDeleted(false)).thenReturn(players);
+        this.stubFindByIsDeleted(players);
 
         //testing
         assertThatThrownBy(()->this.playerService.getPlayerRepo(pageNumber, pageSize, DEFAULT_SORT_BY))
@@ -149,6 +196,16 @@ class PlayerServiceUnitTest {
                 .hasMessageContaining("page number is negative");
     }
 
+    @Test
+    void getPlayerRepo_pageSizeIsZero_shouldFail(){
+        int pageNumber = 0;
+        int pageSize = 0;
+
+        assertThatThrownBy(()->this.playerService.getPlayerRepo(pageNumber, pageSize, DEFAULT_SORT_BY))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("page size is not positive");
+    }
+
     @Test
     void createPlayer_playerDidNotExist_shouldSucceed(){
 
@@ -167,6 +224,34 @@ class PlayerServiceUnitTest {
         assertThat(Player.haveSameData(player, savedPlayer));
     }
 
+    @Test
+    void createPlayer_requestWithPlayerId_shouldPutPlayerInMdcAndRestoreIt(){
+
+        Player player = Player.playerBuilder().firstName("silly").lastName("goose").build();
+        Player savedPlayer = player.toBuilder().id(7L).build();
+        List<String> names = new ArrayList<>();
+
+        //stubbing
+        Mockito.when(this.playerRepository.findByFirstNameAndLastNameAllIgnoreCaseAndIsDeleted(
+                player.getFirstName(), player.getLastName(), false)).thenReturn(new ArrayList<>());
+        Mockito.when(this.playerRepository.save(player)).thenAnswer(invocation -> {
+            names.add(MDC.get(LoggingContextInterceptor.PLAYER_NAME));
+            return savedPlayer;
+        });
+
+        //test
+        MDC.put(LoggingContextInterceptor.PLAYER_ID, "3");
+        try{
+            this.playerService.createPlayer(player);
+
+            assertThat(names).containsExactly("goose, silly");
+            assertThat(MDC.get(LoggingContextInterceptor.PLAYER_NAME)).isNull();
+            assertThat(MDC.get(LoggingContextInterceptor.PLAYER_ID)).isEqualTo("3");
+        }finally{
+            MDC.remove(LoggingContextInterceptor.PLAYER_ID);
+        }
+    }
+
     @Test
     void createPlayer_playerDidExist_shouldFail(){
 
@@ -0,0 +1,131 @@
+package com.weixigu.boardgame.service;
+
+import com.weixigu.boardgame.ai.PerfectPlayTable;
+import com.weixigu.boardgame.domain.BitBoard;
+import com.weixigu.boardgame.domain.TicTacToe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TicTacToeAiServiceUnitTest {
+
+    private TicTacToeAiService ticTacToeAiService;
+
+    @BeforeEach
+    void setUp(){
+
+        //The perfect-play table is not loaded, so 3x3 positions are searched as well.
+        this.ticTacToeAiService = new TicTacToeAiService(new PerfectPlayTable(), 1 << 16, 10, 4);
+    }
+
+    @Test
+    void constructor_depthsBeyondTranspositionTable_shouldThrow(){
+
+        assertThatThrownBy(() -> new TicTacToeAiService(new PerfectPlayTable(), 1 << 16, 10, 256))
+                .isInstanceOf(RuntimeException.class).hasMessageContaining("max depth 1 to 255");
+        assertThatThrownBy(() -> new TicTacToeAiService(new PerfectPlayTable(), 1 << 16, 361, 4))
+                .isInstanceOf(RuntimeException.class).hasMessageContaining("full-search cells 0 to 255");
+        assertThatThrownBy(() -> new TicTacToeAiService(new PerfectPlayTable(), 1 << 16, 10, 0))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void findBestReply_xCanWin_shouldCompleteTheLine(){
+
+        String[][] board = {{"X", "X", null}, {"O", "O", null}, {null, null, null}};
+        TicTacToe ticTacToe = TicTacToe.tictactoeBuilder().xNext(true).board(board).build();
+
+        TicTacToe reply = this.ticTacToeAiService.findBestReply(ticTacToe);
+
+        assertThat(reply.getBoard()[0][2]).isEqualTo(BitBoard.PLAYER_X);
+        assertThat(reply.getWinner()).isEqualTo(BitBoard.PLAYER_X);
+        assertThat(reply.xNext()).isFalse();
+    }
+
+    @Test
+    void findBestReply_oMustBlock_shouldBlockTheLine(){
+
+        String[][] board = {{"X", null, null}, {null, "X", null}, {"O", null, null}};
+        TicTacToe ticTacToe = TicTacToe.tictactoeBuilder().xNext(false).board(board).build();
+
+        TicTacToe reply = this.ticTacToeAiService.findBestReply(ticTacToe);
+
+        assertThat(reply.getBoard()[2][2]).isEqualTo(BitBoard.PLAYER_O);
+    }
+
+    @Test
+    void findBestReply_gameIsOver_shouldFail(){
+
+        String[][] board = {{"X", "X", "X"}, {"O", "O", null}, {null, null, null}};
+        TicTacToe ticTacToe = TicTacToe.tictactoeBuilder().xNext(false).board(board).build();
+
+        assertThatThrownBy(()-> this.ticTacToeAiService.findBestReply(ticTacToe))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("game is over");
+    }
+
+    @Test
+    void findBestReply_gomokuOpenFour_shouldWinWithinSearchHorizon(){
+
+        String[][] board = new String[15][15];
+
+        for(int col = 5; col < 9; col++){
+            board[7][col] = BitBoard.PLAYER_X;
+            board[3][col] = BitBoard.PLAYER_O;
+        }
+
+        TicTacToe ticTacToe = TicTacToe.tictactoeBuilder().xNext(true).board(board)
+                .boardLength(15).winLength(5).build();
+
+        TicTacToe reply = this.ticTacToeAiService.findBestReply(ticTacToe);
+
+        assertThat(reply.getWinner()).isEqualTo(BitBoard.PLAYER_X);
+    }
+
+    @Test
+    void getStatistics_repeatedPosition_shouldBeAnsweredFromTable(){
+
+        String[][] board = {{"X", null, null}, {null, null, null}, {null, null, null}};
+        TicTacToe ticTacToe = TicTacToe.tictactoeBuilder().xNext(false).board(board).build();
+
+        this.ticTacToeAiService.findBestReply(ticTacToe);
+        long nodesOfFirstSearch = this.ticTacToeAiService.getStatistics().get("nodes").longValue();
+
+        this.ticTacToeAiService.findBestReply(ticTacToe);
+        Map<String, Number> statistics = this.ticTacToeAiService.getStatistics();
+
+        assertThat(statistics.get("searches").longValue()).isEqualTo(2);
+        assertThat(statistics.get("nodes").longValue() - nodesOfFirstSearch).isLessThan(nodesOfFirstSearch);
+        assertThat(statistics.get("tableHitRate").doubleValue()).isGreaterThan(0.0);
+    }
+
+    @Test
+    void findBestReply_perfectPlayTableIsLoaded_shouldAnswerWithoutSearching(){
+
+        PerfectPlayTable perfectPlayTable = new PerfectPlayTable();
+        perfectPlayTable.load();
+        TicTacToeAiService aiService = new TicTacToeAiService(perfectPlayTable, 1 << 16, 10, 4);
+
+        String[][] board = {{"X", null, null}, {null, "X", null}, {"O", null, null}};
+        TicTacToe ticTacToe = TicTacToe.tictactoeBuilder().xNext(false).board(board).build();
+
+        TicTacToe reply = aiService.findBestReply(ticTacToe);
+
+        assertThat(reply.getBoard()[2][2]).isEqualTo(BitBoard.PLAYER_O);
+        assertThat(aiService.getStatistics().get("searches").longValue()).isZero();
+        assertThat(aiService.getStatistics().get("perfectPlayLookups").longValue()).isEqualTo(1);
+    }
+
+    @Test
+    void evaluate_tableIsNotLoaded_shouldFail(){
+
+        TicTacToe ticTacToe = TicTacToe.tictactoeBuilder().build();
+
+        assertThatThrownBy(()-> this.ticTacToeAiService.evaluate(ticTacToe))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("3x3");
+    }
+}
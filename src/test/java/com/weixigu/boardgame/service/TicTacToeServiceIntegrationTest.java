@@ -0,0 +1,348 @@
+package com.weixigu.boardgame.service;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.domain.BitBoard;
+import com.weixigu.boardgame.domain.TicTacToe;
+import com.weixigu.boardgame.push.GameUpdatePublisher;
+import com.weixigu.boardgame.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class TicTacToeServiceIntegrationTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+
+    @Autowired
+    private TicTacToeService ticTacToeService;
+
+    @Autowired
+    private GameUpdatePublisher updatePublisher;
+
+    //Return the move following 'move' in which the player to move marks the given cell.
+    private static TicTacToe nextMove(TicTacToe move, int row, int col){
+
+        BitBoard next = move.bitBoard().play(row, col, move.xNext());
+
+        return TicTacToe.tictactoeBuilder().xNext(!move.xNext()).board(next.toCells())
+                .boardLength(move.getBoardLength()).winLength(move.getWinLength()).build();
+    }
+
+    @Test
+    void saveMoveOrPlayMove_unknownGame_shouldNotCreateIt(){
+
+        LOGGER.info("Integration test: saveMoveOrPlayMove_unknownGame_shouldNotCreateIt().");
+
+        String gameId = UUID.randomUUID().toString();
+        TicTacToe firstMove = nextMove(TicTacToe.tictactoeBuilder().build(), 1, 1);
+
+        assertThatThrownBy(()-> this.ticTacToeService.saveMove(gameId, firstMove))
+                .isInstanceOf(GameNotFoundException.class)
+                .hasMessageContaining(gameId);
+        assertThatThrownBy(()-> this.ticTacToeService.playMove(gameId, 1, 1))
+                .isInstanceOf(GameNotFoundException.class);
+        assertThatThrownBy(()-> this.ticTacToeService.viewLastMove(gameId))
+                .isInstanceOf(GameNotFoundException.class);
+    }
+
+    @Test
+    void saveMove_createdGameAfterReset_shouldStartAgain(){
+
+        LOGGER.info("Integration test: saveMove_createdGameAfterReset_shouldStartAgain().");
+
+        TicTacToe game = this.ticTacToeService.createGame(3, 3);
+        this.ticTacToeService.resetGame(game.getGameId());
+
+        TicTacToe firstMove = this.ticTacToeService.saveMove(game.getGameId(),
+                nextMove(TicTacToe.tictactoeBuilder().build(), 1, 1));
+
+        assertThat(firstMove.getMoveNumber()).isZero();
+    }
+
+    @Test
+    void saveMove_twoGamesPlayedAtOnce_shouldNotOverwriteEachOther(){
+
+        LOGGER.info("Integration test: saveMove_twoGamesPlayedAtOnce_shouldNotOverwriteEachOther().");
+
+        TicTacToe gameA = this.ticTacToeService.createGame(3, 3);
+        TicTacToe gameB = this.ticTacToeService.createGame(15, 5);
+
+        assertThat(gameA.getGameId()).isNotEqualTo(gameB.getGameId());
+
+        TicTacToe moveA1 = this.ticTacToeService.saveMove(gameA.getGameId(), nextMove(gameA, 0, 0));
+        TicTacToe moveB1 = this.ticTacToeService.saveMove(gameB.getGameId(), nextMove(gameB, 7, 7));
+        TicTacToe moveA2 = this.ticTacToeService.saveMove(gameA.getGameId(), nextMove(moveA1, 1, 1));
+
+        assertThat(moveA2.getMoveNumber()).isEqualTo(2);
+        assertThat(moveB1.getMoveNumber()).isEqualTo(1);
+        assertThat(this.ticTacToeService.viewLastMove(gameA.getGameId()).getBoard()[1][1])
+                .isEqualTo(BitBoard.PLAYER_O);
+        assertThat(this.ticTacToeService.viewLastMove(gameB.getGameId()).getBoard()[7][7])
+                .isEqualTo(BitBoard.PLAYER_X);
+    }
+
+    @Test
+    void saveMove_winningMove_shouldFindWinnerWithoutScanningTheSavedBoard(){
+
+        LOGGER.info("Integration test: saveMove_winningMove_shouldFindWinnerWithoutScanningTheSavedBoard().");
+
+        TicTacToe move = this.ticTacToeService.createGame(3, 3);
+
+        for(int[] cell : new int[][]{{0, 0}, {1, 0}, {0, 1}, {1, 1}}){
+            move = this.ticTacToeService.saveMove(move.getGameId(), nextMove(move, cell[0], cell[1]));
+        }
+
+        //The saved move's own board (BitBoard.fromCells, which scans for a winner) must never be unpacked.
+        TicTacToe winningMove = Mockito.spy(nextMove(move, 0, 2));
+        TicTacToe savedMove = this.ticTacToeService.saveMove(move.getGameId(), winningMove);
+
+        Mockito.verify(winningMove, Mockito.never()).bitBoard();
+        assertThat(savedMove.getMoveNumber()).isEqualTo(5);
+        assertThat(savedMove.getWinner()).isEqualTo(BitBoard.PLAYER_X);
+        assertThat(this.ticTacToeService.viewLastMove(move.getGameId()).getWinner()).isEqualTo(BitBoard.PLAYER_X);
+    }
+
+    @Test
+    void restoreGame_replayedBoards_shouldStoreThemAsCurrentMovesOnce(){
+
+        LOGGER.info("Integration test: restoreGame_replayedBoards_shouldStoreThemAsCurrentMovesOnce().");
+
+        String gameId = UUID.randomUUID().toString();
+        List<BitBoard> boards = new ArrayList<>();
+        boards.add(BitBoard.empty(3, 3));
+        boards.add(boards.get(0).play(1, 1, true));
+        boards.add(boards.get(1).play(0, 2, false));
+
+        assertThat(this.ticTacToeService.restoreGame(gameId, boards)).isEqualTo(3);
+        assertThat(this.ticTacToeService.restoreGame(gameId, boards)).isEqualTo(0);
+
+        TicTacToe lastMove = this.ticTacToeService.viewLastMove(gameId);
+
+        assertThat(lastMove.getMoveNumber()).isEqualTo(2);
+        assertThat(lastMove.xNext()).isTrue();
+        assertThat(lastMove.bitBoard().toCompactString()).isEqualTo("--O-X----");
+        assertThat(this.ticTacToeService.viewPrevMove(gameId, 1).bitBoard().toCompactString()).isEqualTo("----X----");
+        assertThat(this.ticTacToeService.saveMove(gameId, nextMove(lastMove, 2, 2)).getMoveNumber()).isEqualTo(3);
+    }
+
+    @Test
+    void revertToPrevMove_oneOfTwoGames_shouldOnlyRevertThatGame(){
+
+        LOGGER.info("Integration test: revertToPrevMove_oneOfTwoGames_shouldOnlyRevertThatGame().");
+
+        TicTacToe gameA = this.ticTacToeService.createGame(3, 3);
+        TicTacToe gameB = this.ticTacToeService.createGame(3, 3);
+
+        TicTacToe moveA1 = this.ticTacToeService.saveMove(gameA.getGameId(), nextMove(gameA, 0, 0));
+        this.ticTacToeService.saveMove(gameA.getGameId(), nextMove(moveA1, 2, 2));
+        this.ticTacToeService.saveMove(gameB.getGameId(), nextMove(gameB, 1, 1));
+
+        TicTacToe reverted = this.ticTacToeService.revertToPrevMove(gameA.getGameId(), 1);
+
+        assertThat(reverted.getMoveNumber()).isEqualTo(1);
+        assertThat(this.ticTacToeService.viewLastMove(gameA.getGameId()).getMoveNumber()).isEqualTo(1);
+        assertThat(this.ticTacToeService.viewLastMove(gameB.getGameId()).getMoveNumber()).isEqualTo(1);
+        assertThatThrownBy(()-> this.ticTacToeService.viewPrevMove(gameA.getGameId(), 2))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("too large");
+
+        //The next move takes the place of the reverted one.
+        TicTacToe newMove = this.ticTacToeService.saveMove(gameA.getGameId(), nextMove(reverted, 0, 1));
+        assertThat(newMove.getMoveNumber()).isEqualTo(2);
+    }
+
+    @Test
+    void resetGame_gameIdLongerThanEventLogField_shouldFailValidation(){
+
+        LOGGER.info("Integration test: resetGame_gameIdLongerThanEventLogField_shouldFailValidation().");
+
+        String gameId = UUID.randomUUID().toString() + "-x";
+
+        assertThatThrownBy(()-> this.ticTacToeService.resetGame(gameId))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining(gameId);
+    }
+
+    @Test
+    void resetGame_oneOfTwoGames_shouldOnlyResetThatGame(){
+
+        LOGGER.info("Integration test: resetGame_oneOfTwoGames_shouldOnlyResetThatGame().");
+
+        TicTacToe gameA = this.ticTacToeService.createGame(3, 3);
+        TicTacToe gameB = this.ticTacToeService.createGame(3, 3);
+
+        this.ticTacToeService.resetGame(gameA.getGameId());
+
+        assertThatThrownBy(()-> this.ticTacToeService.viewLastMove(gameA.getGameId()))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("DNE");
+        assertThatCode(()-> this.ticTacToeService.viewPrevMove(gameB.getGameId(), 0)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void viewPrevMove_movesAcrossCheckpoints_shouldRebuildEachBoard(){
+
+        LOGGER.info("Integration test: viewPrevMove_movesAcrossCheckpoints_shouldRebuildEachBoard().");
+
+        TicTacToe game = this.ticTacToeService.createGame(9, 5);
+        TicTacToe[] moves = new TicTacToe[21];
+        moves[0] = game;
+
+        for(int i = 1; i < moves.length; i++){
+            moves[i] = this.ticTacToeService.saveMove(game.getGameId(), nextMove(moves[i - 1], i / 9, i % 9));
+        }
+
+        for(int i = 0; i < moves.length; i++){
+            assertThat(this.ticTacToeService.viewPrevMove(game.getGameId(), i).getBoard())
+                    .isEqualTo(moves[i].getBoard());
+        }
+
+        //A board that isn't the last board plus one mark is stored as a whole.
+        TicTacToe jump = nextMove(nextMove(moves[20], 8, 0), 8, 1);
+        this.ticTacToeService.saveMove(game.getGameId(), jump);
+
+        assertThat(this.ticTacToeService.viewLastMove(game.getGameId()).getBoard()).isEqualTo(jump.getBoard());
+    }
+
+    @Test
+    void saveMove_gameHasSubscribers_shouldPushEachUpdateToThem() throws InterruptedException{
+
+        LOGGER.info("Integration test: saveMove_gameHasSubscribers_shouldPushEachUpdateToThem().");
+
+        TicTacToe game = this.ticTacToeService.createGame(3, 3);
+        this.updatePublisher.subscribe(game.getGameId());
+        this.updatePublisher.subscribe(game.getGameId());
+        long numOfSentUpdates = this.updatePublisher.getStatistics().get("numOfSentUpdates").longValue();
+
+        TicTacToe move1 = this.ticTacToeService.saveMove(game.getGameId(), nextMove(game, 0, 0));
+        this.ticTacToeService.revertToPrevMove(game.getGameId(), 0);
+        this.ticTacToeService.resetGame(game.getGameId());
+
+        assertThat(move1.getMoveNumber()).isEqualTo(1);
+
+        //The updates are sent by the publisher's threads after the changes return.
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while(this.updatePublisher.getStatistics().get("numOfSentUpdates").longValue() < numOfSentUpdates + 3 * 2 &&
+                System.currentTimeMillis() < deadline){
+            Thread.sleep(10);
+        }
+
+        assertThat(this.updatePublisher.getStatistics().get("numOfSentUpdates").longValue())
+                .isEqualTo(numOfSentUpdates + 3 * 2);
+    }
+
+    @Test
+    void revertToPrevMoveAndResetGame_defaultGame_shouldRevertAndResetIt(){
+
+        LOGGER.info("Integration test: revertToPrevMoveAndResetGame_defaultGame_shouldRevertAndResetIt().");
+
+        this.ticTacToeService.resetGame();
+        TicTacToe firstMove = this.ticTacToeService.saveMove(nextMove(TicTacToe.tictactoeBuilder().build(), 1, 1));
+        this.ticTacToeService.saveMove(nextMove(firstMove, 0, 0));
+        this.ticTacToeService.playMove(2, 2);
+
+        TicTacToe reverted = this.ticTacToeService.revertToPrevMove(0);
+
+        assertThat(reverted.getMoveNumber()).isZero();
+        assertThat(this.ticTacToeService.viewLastMove(TicTacToe.DEFAULT_GAME_ID).getMoveNumber()).isZero();
+        assertThat(this.ticTacToeService.viewLastMove(TicTacToe.DEFAULT_GAME_ID).getBoard()[0][0]).isNull();
+
+        assertThat(this.ticTacToeService.resetGame()).contains("removing all 1 existing moves");
+        assertThatThrownBy(()-> this.ticTacToeService.viewLastMove(TicTacToe.DEFAULT_GAME_ID))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("DNE");
+    }
+
+    @Test
+    void saveMove_twoThreadsSavingToOneGame_shouldNumberEveryMoveOnce() throws Exception{
+
+        LOGGER.info("Integration test: saveMove_twoThreadsSavingToOneGame_shouldNumberEveryMoveOnce().");
+
+        TicTacToe game = this.ticTacToeService.createGame(15, 5);
+        int numOfMovesPerThread = 25;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<?>> results = new ArrayList<>();
+
+        for(int thread = 0; thread < 2; thread++){
+            int row = thread;
+
+            results.add(executor.submit(() -> {
+                start.await();
+
+                for(int col = 0; col < numOfMovesPerThread; col++){
+                    this.ticTacToeService.saveMove(game.getGameId(), nextMove(game, row, col % 15));
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+
+        for(Future<?> result : results){
+            result.get();
+        }
+        executor.shutdown();
+
+        int numOfMoves = 2 * numOfMovesPerThread;
+        assertThat(this.ticTacToeService.viewLastMove(game.getGameId()).getMoveNumber()).isEqualTo(numOfMoves);
+
+        for(int i = 0; i <= numOfMoves; i++){
+            assertThat(this.ticTacToeService.viewPrevMove(game.getGameId(), i).getMoveNumber()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void saveMove_boardOfAnotherSize_shouldFail(){
+
+        LOGGER.info("Integration test: saveMove_boardOfAnotherSize_shouldFail().");
+
+        TicTacToe game = this.ticTacToeService.createGame(3, 3);
+        TicTacToe otherBoard = TicTacToe.tictactoeBuilder().board(new String[4][4]).boardLength(4).build();
+
+        assertThatThrownBy(()-> this.ticTacToeService.saveMove(game.getGameId(), otherBoard))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("doesn't match the board");
+    }
+
+    @Test
+    void playMove_singleMoves_shouldSaveEachBoardAndRejectIllegalMoves(){
+
+        LOGGER.info("Integration test: playMove_singleMoves_shouldSaveEachBoardAndRejectIllegalMoves().");
+
+        TicTacToe game = this.ticTacToeService.createGame(3, 3);
+        this.ticTacToeService.playMove(game.getGameId(), 1, 1);
+        TicTacToe move = this.ticTacToeService.playMove(game.getGameId(), 0, 2);
+
+        assertThat(move.getMoveNumber()).isEqualTo(2);
+        assertThat(move.xNext()).isTrue();
+        assertThat(this.ticTacToeService.viewLastMove(game.getGameId()).bitBoard().toCompactString())
+                .isEqualTo("--O-X----");
+        assertThatThrownBy(()-> this.ticTacToeService.playMove(game.getGameId(), 1, 1))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("NOT legal");
+    }
+
+    @Test
+    void createGame_unsupportedSize_shouldFail(){
+
+        assertThatThrownBy(()-> this.ticTacToeService.createGame(20, 5))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Unsupported board");
+    }
+}
@@ -0,0 +1,73 @@
+package com.weixigu.boardgame.validation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RequestParamsUnitTest {
+
+    @Test
+    void parseNonNegativeInt_digitsUpToMaxInt_shouldReturnValue(){
+
+        assertThat(RequestParams.parseNonNegativeInt("0", "page")).isEqualTo(0);
+        assertThat(RequestParams.parseNonNegativeInt("00042", "page")).isEqualTo(42);
+        assertThat(RequestParams.parseNonNegativeInt("2147483647", "size")).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void parseNonNegativeInt_malformedOrTooLarge_shouldFail(){
+
+        assertThatThrownBy(()-> RequestParams.parseNonNegativeInt("-1", "page"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Request param 'page' should be digits only");
+        assertThatThrownBy(()-> RequestParams.parseNonNegativeInt("", "page"))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(()-> RequestParams.parseNonNegativeInt("2147483648", "size"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Request param 'size' is too large");
+        assertThatThrownBy(()-> RequestParams.parseNonNegativeInt("99999999999999999999999", "size"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("too large");
+    }
+
+    @Test
+    void isDigits_lengthLimit_shouldRejectLongerValues(){
+
+        assertThat(RequestParams.isDigits("123456789", 9)).isTrue();
+        assertThat(RequestParams.isDigits("1234567890", 9)).isFalse();
+        assertThat(RequestParams.isDigits("12a", 9)).isFalse();
+    }
+
+    @Test
+    void validateGameId_defaultOrUuid_shouldPass(){
+
+        assertThatCode(()-> RequestParams.validateGameId("default")).doesNotThrowAnyException();
+        assertThatCode(()-> RequestParams.validateGameId("123e4567-e89b-12d3-a456-426614174000"))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void validateGameId_emptyTooLongOrOtherCharacters_shouldFail(){
+
+        assertThatThrownBy(()-> RequestParams.validateGameId(""))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Game id should be 1 to 36");
+        assertThatThrownBy(()-> RequestParams.validateGameId(null))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(()-> RequestParams.validateGameId("123e4567-e89b-12d3-a456-4266141740001"))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(()-> RequestParams.validateGameId("game 1"))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(()-> RequestParams.validateGameId("gam\u00e9"))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void matchesETag_listOrWeakOrAnyTag_shouldMatch(){
+
+        assertThat(RequestParams.matchesETag("\"1\", W/\"7-0-20-id\"", "\"7-0-20-id\"")).isTrue();
+        assertThat(RequestParams.matchesETag("*", "\"7-0-20-id\"")).isTrue();
+        assertThat(RequestParams.matchesETag("\"6-0-20-id\"", "\"7-0-20-id\"")).isFalse();
+        assertThat(RequestParams.matchesETag(null, "\"7-0-20-id\"")).isFalse();
+    }
+}
@@ -0,0 +1,48 @@
+package com.weixigu.boardgame.validation;
+
+import com.weixigu.boardgame.domain.TicTacToe;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TicTacToeValidatorUnitTest {
+
+    private static Errors validate(String[][] board){
+
+        TicTacToe ticTacToe = TicTacToe.tictactoeBuilder().board(board).build();
+        Errors errors = new BeanPropertyBindingResult(ticTacToe, "ticTacToe");
+        new TicTacToeValidator().validate(ticTacToe, errors);
+
+        return errors;
+    }
+
+    @Test
+    void validate_nullRow_shouldRejectWrongSizeOnce(){
+
+        Errors errors = validate(new String[][]{{"X", null, null}, null, null});
+
+        assertThat(errors.getFieldErrors().stream().map(FieldError::getCode).collect(Collectors.toList()))
+                .containsExactly("wrong.size");
+    }
+
+    @Test
+    void validate_shortRowAndInvalidMark_shouldRejectBoth(){
+
+        Errors errors = validate(new String[][]{{"X", "Y"}, {null, null, null}, {"O", null, "Z"}});
+
+        assertThat(errors.getFieldErrors().stream().map(FieldError::getCode).collect(Collectors.toList()))
+                .containsExactly("wrong.size", "invalid.value");
+    }
+
+    @Test
+    void validate_validBoard_shouldAccept(){
+
+        assertThat(validate(new String[][]{{"X", null, null}, {null, "O", null}, {null, null, null}}).hasErrors())
+                .isFalse();
+    }
+}
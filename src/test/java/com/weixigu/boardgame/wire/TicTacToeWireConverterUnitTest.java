@@ -0,0 +1,88 @@
+package com.weixigu.boardgame.wire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weixigu.boardgame.domain.BitBoard;
+import com.weixigu.boardgame.domain.TicTacToe;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TicTacToeWireConverterUnitTest {
+
+    private final CompactTicTacToeConverter compactConverter = new CompactTicTacToeConverter(new ObjectMapper());
+    private final BinaryTicTacToeConverter binaryConverter = new BinaryTicTacToeConverter();
+    private final BinaryMoveConverter moveConverter = new BinaryMoveConverter();
+
+    private static TicTacToe move(){
+        BitBoard board = BitBoard.empty(3, 3).play(0, 0, true).play(1, 1, false).play(0, 2, true);
+
+        return TicTacToe.tictactoeBuilder().gameId("game").moveNumber(3).xNext(false).board(board.toCells()).build();
+    }
+
+    private static <T> MockHttpOutputMessage write(HttpMessageConverter<T> converter, T value) throws IOException{
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(value, null, outputMessage);
+
+        return outputMessage;
+    }
+
+    @Test
+    void compactConverter_move_shouldWriteBoardStringAndReadItBack() throws IOException{
+
+        String json = write(this.compactConverter, move()).getBodyAsString(StandardCharsets.UTF_8);
+
+        assertThat(json).contains("\"board\":\"X-X-O----\"").contains("\"moveNumber\":3");
+
+        TicTacToe readMove = this.compactConverter.read(TicTacToe.class, new MockHttpInputMessage(
+                json.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(readMove.getGameId()).isEqualTo("game");
+        assertThat(readMove.xNext()).isFalse();
+        assertThat(readMove.getBoard()).isEqualTo(move().getBoard());
+    }
+
+    @Test
+    void binaryConverter_move_shouldWriteTenBytesAndReadThemBack() throws IOException{
+
+        MockHttpOutputMessage outputMessage = write(this.binaryConverter, move());
+        byte[] bytes = outputMessage.getBodyAsBytes();
+
+        assertThat(bytes).hasSize(10);
+        assertThat(outputMessage.getHeaders().getContentType()).isEqualTo(TicTacToeMediaTypes.BOARD_BINARY);
+
+        TicTacToe readMove = this.binaryConverter.read(TicTacToe.class, new MockHttpInputMessage(bytes));
+
+        assertThat(readMove.xNext()).isFalse();
+        assertThat(readMove.getBoard()).isEqualTo(move().getBoard());
+    }
+
+    @Test
+    void converters_malformedBody_shouldFailToRead(){
+
+        assertThatThrownBy(()-> this.binaryConverter.read(TicTacToe.class, new MockHttpInputMessage(new byte[]{3, 3})))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+        assertThatThrownBy(()-> this.compactConverter.read(TicTacToe.class, new MockHttpInputMessage(
+                "{\"board\":\"X--\"}".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(HttpMessageNotReadableException.class)
+                .hasMessageContaining("should have 9 characters");
+        assertThatThrownBy(()-> this.moveConverter.read(Move.class, new MockHttpInputMessage(new byte[]{1})))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+    }
+
+    @Test
+    void moveConverter_twoBytes_shouldReadRowAndCol() throws IOException{
+
+        Move move = this.moveConverter.read(Move.class, new MockHttpInputMessage(new byte[]{2, 1}));
+
+        assertThat(move.getRow()).isEqualTo(2);
+        assertThat(move.getCol()).isEqualTo(1);
+        assertThat(write(this.moveConverter, move).getBodyAsBytes()).containsExactly(2, 1);
+    }
+}
@@ -0,0 +1,144 @@
+package com.weixigu.boardgame.writebehind;
+
+import com.weixigu.boardgame.BoardGameApplication;
+import com.weixigu.boardgame.domain.Player;
+import com.weixigu.boardgame.repo.IPlayerRepository;
+import com.weixigu.boardgame.service.PlayerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {"player.write-behind.enabled=true", "player.write-behind.max-records=1000",
+        "player.write-behind.flush-interval-ms=3600000"})
+class PlayerRecordBufferIntegrationTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardGameApplication.class);
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Autowired
+    private PlayerRecordBuffer recordBuffer;
+
+    @Autowired
+    private IPlayerRepository playerRepository;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    private Player createPlayer(String lastName){
+        Player player = this.playerService.createPlayer(Player.playerBuilder().firstName("Buffered").lastName(lastName)
+                .build());
+        this.createdIds.add(player.getId());
+
+        return player;
+    }
+
+    //The database is shared with the other tests, which count the non-deleted players.
+    @AfterEach
+    void tearDown(){
+
+        this.recordBuffer.flush();
+
+        for(Long id : this.createdIds){
+            Player player = this.playerRepository.findById(id).get();
+
+            if(!player.isDeleted()){
+                this.playerService.deletePlayer(player);
+            }
+        }
+    }
+
+    @Test
+    void saveRecord_writeBehind_shouldShowRecordsAtOnceAndWriteThemInOneFlush(){
+
+        LOGGER.info("Integration test: saveRecord_writeBehind_shouldShowRecordsAtOnceAndWriteThemInOneFlush().");
+
+        Long id = this.createPlayer("Squanchy").getId();
+        Player win = Player.playerBuilder().firstName("Buffered").lastName("Squanchy").nickName("Squanch")
+                .numTicTacToeWin(1).build();
+        Player loss = Player.playerBuilder().firstName("Buffered").lastName("Squanchy").numTicTacToeLoss(1).build();
+
+        this.playerService.saveRecord(win);
+        this.playerService.saveRecord(win);
+        this.playerService.saveRecord(loss);
+
+        //Buffered: the leaderboard and the player list have the records, the repo doesn't yet.
+        assertThat(this.playerRepository.findById(id).get().getNumTicTacToeWin()).isZero();
+        assertThat(this.playerService.getRank(id).get("score")).isEqualTo(1);
+
+        Page<Player> page = this.playerService.getPlayerRepo(0, Integer.MAX_VALUE, "id");
+        Player listedPlayer = page.getContent().stream().filter(player -> id.equals(player.getId())).findFirst().get();
+        assertThat(listedPlayer.getNumTicTacToeWin()).isEqualTo(2);
+        assertThat(listedPlayer.getNickName()).isEqualTo("Squanch");
+
+        assertThat(this.recordBuffer.flush()).isGreaterThanOrEqualTo(3);
+
+        Player savedPlayer = this.playerRepository.findById(id).get();
+        assertThat(savedPlayer.getNumTicTacToeWin()).isEqualTo(2);
+        assertThat(savedPlayer.getNumTicTacToeLoss()).isEqualTo(1);
+        assertThat(savedPlayer.getNickName()).isEqualTo("Squanch");
+        assertThat(this.recordBuffer.flush()).isZero();
+    }
+
+    @Test
+    void saveRecord_concurrentRecordsOfOnePlayer_shouldCountEachRecordOnce() throws Exception{
+
+        LOGGER.info("Integration test: saveRecord_concurrentRecordsOfOnePlayer_shouldCountEachRecordOnce().");
+
+        Long id = this.createPlayer("Birdperson").getId();
+        Player win = Player.playerBuilder().firstName("Buffered").lastName("Birdperson").numTicTacToeWin(1).build();
+        int numOfThreads = 8;
+        int numOfRecordsPerThread = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+        List<Future<?>> results = new ArrayList<>();
+
+        //Flushes run in between, since the buffer holds at most 1000 records.
+        for(int i = 0; i < numOfThreads; i++){
+            results.add(executor.submit(() -> {
+                for(int j = 0; j < numOfRecordsPerThread; j++){
+                    this.playerService.saveRecord(win);
+                }
+            }));
+        }
+
+        for(Future<?> result : results){
+            result.get();
+        }
+        executor.shutdown();
+        this.recordBuffer.flush();
+
+        int numOfRecords = numOfThreads * numOfRecordsPerThread;
+        assertThat(this.playerRepository.findById(id).get().getNumTicTacToeWin()).isEqualTo(numOfRecords);
+        assertThat(this.playerService.getRank(id).get("score")).isEqualTo(numOfRecords);
+    }
+
+    @Test
+    void deletePlayer_playerHasBufferedRecords_shouldWriteThemFirst(){
+
+        LOGGER.info("Integration test: deletePlayer_playerHasBufferedRecords_shouldWriteThemFirst().");
+
+        Long id = this.createPlayer("Gearhead").getId();
+        this.playerService.saveRecord(Player.playerBuilder().firstName("Buffered").lastName("Gearhead")
+                .numTicTacToeDraw(1).build());
+
+        //The player as listed (with the buffered draw) is the player to be deleted.
+        this.playerService.deletePlayer(Player.playerBuilder().firstName("Buffered").lastName("Gearhead")
+                .numTicTacToeDraw(1).build());
+
+        assertThat(this.playerRepository.findById(id).get().isDeleted()).isTrue();
+        assertThat(this.playerRepository.findById(id).get().getNumTicTacToeDraw()).isEqualTo(1);
+    }
+}
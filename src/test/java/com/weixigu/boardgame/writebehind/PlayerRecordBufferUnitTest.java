@@ -0,0 +1,52 @@
+package com.weixigu.boardgame.writebehind;
+
+import com.weixigu.boardgame.cache.PlayerCache;
+import com.weixigu.boardgame.domain.Player;
+import com.weixigu.boardgame.repo.IPlayerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PlayerRecordBufferUnitTest {
+
+    @Test
+    void add_recordOverflowingBufferedSum_shouldFlushBufferedSumFirst(){
+
+        IPlayerRepository playerRepository = mock(IPlayerRepository.class);
+        List<List<Player>> writes = new ArrayList<>();
+
+        when(playerRepository.incrementRecords(any())).thenAnswer(invocation -> {
+            List<Player> players = invocation.getArgument(0);
+            writes.add(new ArrayList<>(players));
+            return new int[]{1};
+        });
+
+        PlayerRecordBuffer recordBuffer = new PlayerRecordBuffer(playerRepository, new PlayerCache(4),
+                mock(PlatformTransactionManager.class), true, 1000);
+        Player record = Player.playerBuilder().firstName("Silly").lastName("Goose")
+                .numTicTacToeWin(Integer.MAX_VALUE - 1).build();
+
+        recordBuffer.add(1L, record);
+        recordBuffer.add(1L, Player.playerBuilder().firstName("Silly").lastName("Goose").numTicTacToeWin(1).build());
+
+        assertThat(writes).isEmpty();
+
+        recordBuffer.add(1L, Player.playerBuilder().firstName("Silly").lastName("Goose").numTicTacToeWin(1)
+                .numTicTacToeDraw(1).build());
+
+        assertThat(writes).hasSize(1);
+        assertThat(writes.get(0).get(0).getNumTicTacToeWin()).isEqualTo(Integer.MAX_VALUE);
+
+        recordBuffer.flush();
+
+        assertThat(writes).hasSize(2);
+        assertThat(writes.get(1).get(0).getNumTicTacToeWin()).isEqualTo(1);
+        assertThat(writes.get(1).get(0).getNumTicTacToeDraw()).isEqualTo(1);
+    }
+}